@@ -2,6 +2,7 @@ package itu.cloud.roadworks.api;
 
 import itu.cloud.roadworks.model.AdvancementRate;
 import itu.cloud.roadworks.repository.AdvancementRateRepository;
+import itu.cloud.roadworks.service.ReferenceDataService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -14,10 +15,11 @@ import java.util.List;
 public class AdvancementRateApi {
 
     private final AdvancementRateRepository repository;
+    private final ReferenceDataService referenceDataService;
 
     @GetMapping
-    public ResponseEntity<List<AdvancementRate>> findAll() {
-        return ResponseEntity.ok(repository.findAll());
+    public ResponseEntity<List<ReferenceDataService.AdvancementRateEntry>> findAll() {
+        return ResponseEntity.ok(referenceDataService.getAdvancementRates());
     }
 
     @PutMapping("/{statusKey}")
@@ -28,6 +30,8 @@ public class AdvancementRateApi {
         AdvancementRate rate = repository.findByStatusKeyIgnoreCase(statusKey)
                 .orElse(AdvancementRate.builder().statusKey(statusKey).build());
         rate.setPercentage(percentage);
-        return ResponseEntity.ok(repository.save(rate));
+        AdvancementRate saved = repository.save(rate);
+        referenceDataService.advancementRatesChanged();
+        return ResponseEntity.ok(saved);
     }
 }
@@ -145,6 +145,17 @@ public class AuthApi {
                         .build()));
     }
 
+    @Operation(
+            summary = "État du cache des sessions",
+            description = "Sessions en cache, validations servies par le cache (hits) ou par la base (misses), " +
+                    "et sessions sorties du cache faute de place (evictions)."
+    )
+    @SecurityRequirement(name = "bearerAuth")
+    @GetMapping("/session-cache")
+    public ResponseEntity<Map<String, Object>> getSessionCacheStats() {
+        return ResponseEntity.ok(authService.getSessionCacheStats());
+    }
+
     @Operation(
             summary = "Liste des rôles",
             description = "Récupère la liste de tous les rôles disponibles dans le système"
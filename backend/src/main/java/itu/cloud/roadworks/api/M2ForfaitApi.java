@@ -11,6 +11,7 @@ import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import itu.cloud.roadworks.model.DefaultPrice;
 import itu.cloud.roadworks.repository.DefaultPriceRepository;
+import itu.cloud.roadworks.service.ReferenceDataService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -27,6 +28,7 @@ import java.util.Map;
 public class M2ForfaitApi {
 
     private final DefaultPriceRepository repository;
+    private final ReferenceDataService referenceDataService;
 
     @Operation(summary = "Lister les forfaits m²")
     @ApiResponses(value = {
@@ -89,6 +91,7 @@ public class M2ForfaitApi {
                 return ResponseEntity.badRequest().body(Map.of("error", "prixM2 invalide (>0)"));
             }
             DefaultPrice saved = repository.save(DefaultPrice.builder().price(price).build());
+            referenceDataService.defaultPriceChanged();
             return ResponseEntity.ok(saved);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
@@ -110,7 +113,9 @@ public class M2ForfaitApi {
                 return ResponseEntity.badRequest().body(Map.of("error", "prixM2 invalide (>0)"));
             }
             existing.setPrice(price);
-            return ResponseEntity.ok(repository.save(existing));
+            DefaultPrice saved = repository.save(existing);
+            referenceDataService.defaultPriceChanged();
+            return ResponseEntity.ok(saved);
         }).orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", "Forfait non trouvé")));
     }
 
@@ -126,6 +131,7 @@ public class M2ForfaitApi {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", "Forfait non trouvé"));
         }
         repository.deleteById(id);
+        referenceDataService.defaultPriceChanged();
         return ResponseEntity.ok(Map.of("message", "Forfait supprimé"));
     }
 
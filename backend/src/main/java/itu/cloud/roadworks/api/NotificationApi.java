@@ -0,0 +1,139 @@
+package itu.cloud.roadworks.api;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import itu.cloud.roadworks.service.NotificationJournal;
+import itu.cloud.roadworks.service.NotificationTopics;
+import itu.cloud.roadworks.service.SseNotificationBroadcaster;
+import itu.cloud.roadworks.service.WebSocketMetrics;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/notifications")
+@RequiredArgsConstructor
+@Tag(name = "Notifications", description = "Abonnements et supervision de la diffusion temps réel (WebSocket)")
+public class NotificationApi {
+
+    private final WebSocketMetrics webSocketMetrics;
+    private final NotificationTopics notificationTopics;
+    private final NotificationJournal notificationJournal;
+    private final SseNotificationBroadcaster sseBroadcaster;
+
+    @Operation(
+            summary = "Destinations WebSocket d'une zone",
+            description = """
+                    Destinations STOMP auxquelles s'abonner pour recevoir les événements des signalements d'une zone
+                    (tuiles au zoom notification.topics.tile-zoom), pour les types de problème donnés ou tous.
+                    Les événements de synchronisation restent sur /topic/signalements ; /topic/signalements/** reçoit tout.
+                    """
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Zoom des tuiles et destinations"),
+            @ApiResponse(responseCode = "400", description = "Zone couvrant trop de tuiles")
+    })
+    @GetMapping("/topics")
+    public ResponseEntity<?> getTopics(
+            @RequestParam double minLat,
+            @RequestParam double minLng,
+            @RequestParam double maxLat,
+            @RequestParam double maxLng,
+            @Parameter(description = "Identifiants des types de problème (tous si absent)")
+            @RequestParam(required = false) List<Long> typeProblemIds
+    ) {
+        try {
+            List<String> destinations = notificationTopics.subscriptions(minLat, minLng, maxLat, maxLng, typeProblemIds);
+            return ResponseEntity.ok(Map.of("zoom", notificationTopics.getZoom(), "destinations", destinations));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @Operation(
+            summary = "Rejeu des événements manqués",
+            description = """
+                    Sans since : flux et dernier numéro courants, à lire avant de charger les signalements.
+                    Avec stream et since (dernier numéro reçu) : événements postérieurs, limités aux destinations
+                    correspondant au motif destination. 410 si le flux a changé (redémarrage) ou si les événements
+                    manqués sont sortis du tampon (notification.replay.capacity) : le client doit tout recharger.
+                    """
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Flux, dernier numéro et événements manqués"),
+            @ApiResponse(responseCode = "410", description = "Rejeu impossible, rechargement complet nécessaire")
+    })
+    @SecurityRequirement(name = "bearerAuth")
+    @GetMapping("/replay")
+    public ResponseEntity<?> replay(
+            @RequestParam(required = false) String stream,
+            @RequestParam(required = false) Long since,
+            @Parameter(description = "Motif de destination STOMP, ex. /topic/signalements/** (tout si absent)")
+            @RequestParam(required = false) String destination
+    ) {
+        if (since == null) {
+            return ResponseEntity.ok(Map.of(
+                    "stream", notificationJournal.getStream(),
+                    "latestSequence", notificationJournal.latestSequence(),
+                    "events", List.of()));
+        }
+        NotificationJournal.Replay replay = notificationJournal.since(stream, since, destination);
+        if (replay.events().isEmpty()) {
+            return ResponseEntity.status(HttpStatus.GONE).body(Map.of(
+                    "error", "Événements manqués indisponibles, rechargement nécessaire",
+                    "stream", replay.stream(),
+                    "latestSequence", replay.latestSequence()));
+        }
+        return ResponseEntity.ok(Map.of(
+                "stream", replay.stream(),
+                "latestSequence", replay.latestSequence(),
+                "events", replay.events().get()));
+    }
+
+    @Operation(
+            summary = "Flux Server-Sent Events des notifications",
+            description = """
+                    Mêmes trames que sur WebSocket, pour les destinations correspondant au motif destination
+                    (/topic/signalements/** par défaut). Chaque modification a l'id "{stream}:{sequence}" : à la reconnexion,
+                    EventSource renvoie Last-Event-ID et les événements manqués sont rejoués ; s'ils ne sont plus disponibles,
+                    un événement "resync" est envoyé et le client doit tout recharger. Commentaire de battement de cœur
+                    toutes les sse.heartbeat-ms.
+                    """
+    )
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(
+            @Parameter(description = "Motif de destination STOMP, ex. /topic/signalements/13/*/*/*")
+            @RequestParam(required = false) String destination,
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId
+    ) {
+        return sseBroadcaster.subscribe(destination, lastEventId);
+    }
+
+    @Operation(
+            summary = "État de la diffusion WebSocket",
+            description = "Sessions ouvertes, trames abandonnées sur canal sortant saturé, sessions coupées pour lenteur, "
+                    + "occupation des files des canaux inbound, broker et outbound, et connexions SSE (sse)."
+    )
+    @SecurityRequirement(name = "bearerAuth")
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Object>> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>(webSocketMetrics.stats());
+        stats.put("sse", sseBroadcaster.stats());
+        return ResponseEntity.ok(stats);
+    }
+}
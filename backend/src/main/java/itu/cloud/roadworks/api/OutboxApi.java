@@ -0,0 +1,75 @@
+package itu.cloud.roadworks.api;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import itu.cloud.roadworks.model.OutboxEvent;
+import itu.cloud.roadworks.service.OutboxDispatcher;
+import itu.cloud.roadworks.service.OutboxService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/outbox")
+@RequiredArgsConstructor
+@Tag(name = "Outbox", description = "Supervision des push FCM en attente ou abandonnées")
+public class OutboxApi {
+
+    private static final int MAX_DEAD_LETTERS = 500;
+
+    private final OutboxService outboxService;
+    private final OutboxDispatcher outboxDispatcher;
+
+    @Operation(
+            summary = "Compteurs de l'outbox",
+            description = "Push envoyées, réessayées, abandonnées sans destinataire ou token invalide (dropped) "
+                    + "et passées en DEAD depuis le démarrage, ainsi que le nombre d'événements PENDING et DEAD en base."
+    )
+    @SecurityRequirement(name = "bearerAuth")
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Object>> getStats() {
+        return ResponseEntity.ok(outboxDispatcher.stats());
+    }
+
+    @Operation(
+            summary = "Événements abandonnés",
+            description = "Événements passés en DEAD après outbox.dispatch.max-attempts échecs, avec la dernière erreur."
+    )
+    @SecurityRequirement(name = "bearerAuth")
+    @GetMapping("/dead")
+    public ResponseEntity<List<OutboxEvent>> getDeadLetters(
+            @Parameter(description = "Nombre maximum d'événements renvoyés (500 au plus)")
+            @RequestParam(defaultValue = "100") int limit
+    ) {
+        return ResponseEntity.ok(outboxService.findDeadLetters(Math.min(limit, MAX_DEAD_LETTERS)));
+    }
+
+    @Operation(
+            summary = "Remettre en file des événements abandonnés",
+            description = "Les événements DEAD indiqués (tous si la liste est vide ou absente) repassent en PENDING "
+                    + "avec un compteur de tentatives remis à zéro."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Nombre d'événements remis en file"),
+            @ApiResponse(responseCode = "500", description = "Erreur lors de la mise à jour")
+    })
+    @SecurityRequirement(name = "bearerAuth")
+    @PostMapping("/dead/requeue")
+    public ResponseEntity<?> requeueDeadLetters(@RequestBody(required = false) List<Long> ids) {
+        try {
+            int requeued = outboxService.requeueDeadLetters(ids != null ? ids : List.of());
+            return ResponseEntity.ok(Map.of("requeued", requeued));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", String.valueOf(e.getMessage())));
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package itu.cloud.roadworks.api;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import itu.cloud.roadworks.service.PhotoDataUri;
+import itu.cloud.roadworks.service.PhotoStore;
+import itu.cloud.roadworks.service.PhotoStoreMigrationService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.Optional;
+
+@RestController
+@RequestMapping("/api/photos")
+@RequiredArgsConstructor
+@Tag(name = "Photos", description = "Contenu binaire des photos de signalements")
+public class PhotoApi {
+
+    private final PhotoStore photoStore;
+    private final PhotoStoreMigrationService migrationService;
+
+    // Le contenu est adressé par son SHA-256 : il ne change jamais pour une URL donnée
+    private static final String IMMUTABLE_CACHE_CONTROL = "public, max-age=31536000, immutable";
+
+    // Attributs Tomcat pour l'envoi du fichier par sendfile (sans copie en espace utilisateur)
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    @Operation(
+            summary = "Contenu d'une photo",
+            description = "Renvoie le fichier image brut. Réponse cacheable indéfiniment (ETag = hash), 304 si If-None-Match correspond."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Image"),
+            @ApiResponse(responseCode = "304", description = "Non modifiée"),
+            @ApiResponse(responseCode = "404", description = "Photo introuvable")
+    })
+    @GetMapping("/{hash}")
+    public void getPhoto(
+            @Parameter(description = "SHA-256 du contenu (64 caractères hexadécimaux)", required = true)
+            @PathVariable String hash,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+        Optional<Path> file = photoStore.find(hash);
+        if (file.isEmpty()) {
+            response.sendError(HttpStatus.NOT_FOUND.value());
+            return;
+        }
+
+        String etag = "\"" + hash + "\"";
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, IMMUTABLE_CACHE_CONTROL);
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null && (ifNoneMatch.contains(etag) || ifNoneMatch.trim().equals("*"))) {
+            response.setStatus(HttpStatus.NOT_MODIFIED.value());
+            return;
+        }
+
+        Path path = file.get();
+        long size = Files.size(path);
+        response.setContentType(PhotoDataUri.sniffMimeType(readHead(path)));
+        response.setContentLengthLong(size);
+
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, path.toString());
+            request.setAttribute(SENDFILE_START, 0L);
+            request.setAttribute(SENDFILE_END, size);
+            return;
+        }
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = 0;
+            while (position < size) {
+                position += channel.transferTo(position, size - position, out);
+            }
+        }
+    }
+
+    @Operation(
+            summary = "Migre les photos Base64 vers le store",
+            description = "Déplace par lots le contenu Base64 de signalement_photo vers le store de fichiers."
+    )
+    @SecurityRequirement(name = "bearerAuth")
+    @PostMapping("/migrate")
+    public ResponseEntity<?> migrate() {
+        try {
+            return ResponseEntity.ok(migrationService.migrate());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    private static byte[] readHead(Path path) throws IOException {
+        try (InputStream in = Files.newInputStream(path)) {
+            return in.readNBytes(12);
+        }
+    }
+}
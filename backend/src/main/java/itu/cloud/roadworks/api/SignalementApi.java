@@ -1,5 +1,7 @@
 package itu.cloud.roadworks.api;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.ArraySchema;
@@ -9,17 +11,33 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import itu.cloud.roadworks.dto.FirebaseSyncResultDto;
+import itu.cloud.roadworks.dto.PhotoVariant;
 import itu.cloud.roadworks.dto.SignalementDto;
+import itu.cloud.roadworks.dto.SignalementFilter;
 import itu.cloud.roadworks.dto.SignalementPhotoDto;
 import itu.cloud.roadworks.dto.SignalementProblemDto;
+import itu.cloud.roadworks.dto.SignalementProblemPageDto;
+import itu.cloud.roadworks.dto.SyncJobDto;
+import itu.cloud.roadworks.dto.SyncJobType;
+import itu.cloud.roadworks.dto.UnsyncedFirebaseReportDto;
+import itu.cloud.roadworks.service.FirebaseIngestQueue;
 import itu.cloud.roadworks.service.SecurityLogService;
 import itu.cloud.roadworks.service.SignalementService;
+import itu.cloud.roadworks.service.SyncJobService;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.time.Instant;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -31,16 +49,30 @@ public class SignalementApi {
 
     private final SignalementService service;
     private final SecurityLogService securityLogService;
+    private final SyncJobService syncJobService;
+    private final FirebaseIngestQueue firebaseIngestQueue;
     private final HttpServletRequest request;
 
+    private final ObjectMapper objectMapper;
+
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final int MAX_PHOTO_BATCH_IDS = 200;
+
     @Operation(
-            summary = "Liste tous les signalements avec détails",
+            summary = "Liste les signalements avec détails",
             description = """
-                    Récupère la liste complète de tous les signalements d'incidents routiers avec:
+                    Récupère la liste des signalements d'incidents routiers avec:
                     - Type de problème (nid de poule, inondation, etc.)
                     - Statut actuel (nouveau, en cours, résolu, rejeté)
                     - Entreprise responsable des réparations
                     - Estimations de coût et durée
+
+                    Sans paramètre, renvoie la liste du plus récent au plus ancien (comportement historique),
+                    bornée à signalement.list.max-size signalements : au-delà, la suite se lit avec le curseur
+                    de l'en-tête X-Next-Cursor.
+                    Dès qu'un paramètre de pagination ou de filtre est fourni, la réponse est une page
+                    triée du plus récent au plus ancien; le curseur de la page suivante est renvoyé
+                    dans l'en-tête X-Next-Cursor (absent sur la dernière page).
                     """
     )
     @ApiResponses(value = {
@@ -51,13 +83,60 @@ public class SignalementApi {
                             mediaType = "application/json",
                             array = @ArraySchema(schema = @Schema(implementation = SignalementProblemDto.class))
                     )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Curseur de pagination invalide"
             )
     })
     @GetMapping
-    public List<SignalementProblemDto> findAll() {
+    public ResponseEntity<?> findAll(
+            @Parameter(description = "Curseur renvoyé par la page précédente (en-tête X-Next-Cursor)")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Taille de la page (bornée côté serveur)")
+            @RequestParam(required = false) Integer limit,
+            @Parameter(description = "Dernier statut (nouveau, en_cours, terminé, annulé)")
+            @RequestParam(required = false) String status,
+            @Parameter(description = "Libellé du type de problème")
+            @RequestParam(required = false) String type,
+            @Parameter(description = "ID de l'entreprise assignée")
+            @RequestParam(required = false) Long companyId,
+            @Parameter(description = "Date de création minimale incluse (ISO-8601)")
+            @RequestParam(required = false) Instant from,
+            @Parameter(description = "Date de création maximale exclue (ISO-8601)")
+            @RequestParam(required = false) Instant to) {
         String username = request.getHeader("X-Username");
         securityLogService.logViewAllSignalements(null, username, getClientIp(), request.getHeader("User-Agent"));
-        return service.findAllProblems();
+
+        if (cursor == null && limit == null && status == null && type == null
+                && companyId == null && from == null && to == null) {
+            return pageResponse(service.findAllProblems());
+        }
+
+        try {
+            SignalementFilter filter = SignalementFilter.builder()
+                    .status(status)
+                    .type(type)
+                    .companyId(companyId)
+                    .from(from)
+                    .to(to)
+                    .build();
+            return pageResponse(service.findProblemsPage(filter, cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Éléments de la page, curseur de la suite dans l'en-tête X-Next-Cursor (absent sur la dernière page).
+     */
+    private static ResponseEntity<List<SignalementProblemDto>> pageResponse(SignalementProblemPageDto page) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getItems());
     }
 
     private String getClientIp() {
@@ -116,33 +195,46 @@ public class SignalementApi {
     @Operation(
             summary = "Synchroniser les données depuis Firebase",
             description = """
-                    Récupère tous les signalements depuis Firebase et les insère dans la base de données locale.
+                    Récupère les nouveaux signalements depuis Firebase et les insère dans la base de données locale.
+                    Seuls les documents postérieurs au point de reprise (createdAt + id Firestore) sont lus, par pages.
                     Les signalements existants ne sont pas dupliqués (détection par firebase_id).
+                    Les documents sont traités en parallèle (firebase.sync.parallelism) ; les erreurs par document
+                    sont renvoyées dans "errors".
+                    La synchronisation s'exécute en tâche de fond : la réponse contient l'identifiant du job,
+                    à suivre via GET /api/signalements/sync/jobs/{jobId} ou sur /topic/signalements (SYNC_PROGRESS).
                     """
     )
     
     @ApiResponses(value = {
             @ApiResponse(
-                    responseCode = "200",
-                    description = "Synchronisation effectuée avec succès",
+                    responseCode = "202",
+                    description = "Synchronisation lancée",
                     content = @Content(mediaType = "application/json")
-            )
+            ),
+            @ApiResponse(responseCode = "409", description = "Une synchronisation depuis Firebase est déjà en cours")
     })
     @SecurityRequirement(name = "bearerAuth")
     @PostMapping("/sync/firebase")
     public ResponseEntity<?> syncFromFirebase() {
-        try {
-            int count = service.syncFromFirebase();
-            String username = request.getHeader("X-Username");
-            securityLogService.logSyncFirebase(null, username, getClientIp(), request.getHeader("User-Agent"));
-            return ResponseEntity.ok().body(Map.of(
-                    "message", "Synchronisation effectuée avec succès",
-                    "imported", count
-            ));
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(Map.of("error", e.getMessage()));
-        }
+        return startSyncJob(SyncJobType.FIREBASE_IMPORT, "Synchronisation lancée", progress -> {
+            FirebaseSyncResultDto result = service.syncFromFirebase(progress);
+            return Map.of(
+                    "imported", result.getImported(),
+                    "read", result.getRead(),
+                    "errors", result.getErrors()
+            );
+        });
+    }
+
+    @Operation(
+            summary = "Réinitialiser le point de reprise de la synchronisation Firebase",
+            description = "La prochaine synchronisation depuis Firebase relira toute la collection."
+    )
+    @SecurityRequirement(name = "bearerAuth")
+    @DeleteMapping("/sync/firebase/checkpoint")
+    public ResponseEntity<?> resetSyncCheckpoint() {
+        service.resetSyncCheckpoint();
+        return ResponseEntity.ok().body(Map.of("message", "Point de reprise réinitialisé"));
     }
 
     @Operation(
@@ -154,26 +246,17 @@ public class SignalementApi {
     )
     @ApiResponses(value = {
             @ApiResponse(
-                    responseCode = "200",
-                    description = "Export effectué avec succès",
+                    responseCode = "202",
+                    description = "Export lancé",
                     content = @Content(mediaType = "application/json")
-            )
+            ),
+            @ApiResponse(responseCode = "409", description = "Un export est déjà en cours")
     })
     @SecurityRequirement(name = "bearerAuth")
     @PostMapping("/sync/to-firebase")
     public ResponseEntity<?> syncToFirebaseAll() {
-        try {
-            int count = service.exportLocalSignalementsToFirebase();
-            String username = request.getHeader("X-Username");
-            securityLogService.logSyncFirebase(null, username, getClientIp(), request.getHeader("User-Agent"));
-            return ResponseEntity.ok().body(Map.of(
-                    "message", "Export vers Firebase effectué avec succès",
-                    "exported", count
-            ));
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(Map.of("error", e.getMessage()));
-        }
+        return startSyncJob(SyncJobType.FIREBASE_EXPORT, "Export vers Firebase lancé",
+                progress -> Map.of("exported", service.exportLocalSignalementsToFirebase(progress)));
     }
 
     @Operation(
@@ -185,26 +268,90 @@ public class SignalementApi {
     )
     @ApiResponses(value = {
             @ApiResponse(
-                    responseCode = "200",
-                    description = "Synchronisation des statuts effectuée avec succès",
+                    responseCode = "202",
+                    description = "Synchronisation des statuts lancée",
                     content = @Content(mediaType = "application/json")
-            )
+            ),
+            @ApiResponse(responseCode = "409", description = "Une synchronisation des statuts est déjà en cours")
     })
     @SecurityRequirement(name = "bearerAuth")
     @PostMapping("/sync/status-to-firebase")
     public ResponseEntity<?> syncStatusToFirebase() {
+        return startSyncJob(SyncJobType.STATUS_EXPORT, "Synchronisation des statuts vers Firebase lancée",
+                progress -> Map.of("synced", service.syncAllStatusToFirebase(progress)));
+    }
+
+    @Operation(
+            summary = "Avancement d'un job de synchronisation",
+            description = "Compteurs traités / en erreur / total, débit, temps restant estimé et résultat final."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "État du job",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = SyncJobDto.class))
+            ),
+            @ApiResponse(responseCode = "404", description = "Job inconnu ou expiré")
+    })
+    @SecurityRequirement(name = "bearerAuth")
+    @GetMapping("/sync/jobs/{jobId}")
+    public ResponseEntity<?> getSyncJob(
+            @Parameter(description = "Identifiant du job", required = true)
+            @PathVariable String jobId) {
+        return syncJobService.find(jobId)
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body(Map.of("error", "Job de synchronisation non trouvé")));
+    }
+
+    @Operation(
+            summary = "Jobs de synchronisation récents",
+            description = "Du plus récent au plus ancien, y compris ceux en cours."
+    )
+    @SecurityRequirement(name = "bearerAuth")
+    @GetMapping("/sync/jobs")
+    public ResponseEntity<List<SyncJobDto>> getSyncJobs() {
+        return ResponseEntity.ok(syncJobService.recent());
+    }
+
+    @Operation(
+            summary = "État de l'import temps réel Firebase",
+            description = "Changements en attente dans la file du listener, dédoublonnés, appliqués, attentes sur file pleine et lots en échec."
+    )
+    @SecurityRequirement(name = "bearerAuth")
+    @GetMapping("/sync/listener")
+    public ResponseEntity<Map<String, Object>> getListenerStats() {
+        return ResponseEntity.ok(firebaseIngestQueue.stats());
+    }
+
+    /**
+     * Lance un job de synchronisation et répond 202 avec son identifiant,
+     * ou 409 avec le job en cours du même type.
+     */
+    private ResponseEntity<?> startSyncJob(SyncJobType type, String message, SyncJobService.SyncTask task) {
+        SyncJobDto job;
         try {
-            int count = service.syncAllStatusToFirebase();
-            String username = request.getHeader("X-Username");
-            securityLogService.logSyncFirebase(null, username, getClientIp(), request.getHeader("User-Agent"));
-            return ResponseEntity.ok().body(Map.of(
-                    "message", "Synchronisation des statuts vers Firebase effectuée avec succès",
-                    "synced", count
-            ));
+            job = syncJobService.start(type, task);
+        } catch (IllegalStateException e) {
+            Map<String, Object> body = new HashMap<>();
+            body.put("error", e.getMessage());
+            syncJobService.findRunning(type).ifPresent(running -> body.put("runningJob", running));
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(body);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(Map.of("error", e.getMessage()));
+                    .body(Map.of("error", String.valueOf(e.getMessage())));
         }
+
+        String username = request.getHeader("X-Username");
+        securityLogService.logSyncFirebase(null, username, getClientIp(), request.getHeader("User-Agent"));
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/signalements/sync/jobs/" + job.getId()))
+                .body(Map.of(
+                        "message", message,
+                        "jobId", job.getId(),
+                        "type", job.getType(),
+                        "status", job.getStatus()
+                ));
     }
 
     @Operation(
@@ -343,13 +490,17 @@ public class SignalementApi {
                     Récupère la liste des signalements présents dans Firebase mais pas encore importés
                     dans la base de données locale. Utile pour les managers qui veulent voir tous
                     les signalements, y compris ceux en attente de synchronisation.
+                    Servie depuis un index en mémoire tenu à jour par le listener Firebase : champs affichés uniquement, sans photos.
                     """
     )
     @ApiResponses(value = {
             @ApiResponse(
                     responseCode = "200",
                     description = "Liste des signalements non synchronisés récupérée avec succès",
-                    content = @Content(mediaType = "application/json")
+                    content = @Content(
+                            mediaType = "application/json",
+                            array = @ArraySchema(schema = @Schema(implementation = UnsyncedFirebaseReportDto.class))
+                    )
             ),
             @ApiResponse(
                     responseCode = "500",
@@ -370,9 +521,65 @@ public class SignalementApi {
         }
     }
 
+    @Operation(
+            summary = "Récupérer les photos de plusieurs signalements",
+            description = """
+                    Renvoie en flux JSON les photos de plusieurs signalements, triées par signalement
+                    puis par ordre. Chaque photo donne l'URL de son contenu (photoData) : /api/photos/{hash}
+                    pour une photo du store, l'URL d'origine sinon (data URI Base64 pour une photo pas encore
+                    migrée). La liste GET /api/signalements ne contient que les identifiants et miniatures.
+                    """
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Photos (URLs du contenu) récupérées avec succès",
+                    content = @Content(
+                            mediaType = "application/json",
+                            array = @ArraySchema(schema = @Schema(implementation = SignalementPhotoDto.class))
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Liste d'identifiants vide ou trop longue"
+            )
+    })
+    @GetMapping("/photos")
+    public ResponseEntity<?> getPhotosBySignalementIds(
+            @Parameter(description = "IDs des signalements (ex: ids=1,2,3)", required = true)
+            @RequestParam List<Long> ids) {
+        if (ids.isEmpty() || ids.size() > MAX_PHOTO_BATCH_IDS) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", "Entre 1 et " + MAX_PHOTO_BATCH_IDS + " identifiants attendus"));
+        }
+
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+                generator.writeStartArray();
+                service.forEachPhotoOfSignalements(ids, photo -> {
+                    try {
+                        generator.writeObject(photo);
+                        generator.flush();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                generator.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+
     @Operation(
             summary = "Récupérer les photos d'un signalement",
-            description = "Récupère toutes les photos associées à un signalement spécifique, triées par ordre"
+            description = """
+                    Récupère toutes les photos associées à un signalement spécifique, triées par ordre.
+                    Le paramètre variant choisit la taille renvoyée dans photoData :
+                    thumbnail (miniature 96 px en data URI), preview (aperçu 640 px) ou original (défaut).
+                    Une variante pas encore générée retombe sur la taille supérieure.
+                    """
     )
     @ApiResponses(value = {
             @ApiResponse(
@@ -383,6 +590,10 @@ public class SignalementApi {
                             array = @ArraySchema(schema = @Schema(implementation = SignalementPhotoDto.class))
                     )
             ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Variante inconnue"
+            ),
             @ApiResponse(
                     responseCode = "404",
                     description = "Signalement non trouvé"
@@ -391,9 +602,17 @@ public class SignalementApi {
     @GetMapping("/{id}/photos")
     public ResponseEntity<?> getPhotosBySignalementId(
             @Parameter(description = "ID du signalement", required = true)
-            @PathVariable Long id) {
+            @PathVariable Long id,
+            @Parameter(description = "Variante : thumbnail, preview ou original")
+            @RequestParam(required = false) String variant) {
+        PhotoVariant photoVariant;
+        try {
+            photoVariant = PhotoVariant.fromParam(variant);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
         try {
-            List<SignalementPhotoDto> photos = service.getPhotosBySignalementId(id);
+            List<SignalementPhotoDto> photos = service.getPhotosBySignalementId(id, photoVariant);
             return ResponseEntity.ok().body(photos);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
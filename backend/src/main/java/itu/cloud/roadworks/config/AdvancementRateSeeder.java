@@ -2,6 +2,7 @@ package itu.cloud.roadworks.config;
 
 import itu.cloud.roadworks.model.AdvancementRate;
 import itu.cloud.roadworks.repository.AdvancementRateRepository;
+import itu.cloud.roadworks.service.ReferenceDataService;
 import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
@@ -13,6 +14,7 @@ import java.util.Map;
 public class AdvancementRateSeeder {
 
     private final AdvancementRateRepository repository;
+    private final ReferenceDataService referenceDataService;
 
     @PostConstruct
     public void seedDefaults() {
@@ -31,5 +33,6 @@ public class AdvancementRateSeeder {
                         .percentage(value)
                         .build()))
         );
+        referenceDataService.advancementRatesChanged();
     }
 }
@@ -16,6 +16,7 @@ public class CorsConfig {
                 registry.addMapping("/api/**")
                         .allowedOriginPatterns("*")
                         .allowedMethods("GET", "POST", "PUT", "DELETE", "OPTIONS")
+                        .exposedHeaders("X-Next-Cursor")
                         .allowCredentials(true);
                 registry.addMapping("/swagger-ui/**")
                         .allowedOriginPatterns("*")
@@ -0,0 +1,12 @@
+package itu.cloud.roadworks.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Tâches planifiées (purge du cache des tokens FCM). L'outbox a son propre thread (OutboxDispatcher).
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
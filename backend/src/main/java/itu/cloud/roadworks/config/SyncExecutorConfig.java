@@ -0,0 +1,69 @@
+package itu.cloud.roadworks.config;
+
+import itu.cloud.roadworks.dto.SyncJobType;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.task.ThreadPoolTaskExecutorBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pools de la synchronisation Firebase, injectés par @Qualifier.
+ * Déclarer un bean Executor désactive l'executor par défaut de Spring Boot (applicationTaskExecutor) :
+ * il est donc déclaré ici, sinon le traitement asynchrone de Spring MVC (StreamingResponseBody de
+ * GET /api/signalements/photos) retomberait sur SimpleAsyncTaskExecutor, un nouveau thread par requête.
+ */
+@Configuration
+public class SyncExecutorConfig {
+
+    /**
+     * Executor par défaut de Spring Boot (propriétés spring.task.execution.*), utilisé par Spring MVC en asynchrone.
+     */
+    @Bean(name = {TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME, "taskExecutor"})
+    public ThreadPoolTaskExecutor applicationTaskExecutor(ThreadPoolTaskExecutorBuilder builder) {
+        return builder.build();
+    }
+
+    /**
+     * Pool de l'import Firestore parallèle : taille fixe et file bornée.
+     * File pleine => la partition s'exécute dans le thread appelant (pas de rejet, pas d'accumulation).
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService firebaseSyncExecutor(@Value("${firebase.sync.parallelism:4}") int parallelism) {
+        AtomicInteger counter = new AtomicInteger();
+        int threads = Math.max(1, parallelism);
+        return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(threads),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "firebase-sync-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    /**
+     * Pool des jobs de synchronisation lancés par l'API : un thread par type de job
+     * (un seul job de chaque type peut tourner à la fois).
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService syncJobExecutor() {
+        AtomicInteger counter = new AtomicInteger();
+        int threads = SyncJobType.values().length;
+        return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(threads),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "sync-job-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+}
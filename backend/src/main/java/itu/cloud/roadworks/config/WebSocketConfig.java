@@ -1,21 +1,149 @@
 package itu.cloud.roadworks.config;
 
+import itu.cloud.roadworks.service.WebSocketMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.config.ChannelRegistration;
+import org.springframework.messaging.support.MessageHandlingRunnable;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketSession;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
 
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * STOMP sur /api/ws avec des canaux à pools et files bornés :
+ * <ul>
+ *     <li>entrant (trames des clients) : file pleine => la tâche s'exécute dans le thread appelant
+ *     (contre-pression, rien n'est perdu) ;</li>
+ *     <li>broker (diffusion des notifications) : file pleine => le thread qui publie attend une place,
+ *     l'ordre de publication est conservé ;</li>
+ *     <li>sortant (envoi aux sessions) : file pleine => la trame est abandonnée et comptée, et sa session est
+ *     fermée. L'ordre par session (preservePublishOrder) attend la fin de chaque envoi avant le suivant :
+ *     une trame abandonnée sans fermeture bloquerait la session ; le client se reconnecte et rejoue les
+ *     notifications manquées (/api/notifications/replay).</li>
+ * </ul>
+ * Chaque session a une limite de temps d'envoi et de tampon : un client trop lent (SockJS en polling sur un
+ * mauvais réseau) est déconnecté au lieu d'accumuler les trames en mémoire ; il se reconnecte de lui-même.
+ */
 @Configuration
 @EnableWebSocketMessageBroker
+@Slf4j
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    private final WebSocketMetrics metrics;
+    private final int inboundPoolSize;
+    private final int outboundPoolSize;
+    private final int queueCapacity;
+    private final int sendTimeLimitMillis;
+    private final int sendBufferSizeLimit;
+    private final int messageSizeLimit;
+    // Sessions ouvertes par id (simpSessionId) : fermées quand une de leurs trames est abandonnée
+    private final Map<String, WebSocketSession> sessions = new ConcurrentHashMap<>();
+
+    public WebSocketConfig(WebSocketMetrics metrics,
+                           @Value("${websocket.inbound.pool-size:4}") int inboundPoolSize,
+                           @Value("${websocket.outbound.pool-size:4}") int outboundPoolSize,
+                           @Value("${websocket.channel.queue-capacity:1000}") int queueCapacity,
+                           @Value("${websocket.send-time-limit-ms:10000}") int sendTimeLimitMillis,
+                           @Value("${websocket.send-buffer-size-limit:524288}") int sendBufferSizeLimit,
+                           @Value("${websocket.message-size-limit:65536}") int messageSizeLimit) {
+        this.metrics = metrics;
+        this.inboundPoolSize = Math.max(1, inboundPoolSize);
+        this.outboundPoolSize = Math.max(1, outboundPoolSize);
+        this.queueCapacity = Math.max(1, queueCapacity);
+        this.sendTimeLimitMillis = sendTimeLimitMillis;
+        this.sendBufferSizeLimit = sendBufferSizeLimit;
+        this.messageSizeLimit = messageSizeLimit;
+    }
+
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
         // Prefix pour les messages sortants (du serveur vers les clients)
         config.enableSimpleBroker("/topic");
         // Prefix pour les messages entrants (des clients vers le serveur)
         config.setApplicationDestinationPrefixes("/app");
+        // Un seul thread broker : les notifications sont diffusées dans l'ordre de publication,
+        // hors du thread qui publie (exécuter dans l'appelant doublerait les tâches en file)
+        config.configureBrokerChannel().taskExecutor(channelExecutor("broker", 1, (task, executor) -> {
+            if (executor.isShutdown()) {
+                throw new RejectedExecutionException("Canal WebSocket broker arrêté");
+            }
+            try {
+                executor.getQueue().put(task);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RejectedExecutionException("Publication WebSocket interrompue", e);
+            }
+        }));
+        // Ordre des trames conservé par session malgré plusieurs threads sortants
+        config.setPreservePublishOrder(true);
+    }
+
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        registration.taskExecutor(channelExecutor("inbound", inboundPoolSize, new ThreadPoolExecutor.CallerRunsPolicy()));
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        registration.taskExecutor(channelExecutor("outbound", outboundPoolSize, (task, executor) -> {
+            metrics.frameDropped();
+            log.warn("Canal WebSocket sortant saturé ({} en file), trame abandonnée", executor.getQueue().size());
+            closeSessionOf(task);
+        }));
+    }
+
+    private void closeSessionOf(Runnable task) {
+        if (!(task instanceof MessageHandlingRunnable sendTask)) {
+            return;
+        }
+        String sessionId = SimpMessageHeaderAccessor.getSessionId(sendTask.getMessage().getHeaders());
+        WebSocketSession session = sessionId != null ? sessions.get(sessionId) : null;
+        if (session == null) {
+            return;
+        }
+        try {
+            session.close(CloseStatus.SESSION_NOT_RELIABLE);
+        } catch (IOException e) {
+            log.warn("Fermeture de la session WebSocket {} impossible: {}", sessionId, e.getMessage());
+        }
+    }
+
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        registration.setSendTimeLimit(sendTimeLimitMillis)
+                .setSendBufferSizeLimit(sendBufferSizeLimit)
+                .setMessageSizeLimit(messageSizeLimit)
+                .addDecoratorFactory(handler -> new WebSocketHandlerDecorator(handler) {
+                    @Override
+                    public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+                        metrics.sessionOpened();
+                        sessions.put(session.getId(), session);
+                        super.afterConnectionEstablished(session);
+                    }
+
+                    @Override
+                    public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) throws Exception {
+                        // SESSION_NOT_RELIABLE : limite de temps d'envoi ou de tampon dépassée
+                        metrics.sessionClosed(CloseStatus.SESSION_NOT_RELIABLE.equals(closeStatus));
+                        sessions.remove(session.getId());
+                        super.afterConnectionClosed(session, closeStatus);
+                    }
+                });
     }
 
     @Override
@@ -25,4 +153,15 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
                 .setAllowedOriginPatterns("*")
                 .withSockJS();
     }
+
+    private ThreadPoolTaskExecutor channelExecutor(String name, int threads, RejectedExecutionHandler rejectionPolicy) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("ws-" + name + "-");
+        executor.setRejectedExecutionHandler(rejectionPolicy);
+        metrics.registerChannel(name, executor);
+        return executor;
+    }
 }
@@ -0,0 +1,15 @@
+package itu.cloud.roadworks.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class FirebaseSyncErrorDto {
+    private String documentId;
+    private String message;
+}
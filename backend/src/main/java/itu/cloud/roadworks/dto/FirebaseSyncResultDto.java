@@ -0,0 +1,24 @@
+package itu.cloud.roadworks.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class FirebaseSyncResultDto {
+    private int read;          // Documents Firestore lus après le point de reprise
+    private int imported;      // Signalements créés
+    private int updated;       // Signalements existants modifiés depuis Firestore (listener)
+    private int removed;       // Signalements supprimés suite à la suppression du document (listener)
+    @Builder.Default
+    private List<FirebaseSyncErrorDto> errors = new ArrayList<>();
+    @Builder.Default
+    private List<String> failedIds = new ArrayList<>(); // Documents non appliqués, remis en file (listener)
+}
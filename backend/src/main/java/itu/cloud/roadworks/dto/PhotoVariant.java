@@ -0,0 +1,28 @@
+package itu.cloud.roadworks.dto;
+
+import java.util.Locale;
+
+/**
+ * Variante d'une photo demandée par le client.
+ * THUMBNAIL : miniature 96 px (data URI), PREVIEW : aperçu 640 px servi par le store, ORIGINAL : photo d'origine.
+ */
+public enum PhotoVariant {
+    THUMBNAIL,
+    PREVIEW,
+    ORIGINAL;
+
+    /**
+     * @throws IllegalArgumentException si la valeur ne correspond à aucune variante
+     */
+    public static PhotoVariant fromParam(String value) {
+        if (value == null || value.isBlank()) {
+            return ORIGINAL;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Variante de photo inconnue: " + value
+                    + " (attendu: thumbnail, preview ou original)");
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package itu.cloud.roadworks.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * Curseur opaque de pagination keyset sur (createdAt, id).
+ * Encodé en Base64 URL-safe pour être transporté tel quel dans une query string.
+ */
+@Data
+@AllArgsConstructor
+public class SignalementCursor {
+    private Instant createdAt;
+    private Long id;
+
+    public String encode() {
+        String raw = createdAt.toString() + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static SignalementCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int sep = raw.lastIndexOf('|');
+            return new SignalementCursor(Instant.parse(raw.substring(0, sep)), Long.parseLong(raw.substring(sep + 1)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Curseur de pagination invalide: " + token, e);
+        }
+    }
+}
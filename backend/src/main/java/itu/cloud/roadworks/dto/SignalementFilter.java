@@ -0,0 +1,24 @@
+package itu.cloud.roadworks.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Filtres serveur appliqués à la liste des signalements.
+ * Tous les champs sont optionnels (null = pas de filtre).
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SignalementFilter {
+    private String status;      // Libellé du dernier statut (nouveau, en_cours, terminé, annulé)
+    private String type;        // Libellé du type de problème
+    private Long companyId;     // Entreprise assignée aux travaux
+    private Instant from;       // created_at >= from
+    private Instant to;         // created_at < to
+}
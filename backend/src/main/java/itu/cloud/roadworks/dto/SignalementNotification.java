@@ -6,13 +6,15 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.Instant;
+import java.util.List;
 
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 public class SignalementNotification {
-    private String type; // NEW_SIGNALEMENT, STATUS_UPDATED, WORK_ADDED
+    private Long sequence; // Numéro croissant des modifications (NotificationJournal), absent pour SYNC_PROGRESS
+    private String type; // NEW_SIGNALEMENT, STATUS_UPDATED, WORK_ADDED, SYNC_COMPLETED, SYNC_PROGRESS, SIGNALEMENT_UPDATED, SIGNALEMENT_REMOVED, BATCH
     private Long signalementId;
     private String typeProblem;
     private String location;
@@ -20,4 +22,6 @@ public class SignalementNotification {
     private String status;
     private Instant timestamp;
     private String message;
+    private SyncJobDto job; // Avancement, pour SYNC_PROGRESS uniquement
+    private List<SignalementNotification> items; // Notifications regroupées, pour BATCH uniquement
 }
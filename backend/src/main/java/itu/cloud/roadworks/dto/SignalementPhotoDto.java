@@ -1,5 +1,6 @@
 package itu.cloud.roadworks.dto;
 
+import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -11,10 +12,22 @@ import java.time.Instant;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
+@Schema(description = "Photo d'un signalement")
 public class SignalementPhotoDto {
+    @Schema(description = "Identifiant de la photo", example = "12")
     private Long id;
+
+    @Schema(description = "Identifiant du signalement", example = "1")
     private Long signalementId;
+
+    @Schema(description = "Contenu de la photo : URL /api/photos/{hash} pour une photo (ou un aperçu) du store, "
+            + "data URI Base64 pour une miniature ou une photo pas encore migrée, URL d'origine sinon",
+            example = "/api/photos/9f86d081884c7d659a2feaa0c55ad015a3bf4f1b2b0b822cd15d6c15b0f00a08")
     private String photoData;
+
+    @Schema(description = "Ordre de la photo dans le signalement", example = "1")
     private Integer photoOrder;
+
+    @Schema(description = "Date d'ajout de la photo")
     private Instant createdAt;
 }
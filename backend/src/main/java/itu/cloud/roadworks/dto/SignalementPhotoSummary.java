@@ -0,0 +1,11 @@
+package itu.cloud.roadworks.dto;
+
+/**
+ * Projection légère d'une photo de signalement : jamais de photo_data.
+ */
+public interface SignalementPhotoSummary {
+    Long getId();
+    Long getSignalementId();
+    Integer getPhotoOrder();
+    String getThumbnail();
+}
@@ -31,8 +31,14 @@ public class SignalementProblemDto {
     @Schema(description = "Informations sur les travaux assignés")
     private WorkInfo work;
 
-    @Schema(description = "Photos associées au signalement (Base64 ou URLs)")
-    private List<String> photos;
+    @Schema(description = "Identifiants des photos du signalement, dans l'ordre (contenu via /api/signalements/photos)")
+    private List<Long> photoIds;
+
+    @Schema(description = "Nombre de photos du signalement", example = "2")
+    private Integer photoCount;
+
+    @Schema(description = "Miniature JPEG de la première photo (data URI), si disponible")
+    private String thumbnail;
 
     @Data
     @Builder
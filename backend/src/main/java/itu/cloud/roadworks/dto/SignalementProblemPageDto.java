@@ -0,0 +1,23 @@
+package itu.cloud.roadworks.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Page de signalements (pagination keyset sur createdAt, id)")
+public class SignalementProblemPageDto {
+
+    @Schema(description = "Signalements de la page, du plus récent au plus ancien")
+    private List<SignalementProblemDto> items;
+
+    @Schema(description = "Curseur à renvoyer pour obtenir la page suivante (null si dernière page)")
+    private String nextCursor;
+}
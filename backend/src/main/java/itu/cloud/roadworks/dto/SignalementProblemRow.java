@@ -0,0 +1,29 @@
+package itu.cloud.roadworks.dto;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * Projection d'une ligne de la liste des signalements : signalement, type,
+ * dernier statut, dernier travail, entreprise et type de réparation en une seule requête.
+ * Les noms des accesseurs correspondent aux alias de SignalementRepository.findProblemRows.
+ */
+public interface SignalementProblemRow {
+    Long getId();
+    String getDescriptions();
+    Instant getCreatedAt();
+    String getLocation();
+    BigDecimal getSurface();
+    String getTypeProblem();
+    String getIllustrationProblem();
+    String getEtat();
+    LocalDate getStartDate();
+    LocalDate getEndDateEstimation();
+    LocalDate getRealEndDate();
+    BigDecimal getPrice();
+    Long getCompanyId();
+    String getCompanyName();
+    Long getReparationTypeId();
+    Integer getReparationNiveau();
+}
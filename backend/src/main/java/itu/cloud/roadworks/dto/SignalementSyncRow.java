@@ -0,0 +1,26 @@
+package itu.cloud.roadworks.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Projection des champs envoyés à Firestore pour un signalement (dernier statut, dernier travail,
+ * ids des photos) et de l'empreinte du dernier envoi, sans charger les entités ni photo_data.
+ * Les noms des accesseurs correspondent aux alias de SignalementRepository.findSyncRows.
+ */
+public interface SignalementSyncRow {
+    Long getId();
+    String getFirebasePayloadHash();
+    String getDescriptions();
+    String getLocation();
+    BigDecimal getSurface();
+    String getTypeProblem();
+    String getEtat();
+    LocalDate getStartDate();
+    LocalDate getEndDateEstimation();
+    LocalDate getRealEndDate();
+    BigDecimal getPrice();
+    Long getCompanyId();
+    String getCompanyName();
+    String getPhotoIds();
+}
@@ -0,0 +1,28 @@
+package itu.cloud.roadworks.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SyncJobDto {
+    private String id;
+    private SyncJobType type;
+    private String status;              // RUNNING, COMPLETED, FAILED
+    private int total;                  // Éléments connus à traiter (peut croître pendant l'import paginé)
+    private int processed;
+    private int failed;
+    private Double throughputPerSecond; // (processed + failed) / durée écoulée
+    private Long etaSeconds;            // Estimation du temps restant, null si inconnue
+    private Instant startedAt;
+    private Instant finishedAt;
+    private Map<String, Object> result; // Résultat final (imported, exported, synced...)
+    private String error;
+}
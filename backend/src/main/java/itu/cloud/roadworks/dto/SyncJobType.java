@@ -0,0 +1,10 @@
+package itu.cloud.roadworks.dto;
+
+/**
+ * Synchronisations exécutées en tâche de fond ; une seule exécution à la fois par type.
+ */
+public enum SyncJobType {
+    FIREBASE_IMPORT,   // POST /api/signalements/sync/firebase
+    FIREBASE_EXPORT,   // POST /api/signalements/sync/to-firebase
+    STATUS_EXPORT      // POST /api/signalements/sync/status-to-firebase
+}
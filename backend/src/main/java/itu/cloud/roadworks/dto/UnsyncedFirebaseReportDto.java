@@ -0,0 +1,31 @@
+package itu.cloud.roadworks.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Signalement Firestore pas encore importé en base, réduit aux champs affichés (sans photos).
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UnsyncedFirebaseReportDto {
+    private String firebaseId;
+    private String description;
+    private Double lat;
+    private Double lng;
+    private String typeProblem;   // Type de problème Firebase (pothole, accident, ...)
+    private String reportStatus;  // new, in_progress, completed
+    private Instant timestamp;    // createdAt ou timestamp du document
+
+    @JsonProperty("isSynced")
+    public boolean isSynced() {
+        return false; // Marqueur pour le frontend
+    }
+}
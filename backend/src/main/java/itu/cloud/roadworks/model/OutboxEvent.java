@@ -0,0 +1,60 @@
+package itu.cloud.roadworks.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.Instant;
+
+/**
+ * Effet de bord externe (push FCM...) enregistré dans la transaction de la modification qui le déclenche,
+ * puis envoyé par OutboxDispatcher. La ligne est supprimée une fois l'envoi réussi.
+ */
+@Entity
+@Table(name = "outbox_event")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OutboxEvent {
+    public static final String PENDING = "PENDING";
+    public static final String DEAD = "DEAD";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbox_event_seq")
+    @SequenceGenerator(name = "outbox_event_seq", sequenceName = "outbox_event_id_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false, length = 30)
+    private String type; // ex. "FCM_PUSH"
+
+    @Column(name = "aggregate_id")
+    private String aggregateId; // firebaseId du signalement concerné
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String payload; // JSON propre au type
+
+    @Column(nullable = false, length = 20)
+    private String status; // PENDING, DEAD
+
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private Instant nextAttemptAt;
+
+    @Column(name = "last_error", columnDefinition = "TEXT")
+    private String lastError;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private Instant createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = Instant.now();
+        if (nextAttemptAt == null) {
+            nextAttemptAt = createdAt;
+        }
+        if (status == null) {
+            status = PENDING;
+        }
+    }
+}
@@ -17,7 +17,9 @@ import java.util.List;
 @Builder
 public class Signalement {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Séquence (et non IDENTITY) : les ids sont connus avant l'INSERT, ce qui permet les lots JDBC
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "signalement_seq")
+    @SequenceGenerator(name = "signalement_seq", sequenceName = "signalement_id_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -46,15 +48,19 @@ public class Signalement {
     @Column(name = "firebase_id", unique = true)
     private String firebaseId;
 
+    // Empreinte des champs du dernier document écrit dans Firestore (voir SignalementService.firebaseFingerprint)
+    @Column(name = "firebase_payload_hash", length = 64)
+    private String firebasePayloadHash;
+
     @OneToMany(mappedBy = "signalement", cascade = CascadeType.ALL, orphanRemoval = true)
-    @OrderBy("updatedAt DESC")
+    @OrderBy("updatedAt DESC, id DESC")
     @ToString.Exclude
     @EqualsAndHashCode.Exclude
     @Builder.Default
     private List<SignalementStatus> statuses = new ArrayList<>();
 
     @OneToMany(mappedBy = "signalement", cascade = CascadeType.ALL, orphanRemoval = true)
-    @OrderBy("startDate DESC")
+    @OrderBy("startDate DESC NULLS LAST, id DESC")
     @ToString.Exclude
     @EqualsAndHashCode.Exclude
     @Builder.Default
@@ -12,7 +12,8 @@ import java.time.Instant;
 @Builder
 public class SignalementPhoto {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "signalement_photo_seq")
+    @SequenceGenerator(name = "signalement_photo_seq", sequenceName = "signalement_photo_id_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -21,8 +22,17 @@ public class SignalementPhoto {
     @EqualsAndHashCode.Exclude
     private Signalement signalement;
 
-    @Column(name = "photo_data", columnDefinition = "TEXT", nullable = false)
-    private String photoData; // Base64 ou URL de la photo
+    @Column(name = "photo_data", columnDefinition = "TEXT")
+    private String photoData; // URL de la photo, ou Base64 tant qu'elle n'est pas migrée vers le PhotoStore
+
+    @Column(name = "photo_hash", length = 64)
+    private String photoHash; // Clé SHA-256 du contenu binaire dans le PhotoStore
+
+    @Column(name = "preview_hash", length = 64)
+    private String previewHash; // Clé SHA-256 de l'aperçu réduit (640 px) dans le PhotoStore
+
+    @Column(columnDefinition = "TEXT")
+    private String thumbnail; // Miniature JPEG (data URI) affichée dans les listes
 
     @Column(name = "photo_order")
     private Integer photoOrder; // Ordre de la photo (1, 2, 3...)
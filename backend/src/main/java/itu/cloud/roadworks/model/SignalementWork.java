@@ -13,7 +13,8 @@ import java.time.LocalDate;
 @Builder
 public class SignalementWork {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "signalement_work_seq")
+    @SequenceGenerator(name = "signalement_work_seq", sequenceName = "signalement_work_id_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -0,0 +1,35 @@
+package itu.cloud.roadworks.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.Instant;
+
+/**
+ * Point de reprise d'une synchronisation incrémentale : dernier document traité (horodatage + id Firestore).
+ */
+@Entity
+@Table(name = "sync_checkpoint")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SyncCheckpoint {
+    @Id
+    @Column(length = 100)
+    private String name; // Identifiant du flux synchronisé, ex. "firestore.roadworks_reports"
+
+    @Column(name = "last_timestamp")
+    private Instant lastTimestamp; // createdAt Firestore du dernier document traité
+
+    @Column(name = "last_document_id")
+    private String lastDocumentId; // Id Firestore du dernier document traité (départage à horodatage égal)
+
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    protected void onSave() {
+        updatedAt = Instant.now();
+    }
+}
@@ -0,0 +1,47 @@
+package itu.cloud.roadworks.repository;
+
+import itu.cloud.roadworks.model.OutboxEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    /**
+     * Lot d'événements à envoyer, verrouillés jusqu'à la fin de la transaction.
+     * SKIP LOCKED : plusieurs instances du backend se partagent l'outbox sans double envoi.
+     */
+    @Query(value = """
+            SELECT * FROM outbox_event
+            WHERE status = 'PENDING' AND next_attempt_at <= :now
+            ORDER BY id
+            LIMIT :limit
+            FOR UPDATE SKIP LOCKED
+            """, nativeQuery = true)
+    List<OutboxEvent> lockDue(@Param("now") Instant now, @Param("limit") int limit);
+
+    long countByStatus(String status);
+
+    List<OutboxEvent> findByStatusOrderByIdDesc(String status, Pageable pageable);
+
+    /**
+     * Remet en file des événements abandonnés : compteur de tentatives remis à zéro, envoi au prochain passage.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE OutboxEvent e SET e.status = 'PENDING', e.attempts = 0, e.nextAttemptAt = :now "
+            + "WHERE e.status = 'DEAD' AND e.id IN :ids")
+    int requeueDead(@Param("ids") Collection<Long> ids, @Param("now") Instant now);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE OutboxEvent e SET e.status = 'PENDING', e.attempts = 0, e.nextAttemptAt = :now WHERE e.status = 'DEAD'")
+    int requeueAllDead(@Param("now") Instant now);
+}
@@ -3,6 +3,8 @@ package itu.cloud.roadworks.repository;
 import itu.cloud.roadworks.model.Account;
 import itu.cloud.roadworks.model.Session;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.Instant;
@@ -13,6 +15,12 @@ import java.util.UUID;
 public interface SessionRepository extends JpaRepository<Session, UUID> {
     Optional<Session> findByToken(String token);
     Optional<Session> findByTokenAndExpiresAtAfter(String token, Instant now);
+
+    /**
+     * Session non expirée avec son compte et le rôle du compte, en une requête (mis en cache par SessionCache).
+     */
+    @Query("SELECT s FROM Session s JOIN FETCH s.account a JOIN FETCH a.role WHERE s.token = :token AND s.expiresAt > :now")
+    Optional<Session> findValidWithAccount(@Param("token") String token, @Param("now") Instant now);
     void deleteByAccount(Account account);
     void deleteByExpiresAtBefore(Instant now);
 }
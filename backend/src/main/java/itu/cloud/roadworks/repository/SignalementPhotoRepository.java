@@ -1,15 +1,75 @@
 package itu.cloud.roadworks.repository;
 
+import itu.cloud.roadworks.dto.SignalementPhotoDto;
+import itu.cloud.roadworks.dto.SignalementPhotoSummary;
 import itu.cloud.roadworks.model.SignalementPhoto;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 @Repository
 public interface SignalementPhotoRepository extends JpaRepository<SignalementPhoto, Long> {
 
     List<SignalementPhoto> findBySignalementIdOrderByPhotoOrderAsc(Long signalementId);
 
+    /**
+     * Résumé des photos (id, ordre, miniature) pour une liste de signalements, sans charger photo_data.
+     */
+    @Query("""
+            SELECT p.id AS id, p.signalement.id AS signalementId, p.photoOrder AS photoOrder, p.thumbnail AS thumbnail
+            FROM SignalementPhoto p
+            WHERE p.signalement.id IN :signalementIds
+            ORDER BY p.signalement.id, p.photoOrder
+            """)
+    List<SignalementPhotoSummary> findSummariesBySignalementIdIn(@Param("signalementIds") Collection<Long> signalementIds);
+
+    /**
+     * Photos complètes de plusieurs signalements, lues par curseur JDBC.
+     * Les DTO ne sont pas gérés par le contexte de persistance : la mémoire reste bornée
+     * tant que l'appelant consomme le flux au fil de l'eau (transaction obligatoire).
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "16"))
+    @Query("""
+            SELECT new itu.cloud.roadworks.dto.SignalementPhotoDto(
+                    p.id,
+                    p.signalement.id,
+                    CASE WHEN p.photoHash IS NOT NULL THEN CONCAT('/api/photos/', p.photoHash) ELSE p.photoData END,
+                    p.photoOrder,
+                    p.createdAt)
+            FROM SignalementPhoto p
+            WHERE p.signalement.id IN :signalementIds
+            ORDER BY p.signalement.id, p.photoOrder
+            """)
+    Stream<SignalementPhotoDto> streamBySignalementIdIn(@Param("signalementIds") Collection<Long> signalementIds);
+
+    /**
+     * Lot de photos pas encore migrées vers le PhotoStore, par id croissant (reprise par keyset).
+     */
+    @Query("SELECT p FROM SignalementPhoto p WHERE p.photoHash IS NULL AND p.id > :afterId ORDER BY p.id")
+    List<SignalementPhoto> findNotInStoreAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    /**
+     * Lot de photos du store dont les variantes (aperçu) n'ont pas encore été générées.
+     */
+    @Query("SELECT p FROM SignalementPhoto p WHERE p.photoHash IS NOT NULL AND p.previewHash IS NULL AND p.id > :afterId ORDER BY p.id")
+    List<SignalementPhoto> findWithoutVariantsAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE SignalementPhoto p SET p.thumbnail = :thumbnail, p.previewHash = :previewHash WHERE p.id = :id")
+    int updateVariants(@Param("id") Long id, @Param("thumbnail") String thumbnail, @Param("previewHash") String previewHash);
+
     void deleteBySignalementId(Long signalementId);
 }
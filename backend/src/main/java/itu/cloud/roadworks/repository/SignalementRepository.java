@@ -1,9 +1,179 @@
 package itu.cloud.roadworks.repository;
 
+import itu.cloud.roadworks.dto.SignalementProblemRow;
+import itu.cloud.roadworks.dto.SignalementSyncRow;
 import itu.cloud.roadworks.model.Signalement;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface SignalementRepository extends JpaRepository<Signalement, Long> {
     Optional<Signalement> findByFirebaseId(String firebaseId);
+
+    /**
+     * Parmi les firebaseIds donnés, ceux déjà importés (une seule requête IN pour toute une page).
+     */
+    @Query("SELECT s.firebaseId FROM Signalement s WHERE s.firebaseId IN :firebaseIds")
+    List<String> findExistingFirebaseIds(@Param("firebaseIds") Collection<String> firebaseIds);
+
+    List<Signalement> findByFirebaseIdIn(Collection<String> firebaseIds);
+
+    /**
+     * Ids des signalements locaux jamais envoyés vers Firebase (export), sans charger les entités.
+     */
+    @Query("SELECT s.id FROM Signalement s WHERE s.firebaseId IS NULL OR s.firebaseId = '' ORDER BY s.id")
+    List<Long> findIdsWithoutFirebaseId();
+
+    @Query("SELECT s.id FROM Signalement s WHERE s.firebaseId IS NOT NULL AND s.firebaseId <> '' ORDER BY s.id")
+    List<Long> findIdsWithFirebaseId();
+
+    @Query("SELECT s.firebaseId FROM Signalement s WHERE s.firebaseId IS NOT NULL AND s.firebaseId <> ''")
+    List<String> findAllFirebaseIds();
+
+    /**
+     * Annule les firebaseIds attribués pour un export dont l'écriture Firestore a échoué.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE Signalement s SET s.firebaseId = NULL WHERE s.id IN :ids")
+    int clearFirebaseIds(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE Signalement s SET s.firebasePayloadHash = :hash WHERE s.id = :id")
+    int updateFirebasePayloadHash(@Param("id") Long id, @Param("hash") String hash);
+
+    /**
+     * Champs envoyés à Firestore pour les signalements donnés, en une requête.
+     * Dernier statut et dernier travail choisis dans le même ordre que les @OrderBy de Signalement et que findProblemRows
+     * (travail sans date de début en dernier, id en départage, quel que soit le classement des NULL de la base) ;
+     * les photos sont réduites à la liste ordonnée de leurs ids.
+     */
+    @Query(value = """
+            WITH latest_status AS (
+                SELECT ss.id_signalement, st.libelle,
+                       ROW_NUMBER() OVER (PARTITION BY ss.id_signalement ORDER BY ss.updated_at DESC, ss.id DESC) AS rn
+                FROM signalement_status ss
+                JOIN status_signalement st ON st.id = ss.id_status_signalement
+                WHERE ss.id_signalement IN (:ids)
+            ),
+            latest_work AS (
+                SELECT sw.id_signalement, sw.id_company, sw.start_date, sw.end_date_estimation, sw.real_end_date, sw.price,
+                       ROW_NUMBER() OVER (PARTITION BY sw.id_signalement ORDER BY sw.start_date DESC NULLS LAST, sw.id DESC) AS rn
+                FROM signalement_work sw
+                WHERE sw.id_signalement IN (:ids)
+            ),
+            photos AS (
+                SELECT sp.id_signalement,
+                       STRING_AGG(CAST(sp.id AS VARCHAR), ',' ORDER BY sp.photo_order, sp.id) AS photo_ids
+                FROM signalement_photo sp
+                WHERE sp.id_signalement IN (:ids)
+                GROUP BY sp.id_signalement
+            )
+            SELECT s.id AS id,
+                   s.firebase_payload_hash AS "firebasePayloadHash",
+                   s.descriptions AS descriptions,
+                   s.location AS location,
+                   s.surface AS surface,
+                   tp.libelle AS "typeProblem",
+                   ls.libelle AS etat,
+                   lw.start_date AS "startDate",
+                   lw.end_date_estimation AS "endDateEstimation",
+                   lw.real_end_date AS "realEndDate",
+                   lw.price AS price,
+                   c.id AS "companyId",
+                   c.name AS "companyName",
+                   ph.photo_ids AS "photoIds"
+            FROM signalement s
+            JOIN type_problem tp ON tp.id = s.id_type_problem
+            LEFT JOIN latest_status ls ON ls.id_signalement = s.id AND ls.rn = 1
+            LEFT JOIN latest_work lw ON lw.id_signalement = s.id AND lw.rn = 1
+            LEFT JOIN company c ON c.id = lw.id_company
+            LEFT JOIN photos ph ON ph.id_signalement = s.id
+            WHERE s.id IN (:ids)
+            """, nativeQuery = true)
+    List<SignalementSyncRow> findSyncRows(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Page keyset de la liste des signalements, triée par (created_at DESC, id DESC), en une seule requête.
+     * Le dernier statut (updated_at le plus récent) et le dernier travail (start_date le plus récent)
+     * sont choisis par une sous-requête corrélée par ligne de la page (index sur id_signalement) ; la forme
+     * ROW_NUMBER() dans des CTE relisant la page n'est pas acceptée par H2 avec un LIMIT paramétré.
+     * Le filtre de statut porte sur le dernier statut, le filtre d'entreprise sur n'importe quel travail assigné.
+     */
+    @Query(value = """
+            WITH page AS (
+                SELECT s.id, s.descriptions, s.created_at, s.location, s.surface, s.id_type_problem
+                FROM signalement s
+                JOIN type_problem tp ON tp.id = s.id_type_problem
+                WHERE (CAST(:type AS VARCHAR) IS NULL OR tp.libelle = CAST(:type AS VARCHAR))
+                  AND (CAST(:fromDate AS TIMESTAMP) IS NULL OR s.created_at >= CAST(:fromDate AS TIMESTAMP))
+                  AND (CAST(:toDate AS TIMESTAMP) IS NULL OR s.created_at < CAST(:toDate AS TIMESTAMP))
+                  AND (CAST(:companyId AS BIGINT) IS NULL OR EXISTS (
+                        SELECT 1 FROM signalement_work w
+                        WHERE w.id_signalement = s.id AND w.id_company = CAST(:companyId AS BIGINT)))
+                  AND (CAST(:status AS VARCHAR) IS NULL OR EXISTS (
+                        SELECT 1 FROM signalement_status ss
+                        JOIN status_signalement st ON st.id = ss.id_status_signalement
+                        WHERE ss.id_signalement = s.id
+                          AND st.libelle = CAST(:status AS VARCHAR)
+                          AND NOT EXISTS (
+                                SELECT 1 FROM signalement_status ss2
+                                WHERE ss2.id_signalement = s.id
+                                  AND (ss2.updated_at > ss.updated_at
+                                       OR (ss2.updated_at = ss.updated_at AND ss2.id > ss.id)))))
+                  AND (CAST(:cursorCreatedAt AS TIMESTAMP) IS NULL
+                        OR s.created_at < CAST(:cursorCreatedAt AS TIMESTAMP)
+                        OR (s.created_at = CAST(:cursorCreatedAt AS TIMESTAMP) AND s.id < CAST(:cursorId AS BIGINT)))
+                ORDER BY s.created_at DESC, s.id DESC
+                LIMIT :limit
+            )
+            SELECT p.id AS id,
+                   p.descriptions AS descriptions,
+                   p.created_at AS "createdAt",
+                   p.location AS location,
+                   p.surface AS surface,
+                   tp.libelle AS "typeProblem",
+                   tp.icone AS "illustrationProblem",
+                   st.libelle AS etat,
+                   lw.start_date AS "startDate",
+                   lw.end_date_estimation AS "endDateEstimation",
+                   lw.real_end_date AS "realEndDate",
+                   lw.price AS price,
+                   c.id AS "companyId",
+                   c.name AS "companyName",
+                   rt.id AS "reparationTypeId",
+                   rt.niveau AS "reparationNiveau"
+            FROM page p
+            JOIN type_problem tp ON tp.id = p.id_type_problem
+            LEFT JOIN signalement_status ls ON ls.id = (
+                SELECT ss.id FROM signalement_status ss
+                WHERE ss.id_signalement = p.id
+                ORDER BY ss.updated_at DESC, ss.id DESC
+                LIMIT 1)
+            LEFT JOIN status_signalement st ON st.id = ls.id_status_signalement
+            LEFT JOIN signalement_work lw ON lw.id = (
+                SELECT sw.id FROM signalement_work sw
+                WHERE sw.id_signalement = p.id
+                ORDER BY sw.start_date DESC NULLS LAST, sw.id DESC
+                LIMIT 1)
+            LEFT JOIN company c ON c.id = lw.id_company
+            LEFT JOIN reparation_type rt ON rt.id = lw.id_reparation_type
+            ORDER BY p.created_at DESC, p.id DESC
+            """, nativeQuery = true)
+    List<SignalementProblemRow> findProblemRows(@Param("status") String status,
+                                                @Param("type") String type,
+                                                @Param("companyId") Long companyId,
+                                                @Param("fromDate") Instant fromDate,
+                                                @Param("toDate") Instant toDate,
+                                                @Param("cursorCreatedAt") Instant cursorCreatedAt,
+                                                @Param("cursorId") Long cursorId,
+                                                @Param("limit") int limit);
 }
@@ -0,0 +1,7 @@
+package itu.cloud.roadworks.repository;
+
+import itu.cloud.roadworks.model.SyncCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface SyncCheckpointRepository extends JpaRepository<SyncCheckpoint, String> {
+}
@@ -4,11 +4,9 @@ import itu.cloud.roadworks.dto.AuthResponse;
 import itu.cloud.roadworks.dto.LoginRequest;
 import itu.cloud.roadworks.dto.RegisterRequest;
 import itu.cloud.roadworks.model.Account;
-import itu.cloud.roadworks.model.Config;
 import itu.cloud.roadworks.model.Role;
 import itu.cloud.roadworks.model.Session;
 import itu.cloud.roadworks.repository.AccountRepository;
-import itu.cloud.roadworks.repository.ConfigRepository;
 import itu.cloud.roadworks.repository.RoleRepository;
 import itu.cloud.roadworks.repository.SessionRepository;
 import lombok.RequiredArgsConstructor;
@@ -34,13 +32,12 @@ public class AuthService {
     private final AccountRepository accountRepository;
     private final RoleRepository roleRepository;
     private final SessionRepository sessionRepository;
-    private final ConfigRepository configRepository;
+    private final ReferenceDataService referenceDataService;
     private final FirebaseService firebaseService;
+    private final SessionCache sessionCache;
 
     private static final String ROLE_MANAGER = "manager";
     private static final String ROLE_UTILISATEUR = "utilisateur";
-    private static final int DEFAULT_SESSION_DURATION_MINUTES = 60;
-    private static final int DEFAULT_MAX_ATTEMPTS = 3;
 
     @Transactional
     public AuthResponse login(LoginRequest request, String ipAddress, String userAgent) {
@@ -176,11 +173,35 @@ public AuthResponse register(RegisterRequest request) {
     public void logout(String token) {
         sessionRepository.findByToken(token)
                 .ifPresent(sessionRepository::delete);
+        sessionCache.evictToken(token);
     }
 
+    /**
+     * Compte de la session, servi par SessionCache dans le cas courant ; en base (session, compte et rôle
+     * en une requête) seulement si le token n'est pas en cache. Un compte bloqué n'est plus authentifié.
+     */
     public Optional<Account> validateToken(String token) {
-        return sessionRepository.findByTokenAndExpiresAtAfter(token, Instant.now())
-                .map(Session::getAccount);
+        Optional<Account> cached = sessionCache.get(token);
+        if (cached.isPresent()) {
+            return cached;
+        }
+        return sessionRepository.findValidWithAccount(token, Instant.now())
+                .filter(session -> !Boolean.TRUE.equals(session.getAccount().getIsLocked()))
+                .map(session -> {
+                    sessionCache.put(token, session.getAccount(), session.getExpiresAt());
+                    return session.getAccount();
+                });
+    }
+
+    /**
+     * Compte supprimé, bloqué ou dont le rôle change : ses sessions ne sont plus servies par le cache.
+     */
+    public void evictSessions(Account account) {
+        sessionCache.evictAccount(account.getId());
+    }
+
+    public Map<String, Object> getSessionCacheStats() {
+        return sessionCache.stats();
     }
 
     private void handleFailedLogin(Account account) {
@@ -190,6 +211,7 @@ public AuthResponse register(RegisterRequest request) {
 
         if (account.getAttempts() >= maxAttempts) {
             account.setIsLocked(true);
+            evictSessions(account);
         }
 
         accountRepository.save(account);
@@ -226,17 +248,11 @@ public AuthResponse register(RegisterRequest request) {
     }
 
     private int getSessionDuration() {
-        return configRepository.findAll().stream()
-                .findFirst()
-                .map(Config::getSessionDuration)
-                .orElse(DEFAULT_SESSION_DURATION_MINUTES);
+        return referenceDataService.getConfig().sessionDurationMinutes();
     }
 
     private int getMaxAttempts() {
-        return configRepository.findAll().stream()
-                .findFirst()
-                .map(Config::getMaxAttempts)
-                .orElse(DEFAULT_MAX_ATTEMPTS);
+        return referenceDataService.getConfig().maxAttempts();
     }
 
     @Transactional(readOnly = true)
@@ -505,6 +521,7 @@ public AuthResponse register(RegisterRequest request) {
                             account.setAttempts(0);
                         }
                         accountRepository.save(account);
+                        evictSessions(account);
                         updatedFromFirebase++;
                         log.info("Utilisateur {} mis à jour depuis Firebase (bloqué: {}, source: {})", 
                                 username, isLocked, isLockedInFirestore ? "Firestore" : "Firebase Auth");
@@ -724,6 +741,7 @@ public AuthResponse register(RegisterRequest request) {
 
             if (updated) {
                 accountRepository.save(account);
+                evictSessions(account);
             }
 
             return AuthResponse.builder()
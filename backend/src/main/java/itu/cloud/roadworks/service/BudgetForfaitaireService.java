@@ -1,6 +1,5 @@
 package itu.cloud.roadworks.service;
 
-import itu.cloud.roadworks.repository.DefaultPriceRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
@@ -11,7 +10,7 @@ import java.math.RoundingMode;
 @RequiredArgsConstructor
 public class BudgetForfaitaireService {
 
-    private final DefaultPriceRepository defaultPriceRepository;
+    private final ReferenceDataService referenceDataService;
 
     public BigDecimal calculerBudget(BigDecimal surfaceM2, int niveau) {
         if (surfaceM2 == null) {
@@ -24,8 +23,7 @@ public class BudgetForfaitaireService {
             throw new IllegalArgumentException("Niveau invalide (>0)");
         }
 
-        BigDecimal prixM2 = defaultPriceRepository.findTopByOrderByIdDesc()
-                .map(defaultPrice -> defaultPrice.getPrice())
+        BigDecimal prixM2 = referenceDataService.getDefaultPrice()
                 .orElseThrow(() -> new IllegalStateException("Prix forfaitaire m² non défini"));
 
         if (prixM2 == null || prixM2.compareTo(BigDecimal.ZERO) <= 0) {
@@ -0,0 +1,50 @@
+package itu.cloud.roadworks.service;
+
+import com.google.api.core.ApiFuture;
+import com.google.cloud.firestore.BulkWriter;
+import com.google.cloud.firestore.CollectionReference;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.SetOptions;
+
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * ReportWriter adossé au BulkWriter Firestore : lots de 20 écritures envoyés en parallèle,
+ * débit progressif (500 écritures/s au départ) et nouvelles tentatives sur les erreurs transitoires.
+ */
+public class BulkReportWriter implements ReportWriter {
+
+    private final CollectionReference collection;
+    private final BulkWriter bulkWriter;
+
+    public BulkReportWriter(Firestore firestore, String collection) {
+        this.collection = firestore.collection(collection);
+        this.bulkWriter = firestore.bulkWriter();
+    }
+
+    @Override
+    public String newDocumentId() {
+        return collection.document().getId();
+    }
+
+    @Override
+    public ApiFuture<?> merge(String documentId, Map<String, Object> data) {
+        return bulkWriter.set(collection.document(documentId), data, SetOptions.merge());
+    }
+
+    /**
+     * Attend la fin des écritures en cours (les échecs individuels sont remontés par les futures de merge).
+     */
+    @Override
+    public void close() {
+        try {
+            bulkWriter.close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Fermeture du BulkWriter interrompue", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Fermeture du BulkWriter en échec: " + e.getMessage(), e.getCause());
+        }
+    }
+}
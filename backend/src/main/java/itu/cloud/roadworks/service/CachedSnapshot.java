@@ -0,0 +1,52 @@
+package itu.cloud.roadworks.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Copie en mémoire d'une donnée de référence peu modifiée (ligne de config, prix courant, table de taux).
+ * La valeur est relue au plus une fois par intervalle, ou dès le premier accès après invalidate() (écriture).
+ * Les lecteurs concurrents ne déclenchent qu'un seul chargement ; la valeur doit être immuable.
+ */
+public final class CachedSnapshot<T> {
+
+    private record Loaded<T>(T value, long expiresAt) {
+    }
+
+    private final Supplier<T> loader;
+    private final long refreshMillis;
+    private final AtomicLong generation = new AtomicLong();
+    private volatile Loaded<T> loaded;
+
+    public CachedSnapshot(Supplier<T> loader, long refreshMillis) {
+        this.loader = loader;
+        this.refreshMillis = refreshMillis;
+    }
+
+    public T get() {
+        Loaded<T> current = loaded;
+        if (current != null && System.currentTimeMillis() < current.expiresAt()) {
+            return current.value();
+        }
+        synchronized (this) {
+            current = loaded;
+            long now = System.currentTimeMillis();
+            if (current != null && now < current.expiresAt()) {
+                return current.value();
+            }
+            long loadedGeneration = generation.get();
+            T value = loader.get();
+            // Invalidé pendant le chargement : la valeur lue est peut-être antérieure à l'écriture, elle sera relue
+            loaded = new Loaded<>(value, loadedGeneration == generation.get() ? now + refreshMillis : 0);
+            return value;
+        }
+    }
+
+    /**
+     * Donnée modifiée : le prochain accès la relit.
+     */
+    public void invalidate() {
+        generation.incrementAndGet();
+        loaded = null;
+    }
+}
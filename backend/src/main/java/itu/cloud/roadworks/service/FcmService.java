@@ -1,92 +1,149 @@
 package itu.cloud.roadworks.service;
 
-import com.google.cloud.firestore.DocumentSnapshot;
-import com.google.cloud.firestore.Firestore;
-import com.google.firebase.cloud.FirestoreClient;
 import com.google.firebase.messaging.FirebaseMessaging;
+import com.google.firebase.messaging.FirebaseMessagingException;
 import com.google.firebase.messaging.Message;
+import com.google.firebase.messaging.MessagingErrorCode;
 import com.google.firebase.messaging.Notification;
 import com.google.firebase.messaging.AndroidConfig;
 import com.google.firebase.messaging.AndroidNotification;
+import com.google.firebase.messaging.SendResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class FcmService {
 
-    private final FirebaseService firebaseService;
+    // Limite de messages par appel sendEach
+    private static final int MAX_MESSAGES_PER_CALL = 500;
+
+    private final FcmTokenCache tokenCache;
+
+    // Refus définitifs liés au token (plus enregistré, ou émis pour un autre projet) : le token est retiré
+    private static final Set<MessagingErrorCode> INVALID_TOKEN_CODES = EnumSet.of(
+            MessagingErrorCode.UNREGISTERED,
+            MessagingErrorCode.SENDER_ID_MISMATCH);
 
     /**
-     * Envoie une push notification FCM a l'utilisateur qui a cree le signalement.
-     * Flux: firebaseId -> Firestore doc -> userId -> fcm_tokens/{userId} -> token -> FCM send
+     * Résultat d'une push : error non nul si elle a échoué (quota dépassé, FCM indisponible, message refusé...).
+     *
+     * @param sent      false si la push n'a pas de destinataire ou a été refusée définitivement
+     * @param permanent l'erreur tient au message lui-même (INVALID_ARGUMENT) : la réessayer ne changerait rien
      */
-    public void sendPushToReportOwner(String firebaseId, String title, String body) {
-        if (firebaseId == null || firebaseId.isEmpty()) {
-            log.warn("Pas de firebaseId - impossible d'envoyer la push notification");
-            return;
-        }
-
-        try {
-            Firestore db = firebaseService.getFirestore();
-            if (db == null) {
-                log.warn("Firestore non initialise - push notification non envoyee");
-                return;
-            }
+    public record PushResult(boolean sent, Exception error, boolean permanent) {
 
-            // 1. Lire le document Firestore pour obtenir le userId
-            DocumentSnapshot reportDoc = db.collection("roadworks_reports")
-                    .document(firebaseId).get().get();
+        public PushResult(boolean sent, Exception error) {
+            this(sent, error, false);
+        }
+    }
 
-            if (!reportDoc.exists()) {
-                log.warn("Document Firestore {} introuvable", firebaseId);
-                return;
-            }
+    /**
+     * Envoie des push FCM aux utilisateurs qui ont créé les signalements.
+     * Flux: firebaseId -> userId -> token (FcmTokenCache, lectures groupées des manquants) -> FCM sendEach
+     * Les push d'un même destinataire sont fusionnées en un message récapitulatif.
+     * Appelé par OutboxDispatcher : une erreur Firestore ou un échec de tout l'appel FCM remonte pour que le lot
+     * soit réessayé ; un échec propre à un message est renvoyé dans son résultat.
+     *
+     * @return un résultat par push, dans l'ordre
+     */
+    public List<PushResult> sendPushesToReportOwners(List<OutboxService.FcmPush> pushes) throws Exception {
+        List<PushResult> results = new ArrayList<>(Collections.nCopies(pushes.size(), new PushResult(false, null)));
+        List<String> firebaseIds = pushes.stream()
+                .map(OutboxService.FcmPush::firebaseId)
+                .filter(id -> id != null && !id.isEmpty())
+                .distinct()
+                .toList();
+        if (firebaseIds.isEmpty()) {
+            return results;
+        }
+        Map<String, String> tokens = tokenCache.resolveTokens(firebaseIds);
 
-            String userId = reportDoc.getString("userId");
-            if (userId == null || userId.isEmpty()) {
-                log.warn("Pas de userId dans le document Firestore {}", firebaseId);
-                return;
+        // Regroupement par destinataire : plusieurs push pour un même token deviennent un seul message récapitulatif
+        Map<String, List<Integer>> byToken = new LinkedHashMap<>();
+        for (int i = 0; i < pushes.size(); i++) {
+            OutboxService.FcmPush push = pushes.get(i);
+            String token = push.firebaseId() != null ? tokens.get(push.firebaseId()) : null;
+            if (token == null) {
+                log.warn("Pas de token FCM pour le signalement {}", push.firebaseId());
+                continue;
             }
+            byToken.computeIfAbsent(token, key -> new ArrayList<>()).add(i);
+        }
 
-            // 2. Lire le token FCM depuis la collection fcm_tokens
-            DocumentSnapshot tokenDoc = db.collection("fcm_tokens")
-                    .document(userId).get().get();
-
-            if (!tokenDoc.exists()) {
-                log.warn("Pas de token FCM pour userId {}", userId);
-                return;
-            }
+        List<Message> messages = new ArrayList<>();
+        List<String> messageTokens = new ArrayList<>();
+        List<List<Integer>> messagePushes = new ArrayList<>();
+        byToken.forEach((token, group) -> {
+            OutboxService.FcmPush first = pushes.get(group.get(0));
+            messages.add(group.size() == 1
+                    ? buildMessage(token, first.title(), first.body())
+                    : buildMessage(token, summaryTitle(pushes, group), group.size() + " mises à jour de vos signalements"));
+            messageTokens.add(token);
+            messagePushes.add(group);
+        });
 
-            String fcmToken = tokenDoc.getString("token");
-            if (fcmToken == null || fcmToken.isEmpty()) {
-                log.warn("Token FCM vide pour userId {}", userId);
-                return;
+        for (int from = 0; from < messages.size(); from += MAX_MESSAGES_PER_CALL) {
+            int to = Math.min(from + MAX_MESSAGES_PER_CALL, messages.size());
+            List<SendResponse> responses = FirebaseMessaging.getInstance().sendEach(messages.subList(from, to)).getResponses();
+            for (int j = 0; j < responses.size(); j++) {
+                PushResult result = toResult(responses.get(j), messageTokens.get(from + j));
+                messagePushes.get(from + j).forEach(index -> results.set(index, result));
             }
+        }
+        log.info("Push FCM: {} message(s) envoyé(s) en {} appel(s) pour {} push",
+                messages.size(), (messages.size() + MAX_MESSAGES_PER_CALL - 1) / MAX_MESSAGES_PER_CALL, pushes.size());
+        return results;
+    }
 
-            // 3. Envoyer la notification FCM
-            Message message = Message.builder()
-                    .setToken(fcmToken)
-                    .setNotification(Notification.builder()
-                            .setTitle(title)
-                            .setBody(body)
-                            .build())
-                    .setAndroidConfig(AndroidConfig.builder()
-                            .setNotification(AndroidNotification.builder()
-                                    .setChannelId("status-updates")
-                                    .setIcon("ic_launcher")
-                                    .build())
-                            .build())
-                    .build();
-
-            String response = FirebaseMessaging.getInstance().send(message);
-            log.info("Push FCM envoyee avec succes: {}", response);
+    private static String summaryTitle(List<OutboxService.FcmPush> pushes, List<Integer> group) {
+        String title = pushes.get(group.get(0)).title();
+        boolean sameTitle = group.stream().allMatch(index -> java.util.Objects.equals(title, pushes.get(index).title()));
+        return sameTitle && title != null ? title : "Signalements mis à jour";
+    }
 
-        } catch (Exception e) {
-            log.error("Erreur lors de l'envoi de la push FCM pour firebaseId {}: {}",
-                    firebaseId, e.getMessage());
+    private PushResult toResult(SendResponse response, String token) {
+        if (response.isSuccessful()) {
+            return new PushResult(true, null);
+        }
+        FirebaseMessagingException error = response.getException();
+        MessagingErrorCode code = error.getMessagingErrorCode();
+        if (INVALID_TOKEN_CODES.contains(code)) {
+            // Token périmé ou invalide : retiré du cache, la push est abandonnée
+            int purged = tokenCache.invalidateToken(token);
+            log.warn("Push FCM refusée ({}), token retiré pour {} utilisateur(s): {}", code, purged, error.getMessage());
+            return new PushResult(false, null);
+        }
+        if (code == MessagingErrorCode.INVALID_ARGUMENT) {
+            // Message mal formé (titre, corps ou token malformé) : le token est conservé, l'événement abandonné
+            return new PushResult(false, error, true);
         }
+        return new PushResult(false, error);
+    }
+
+    private static Message buildMessage(String token, String title, String body) {
+        return Message.builder()
+                .setToken(token)
+                .setNotification(Notification.builder()
+                        .setTitle(title)
+                        .setBody(body)
+                        .build())
+                .setAndroidConfig(AndroidConfig.builder()
+                        .setNotification(AndroidNotification.builder()
+                                .setChannelId("status-updates")
+                                .setIcon("ic_launcher")
+                                .build())
+                        .build())
+                .build();
     }
 }
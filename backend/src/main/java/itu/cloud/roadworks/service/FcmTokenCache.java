@@ -0,0 +1,202 @@
+package itu.cloud.roadworks.service;
+
+import com.google.cloud.firestore.DocumentChange;
+import com.google.cloud.firestore.DocumentReference;
+import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.FieldMask;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.ListenerRegistration;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cache des destinataires des push FCM : firebaseId du signalement → userId → token.
+ * Les absences (document sans userId, utilisateur sans token) sont aussi mises en cache.
+ * Les entrées expirent après fcm.cache.ttl-ms ; les tokens sont en plus tenus à jour par un listener
+ * sur fcm_tokens (un token enregistré ou supprimé est pris en compte sans attendre l'expiration).
+ * Les manquants d'un lot sont lus en une requête getAll par collection au lieu de deux lectures par push.
+ */
+@Service
+@Slf4j
+public class FcmTokenCache {
+
+    private static final String REPORTS_COLLECTION = "roadworks_reports";
+    private static final String TOKENS_COLLECTION = "fcm_tokens";
+    private static final long READ_TIMEOUT_SECONDS = 30;
+
+    /**
+     * @param value userId ou token, null si absent
+     */
+    private record CachedValue(String value, long expiresAt) {
+        boolean isExpired(long now) {
+            return now >= expiresAt;
+        }
+    }
+
+    private final FirebaseService firebaseService;
+    private final long ttlMillis;
+
+    private final Map<String, CachedValue> userIds = new ConcurrentHashMap<>();
+    private final Map<String, CachedValue> tokens = new ConcurrentHashMap<>();
+
+    private ListenerRegistration tokensRegistration;
+
+    public FcmTokenCache(FirebaseService firebaseService,
+                         @Value("${fcm.cache.ttl-ms:3600000}") long ttlMillis) {
+        this.firebaseService = firebaseService;
+        this.ttlMillis = ttlMillis;
+    }
+
+    @PostConstruct
+    public void startListening() {
+        Firestore db = firebaseService.getFirestore();
+        if (db == null) {
+            return;
+        }
+        try {
+            tokensRegistration = db.collection(TOKENS_COLLECTION).addSnapshotListener((snapshots, error) -> {
+                if (error != null) {
+                    log.error("Erreur du listener fcm_tokens: {}", error.getMessage());
+                    return;
+                }
+                if (snapshots == null) return;
+                for (DocumentChange dc : snapshots.getDocumentChanges()) {
+                    String userId = dc.getDocument().getId();
+                    if (dc.getType() == DocumentChange.Type.REMOVED) {
+                        tokens.remove(userId);
+                    } else {
+                        tokens.put(userId, cached(dc.getDocument().getString("token")));
+                    }
+                }
+            });
+        } catch (Exception e) {
+            log.error("Erreur lors du démarrage du listener fcm_tokens: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void stopListening() {
+        if (tokensRegistration != null) {
+            tokensRegistration.remove();
+        }
+    }
+
+    /**
+     * Tokens FCM des propriétaires des signalements donnés.
+     *
+     * @return firebaseId → token, sans les signalements sans destinataire
+     * @throws Exception si Firestore ne répond pas (le lot sera réessayé)
+     */
+    public Map<String, String> resolveTokens(Collection<String> firebaseIds) throws Exception {
+        Firestore db = firebaseService.getFirestore();
+        if (db == null) {
+            throw new IllegalStateException("Firestore non initialisé");
+        }
+        long now = System.currentTimeMillis();
+
+        Map<String, String> owners = lookup(userIds, new LinkedHashSet<>(firebaseIds), now,
+                missing -> load(db, REPORTS_COLLECTION, missing, "userId"));
+
+        Map<String, String> ownerTokens = lookup(tokens, new LinkedHashSet<>(owners.values()), now,
+                missing -> load(db, TOKENS_COLLECTION, missing, "token"));
+
+        Map<String, String> result = new HashMap<>();
+        owners.forEach((firebaseId, userId) -> {
+            String token = ownerTokens.get(userId);
+            if (token != null) {
+                result.put(firebaseId, token);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Token refusé par FCM (désinstallation, expiration, token invalide) : l'utilisateur est mis en cache
+     * comme sans token jusqu'à expiration, pour ne pas relire et réessayer le même token à chaque push.
+     * Un nouveau token enregistré par l'application arrive par le listener et remplace cette entrée.
+     *
+     * @return nombre d'utilisateurs concernés
+     */
+    public int invalidateToken(String token) {
+        int purged = 0;
+        for (Map.Entry<String, CachedValue> entry : tokens.entrySet()) {
+            if (token.equals(entry.getValue().value())
+                    && tokens.replace(entry.getKey(), entry.getValue(), cached(null))) {
+                purged++;
+            }
+        }
+        return purged;
+    }
+
+    @Scheduled(fixedDelayString = "${fcm.cache.ttl-ms:3600000}")
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        userIds.values().removeIf(value -> value.isExpired(now));
+        tokens.values().removeIf(value -> value.isExpired(now));
+    }
+
+    @FunctionalInterface
+    private interface Loader {
+        Map<String, String> load(List<String> keys) throws Exception;
+    }
+
+    /**
+     * Valeurs non nulles des clés, les absentes ou expirées étant chargées d'un seul appel.
+     */
+    private Map<String, String> lookup(Map<String, CachedValue> cache, Set<String> keys, long now, Loader loader) throws Exception {
+        Map<String, String> found = new HashMap<>();
+        List<String> missing = new ArrayList<>();
+        for (String key : keys) {
+            CachedValue cachedValue = cache.get(key);
+            if (cachedValue == null || cachedValue.isExpired(now)) {
+                missing.add(key);
+            } else if (cachedValue.value() != null) {
+                found.put(key, cachedValue.value());
+            }
+        }
+        if (!missing.isEmpty()) {
+            Map<String, String> loaded = loader.load(missing);
+            for (String key : missing) {
+                String value = loaded.get(key);
+                cache.put(key, cached(value));
+                if (value != null) {
+                    found.put(key, value);
+                }
+            }
+        }
+        return found;
+    }
+
+    private Map<String, String> load(Firestore db, String collection, List<String> ids, String field) throws Exception {
+        DocumentReference[] references = ids.stream()
+                .map(id -> db.collection(collection).document(id))
+                .toArray(DocumentReference[]::new);
+        Map<String, String> values = new HashMap<>();
+        for (DocumentSnapshot snapshot : db.getAll(references, FieldMask.of(field)).get(READ_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+            String value = snapshot.exists() ? snapshot.getString(field) : null;
+            if (value != null && !value.isEmpty()) {
+                values.put(snapshot.getId(), value);
+            }
+        }
+        log.debug("{} {} lu(s) dans {} pour {} demandé(s)", values.size(), field, collection, ids.size());
+        return values;
+    }
+
+    private CachedValue cached(String value) {
+        return new CachedValue(value != null && !value.isEmpty() ? value : null, System.currentTimeMillis() + ttlMillis);
+    }
+}
@@ -0,0 +1,83 @@
+package itu.cloud.roadworks.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+@Service
+@ConditionalOnProperty(name = "photo.store.type", havingValue = "filesystem", matchIfMissing = true)
+@Slf4j
+public class FileSystemPhotoStore implements PhotoStore {
+
+    private static final Pattern SHA256_HEX = Pattern.compile("[0-9a-f]{64}");
+
+    private final Path root;
+
+    public FileSystemPhotoStore(@Value("${photo.store.root:./data/photos}") String root) {
+        this.root = Paths.get(root).toAbsolutePath().normalize();
+    }
+
+    @Override
+    public String put(byte[] content) throws IOException {
+        String hash = sha256(content);
+        Path target = pathOf(hash);
+        if (Files.exists(target)) {
+            log.debug("Photo {} déjà présente dans le store", hash);
+            return hash;
+        }
+
+        Files.createDirectories(target.getParent());
+        // Écriture dans un fichier temporaire puis renommage atomique : jamais de fichier partiel visible
+        Path tmp = Files.createTempFile(target.getParent(), hash, ".tmp");
+        try {
+            Files.write(tmp, content);
+            Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (FileAlreadyExistsException e) {
+            // Écrit en parallèle par un autre thread : même contenu, rien à faire
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+        return hash;
+    }
+
+    @Override
+    public Optional<Path> find(String hash) {
+        if (hash == null || !SHA256_HEX.matcher(hash).matches()) {
+            return Optional.empty();
+        }
+        Path path = pathOf(hash);
+        return Files.isRegularFile(path) ? Optional.of(path) : Optional.empty();
+    }
+
+    @Override
+    public byte[] read(String hash) throws IOException {
+        Path path = find(hash).orElseThrow(() -> new IOException("Photo introuvable dans le store: " + hash));
+        return Files.readAllBytes(path);
+    }
+
+    // Répartition sur deux niveaux de répertoires (ab/cd/abcd...) pour éviter les répertoires géants
+    private Path pathOf(String hash) {
+        return root.resolve(hash.substring(0, 2)).resolve(hash.substring(2, 4)).resolve(hash);
+    }
+
+    private static String sha256(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponible", e);
+        }
+    }
+}
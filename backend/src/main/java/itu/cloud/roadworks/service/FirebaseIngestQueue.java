@@ -0,0 +1,368 @@
+package itu.cloud.roadworks.service;
+
+import com.google.cloud.firestore.DocumentSnapshot;
+import itu.cloud.roadworks.dto.FirebaseSyncResultDto;
+import itu.cloud.roadworks.model.SyncCheckpoint;
+import itu.cloud.roadworks.repository.SyncCheckpointRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * File d'import temps réel alimentée par le listener Firestore.
+ * Un document n'y figure qu'une fois : un nouveau changement remplace celui en attente (le plus récent gagne)
+ * en gardant sa place dans la file. Un thread dédié la vide par lots vers SignalementService.applyFirebaseChanges.
+ * La file est bornée : quand la base ne suit pas, offer bloque le thread du listener (contre-pression).
+ * Un lot en échec (base indisponible) est remis en file et retenté avec un délai croissant.
+ * Un document non appliqué (erreur propre au document) est remis en file seul, avec son propre délai croissant ;
+ * les autres documents continuent de passer pendant ce délai.
+ * <p>
+ * Point de reprise : le listener signale la fin de chaque snapshot (markSnapshot) avec son heure de lecture.
+ * Quand tous les changements reçus jusqu'à ce snapshot sont appliqués, cette heure est enregistrée ;
+ * au redémarrage, le listener ne relit que les documents dont updatedAt est postérieur.
+ * Un document en attente de nouvelle tentative retient le point de reprise : il n'est jamais dépassé.
+ */
+@Service
+@Slf4j
+public class FirebaseIngestQueue {
+
+    private static final String LISTENER_CHECKPOINT = "firestore.roadworks_reports.listener";
+
+    /**
+     * @param firstSeq numéro du premier changement en attente pour ce document (conservé quand il est remplacé)
+     * @param attempts échecs déjà subis par ce changement
+     * @param retryAt  instant (ms) avant lequel il n'est pas repris, 0 s'il est prêt
+     */
+    private record PendingChange(DocumentSnapshot document, boolean removed, long firstSeq, int attempts, long retryAt) {
+    }
+
+    /**
+     * Fin d'un snapshot : les changements de numéro inférieur à seq en font partie (ou d'un snapshot antérieur).
+     */
+    private record SnapshotMarker(long seq, Instant readTime) {
+    }
+
+    private final SignalementService signalementService;
+    private final SyncCheckpointRepository checkpointRepository;
+    private final int capacity;
+    private final int batchSize;
+    private final long retryMillis;
+    private final long maxRetryMillis;
+
+    private final Object lock = new Object();
+    private final LinkedHashMap<String, PendingChange> pending = new LinkedHashMap<>();
+    private final ArrayDeque<SnapshotMarker> markers = new ArrayDeque<>();
+    private long nextSeq;
+    private long inFlightFirstSeq = Long.MAX_VALUE;
+    private volatile Instant checkpoint;
+    private final AtomicLong received = new AtomicLong();
+    private final AtomicLong deduplicated = new AtomicLong();
+    private final AtomicLong blocked = new AtomicLong();
+    private final AtomicLong applied = new AtomicLong();
+    private final AtomicLong failedBatches = new AtomicLong();
+    private final AtomicLong retriedDocuments = new AtomicLong();
+
+    private volatile boolean running = true;
+    private Thread worker;
+
+    public FirebaseIngestQueue(SignalementService signalementService,
+                               SyncCheckpointRepository checkpointRepository,
+                               @Value("${firebase.listener.queue-capacity:1000}") int capacity,
+                               @Value("${firebase.listener.batch-size:200}") int batchSize,
+                               @Value("${firebase.listener.retry-ms:1000}") long retryMillis,
+                               @Value("${firebase.listener.max-retry-ms:60000}") long maxRetryMillis) {
+        this.signalementService = signalementService;
+        this.checkpointRepository = checkpointRepository;
+        this.capacity = Math.max(1, capacity);
+        this.batchSize = Math.max(1, batchSize);
+        this.retryMillis = retryMillis;
+        this.maxRetryMillis = maxRetryMillis;
+    }
+
+    @PostConstruct
+    public void start() {
+        worker = new Thread(this::drainLoop, "firebase-ingest");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        synchronized (lock) {
+            lock.notifyAll();
+        }
+        if (worker != null) {
+            worker.interrupt();
+        }
+    }
+
+    /**
+     * Document ajouté ou modifié.
+     */
+    public void offerUpsert(DocumentSnapshot document) throws InterruptedException {
+        offer(document.getId(), document, false);
+    }
+
+    /**
+     * Document supprimé.
+     */
+    public void offerRemoval(String firebaseId) throws InterruptedException {
+        offer(firebaseId, null, true);
+    }
+
+    /**
+     * Tous les changements du snapshot lu à readTime ont été transmis.
+     */
+    public void markSnapshot(Instant readTime) {
+        Instant reached;
+        synchronized (lock) {
+            markers.add(new SnapshotMarker(nextSeq, readTime));
+            reached = advanceWatermark();
+        }
+        saveCheckpoint(reached);
+    }
+
+    /**
+     * Heure de lecture du dernier snapshot entièrement appliqué, vide au premier démarrage.
+     */
+    public Optional<Instant> resumePoint() {
+        Optional<Instant> resume = checkpointRepository.findById(LISTENER_CHECKPOINT).map(SyncCheckpoint::getLastTimestamp);
+        resume.ifPresent(instant -> checkpoint = instant);
+        return resume;
+    }
+
+    /**
+     * Compteurs exposés par l'API de supervision de la synchronisation.
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        synchronized (lock) {
+            stats.put("pending", pending.size());
+        }
+        stats.put("capacity", capacity);
+        stats.put("received", received.get());
+        stats.put("deduplicated", deduplicated.get());
+        stats.put("blocked", blocked.get());
+        stats.put("applied", applied.get());
+        stats.put("failedBatches", failedBatches.get());
+        stats.put("retriedDocuments", retriedDocuments.get());
+        stats.put("checkpoint", checkpoint);
+        return stats;
+    }
+
+    private void offer(String firebaseId, DocumentSnapshot document, boolean removed) throws InterruptedException {
+        received.incrementAndGet();
+        synchronized (lock) {
+            boolean waited = false;
+            while (true) {
+                PendingChange previous = pending.get(firebaseId);
+                if (previous != null) {
+                    // Remplacé sur place : ne consomme pas de place dans la file ; la nouvelle version est reprise sans délai
+                    pending.put(firebaseId, new PendingChange(document, removed, previous.firstSeq(), 0, 0));
+                    nextSeq++;
+                    deduplicated.incrementAndGet();
+                    lock.notifyAll();
+                    return;
+                }
+                if (pending.size() < capacity || !running) {
+                    break;
+                }
+                if (!waited) {
+                    waited = true;
+                    blocked.incrementAndGet();
+                    log.debug("File d'import Firebase pleine ({}), attente de la base", capacity);
+                }
+                lock.wait();
+            }
+            pending.put(firebaseId, new PendingChange(document, removed, nextSeq++, 0, 0));
+            lock.notifyAll();
+        }
+    }
+
+    private void drainLoop() {
+        long delay = retryMillis;
+        while (running) {
+            Map<String, PendingChange> batch;
+            try {
+                batch = takeBatch();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (batch.isEmpty()) {
+                continue;
+            }
+
+            try {
+                List<String> failedIds = apply(batch);
+                delay = retryMillis;
+                if (!failedIds.isEmpty()) {
+                    retryLater(batch, failedIds);
+                }
+                Instant reached;
+                synchronized (lock) {
+                    inFlightFirstSeq = Long.MAX_VALUE;
+                    reached = advanceWatermark();
+                }
+                saveCheckpoint(reached);
+            } catch (Exception e) {
+                failedBatches.incrementAndGet();
+                log.warn("Import temps réel de {} document(s) en échec, nouvelle tentative dans {} ms: {}",
+                        batch.size(), delay, e.getMessage());
+                requeue(batch);
+                try {
+                    Thread.sleep(delay);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                delay = Math.min(delay * 2, maxRetryMillis);
+            }
+        }
+    }
+
+    /**
+     * Prend jusqu'à batchSize changements prêts ; les documents en délai de nouvelle tentative restent en file.
+     * Vide si la file ne contient que des documents en délai : le délai le plus proche est alors attendu.
+     */
+    private Map<String, PendingChange> takeBatch() throws InterruptedException {
+        Map<String, PendingChange> batch = new LinkedHashMap<>();
+        synchronized (lock) {
+            while (pending.isEmpty() && running) {
+                lock.wait();
+            }
+            long now = System.currentTimeMillis();
+            long nextRetry = Long.MAX_VALUE;
+            long firstSeq = Long.MAX_VALUE;
+            Iterator<Map.Entry<String, PendingChange>> it = pending.entrySet().iterator();
+            while (it.hasNext() && batch.size() < batchSize) {
+                Map.Entry<String, PendingChange> entry = it.next();
+                PendingChange change = entry.getValue();
+                if (change.retryAt() > now) {
+                    nextRetry = Math.min(nextRetry, change.retryAt());
+                    continue;
+                }
+                batch.put(entry.getKey(), change);
+                firstSeq = Math.min(firstSeq, change.firstSeq());
+                it.remove();
+            }
+            inFlightFirstSeq = firstSeq;
+            if (batch.isEmpty() && nextRetry != Long.MAX_VALUE && running) {
+                // Réveillé plus tôt par un nouveau changement
+                lock.wait(Math.max(1, nextRetry - now));
+            }
+            // Libère les listeners bloqués sur une file pleine
+            lock.notifyAll();
+        }
+        return batch;
+    }
+
+    /**
+     * @return ids des documents non appliqués
+     */
+    private List<String> apply(Map<String, PendingChange> batch) {
+        List<DocumentSnapshot> documents = new ArrayList<>();
+        List<String> removedIds = new ArrayList<>();
+        batch.forEach((firebaseId, change) -> {
+            if (change.removed()) {
+                removedIds.add(firebaseId);
+            } else {
+                documents.add(change.document());
+            }
+        });
+
+        FirebaseSyncResultDto result = signalementService.applyFirebaseChanges(documents, removedIds);
+        applied.addAndGet(batch.size() - result.getFailedIds().size());
+        if (!result.getErrors().isEmpty()) {
+            log.warn("Import temps réel: {} anomalie(s), {} document(s) remis en file: {}",
+                    result.getErrors().size(), result.getFailedIds().size(), result.getErrors());
+        }
+        return result.getFailedIds();
+    }
+
+    /**
+     * Remet en file les documents non appliqués du lot, chacun avec un délai doublé à chaque échec.
+     * Un changement plus récent arrivé entre-temps est conservé et repris sans délai.
+     */
+    private void retryLater(Map<String, PendingChange> batch, List<String> failedIds) {
+        long now = System.currentTimeMillis();
+        Map<String, PendingChange> retry = new LinkedHashMap<>();
+        for (String firebaseId : failedIds) {
+            PendingChange change = batch.get(firebaseId);
+            if (change == null) {
+                continue;
+            }
+            int attempts = change.attempts() + 1;
+            long delay = Math.min(retryMillis << Math.min(attempts - 1, 30), maxRetryMillis);
+            retry.put(firebaseId, new PendingChange(change.document(), change.removed(), change.firstSeq(), attempts, now + delay));
+            log.debug("Document {} remis en file pour la tentative {} dans {} ms", firebaseId, attempts + 1, delay);
+        }
+        retriedDocuments.addAndGet(retry.size());
+        requeue(retry);
+    }
+
+    /**
+     * Remet un lot en tête de file ; un changement plus récent arrivé entre-temps est conservé.
+     * La capacité peut être dépassée d'au plus un lot.
+     */
+    private void requeue(Map<String, PendingChange> batch) {
+        synchronized (lock) {
+            LinkedHashMap<String, PendingChange> newer = new LinkedHashMap<>(pending);
+            pending.clear();
+            pending.putAll(batch);
+            newer.forEach((firebaseId, change) -> {
+                PendingChange requeued = batch.get(firebaseId);
+                pending.put(firebaseId, requeued == null ? change
+                        : new PendingChange(change.document(), change.removed(), requeued.firstSeq(), 0, 0));
+            });
+            inFlightFirstSeq = Long.MAX_VALUE;
+        }
+    }
+
+    /**
+     * Dépile les snapshots dont tous les changements sont appliqués (aucun changement antérieur
+     * en attente, en délai de nouvelle tentative ni en cours de traitement) et renvoie l'heure de lecture du dernier, null sinon.
+     */
+    private Instant advanceWatermark() {
+        // Les documents remis en file ne sont plus forcément en tête : plus petit numéro de toute la file
+        long outstanding = inFlightFirstSeq;
+        for (PendingChange change : pending.values()) {
+            outstanding = Math.min(outstanding, change.firstSeq());
+        }
+        Instant reached = null;
+        while (!markers.isEmpty() && markers.peek().seq() <= outstanding) {
+            reached = markers.poll().readTime();
+        }
+        return reached;
+    }
+
+    private synchronized void saveCheckpoint(Instant readTime) {
+        // Appelé par le listener et par le thread d'import : le point de reprise ne recule jamais
+        if (readTime == null || (checkpoint != null && !readTime.isAfter(checkpoint))) {
+            return;
+        }
+        try {
+            checkpointRepository.save(SyncCheckpoint.builder()
+                    .name(LISTENER_CHECKPOINT)
+                    .lastTimestamp(readTime)
+                    .build());
+            checkpoint = readTime;
+        } catch (Exception e) {
+            // Sans gravité : le prochain snapshot appliqué l'enregistrera, un redémarrage relirait un peu plus
+            log.warn("Point de reprise du listener non enregistré: {}", e.getMessage());
+        }
+    }
+}
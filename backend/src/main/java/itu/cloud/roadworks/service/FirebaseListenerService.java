@@ -1,30 +1,63 @@
 package itu.cloud.roadworks.service;
 
+import com.google.cloud.Timestamp;
 import com.google.cloud.firestore.DocumentChange;
+import com.google.cloud.firestore.DocumentSnapshot;
 import com.google.cloud.firestore.EventListener;
 import com.google.cloud.firestore.Firestore;
 import com.google.cloud.firestore.FirestoreException;
 import com.google.cloud.firestore.ListenerRegistration;
+import com.google.cloud.firestore.Query;
 import com.google.cloud.firestore.QuerySnapshot;
-import itu.cloud.roadworks.dto.SignalementNotification;
+import itu.cloud.roadworks.repository.SignalementRepository;
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
-
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Écoute la collection roadworks_reports et transmet chaque changement (ajout, modification, suppression)
+ * à la file d'import temps réel : les signalements arrivent en base en quelques secondes, sans synchronisation manuelle.
+ * Au redémarrage, une lecture ponctuelle par pages sans photos (FirestoreReportReader) rattrape les documents
+ * modifiés depuis le point enregistré par la file : son coût suit le nombre de changements, pas la taille de la collection.
+ * Sans point de reprise (premier démarrage), toute la collection est relue ainsi, une seule fois.
+ * L'écoute ne porte ensuite que sur les documents modifiés depuis le début du rattrapage :
+ * le premier snapshot ne charge jamais toute la collection (photos comprises) en mémoire.
+ * Les suppressions sont attendues sous forme logique (deleted=true avec updatedAt avancé) : elles passent par
+ * la même requête updatedAt que les modifications. Une suppression physique d'un document plus ancien ou une
+ * modification sans updatedAt n'est vue que par la réconciliation complète périodique, désactivée par défaut
+ * (firebase.listener.reconcile-interval-ms).
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class FirebaseListenerService {
 
+    // Écart toléré entre l'horloge locale et celle de Firestore (un document relu deux fois est sans effet)
+    private static final long CLOCK_MARGIN_MILLIS = 60_000;
+
     private final FirebaseService firebaseService;
-    private final SimpMessagingTemplate messagingTemplate;
+    private final FirebaseIngestQueue ingestQueue;
+    private final FirestoreReportReader reportReader;
+    private final SignalementRepository signalementRepository;
+
+    // 0 : pas de réconciliation périodique (relit toute la collection, à n'activer qu'en connaissance de cause)
+    @Value("${firebase.listener.reconcile-interval-ms:0}")
+    private long reconcileIntervalMillis;
 
-    private ListenerRegistration listenerRegistration;
+    // Posé par le thread du listener, lu à l'arrêt
+    private volatile ListenerRegistration listenerRegistration;
+    private ScheduledExecutorService listenerExecutor;
 
     @PostConstruct
     public void startListening() {
@@ -35,10 +68,50 @@ public class FirebaseListenerService {
                 return;
             }
 
-            log.info("Démarrage du listener Firebase pour les nouveaux signalements...");
+            log.info("Démarrage du listener Firebase (import temps réel des signalements)...");
 
-            listenerRegistration = db.collection("roadworks_reports")
-                    .addSnapshotListener(new EventListener<QuerySnapshot>() {
+            // Thread dédié : quand la file d'import est pleine, seul ce listener attend
+            listenerExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "firebase-listener");
+                thread.setDaemon(true);
+                return thread;
+            });
+            // Lecture initiale et abonnement sur le thread du listener : le démarrage de l'application n'attend pas
+            listenerExecutor.execute(() -> catchUpAndListen(db));
+        } catch (Exception e) {
+            log.error("Erreur lors du démarrage du listener Firebase: {}", e.getMessage());
+        }
+    }
+
+    private void catchUpAndListen(Firestore db) {
+        try {
+            // Les modifications postérieures au début du rattrapage sont laissées à l'écoute
+            Instant since = Instant.now().minusMillis(CLOCK_MARGIN_MILLIS);
+            Optional<Instant> resumePoint = ingestQueue.resumePoint();
+            if (resumePoint.isPresent()) {
+                // Reprise : lecture ponctuelle des documents modifiés (ou supprimés logiquement) depuis le dernier
+                // snapshot appliqué, comparés à la base (aucune notification pour un document inchangé)
+                int[] removed = {0};
+                int read = reportReader.forEachPage(reportReader.modifiedSince(db, resumePoint.get()), null, documents -> {
+                    for (DocumentSnapshot document : documents) {
+                        if (offer(document)) {
+                            removed[0]++;
+                        }
+                    }
+                    return true;
+                });
+                log.info("Reprise du listener Firebase après {}: {} document(s) modifié(s), dont {} supprimé(s)",
+                        resumePoint.get(), read, removed[0]);
+            } else {
+                // Premier démarrage : pages projetées (sans photos), comparées à la base comme un snapshot
+                reconcile(db);
+            }
+            Query query = db.collection(FirestoreReportReader.REPORTS_COLLECTION)
+                    .whereGreaterThan(FirestoreReportReader.UPDATED_AT,
+                            Timestamp.ofTimeSecondsAndNanos(since.getEpochSecond(), since.getNano()));
+
+            listenerRegistration = query
+                    .addSnapshotListener(listenerExecutor, new EventListener<QuerySnapshot>() {
                         @Override
                         public void onEvent(QuerySnapshot snapshots, FirestoreException error) {
                             if (error != null) {
@@ -48,59 +121,103 @@ public class FirebaseListenerService {
 
                             if (snapshots == null) return;
 
-                            for (DocumentChange dc : snapshots.getDocumentChanges()) {
-                                if (dc.getType() == DocumentChange.Type.ADDED) {
-                                    // Nouveau document ajouté
-                                    var doc = dc.getDocument();
-                                    String status = doc.getString("status");
-                                    Double lat = doc.getDouble("lat");
-                                    Double lng = doc.getDouble("lng");
-                                    String description = doc.getString("description");
-
-                                    log.info("Nouveau signalement détecté: {} à {},{}", status, lat, lng);
-
-                                    // Envoyer notification WebSocket
-                                    SignalementNotification notification = SignalementNotification.builder()
-                                            .type("NEW_SIGNALEMENT")
-                                            .typeProblem(status)
-                                            .location(lat + "," + lng)
-                                            .description(description)
-                                            .timestamp(Instant.now())
-                                            .message("Nouveau signalement: " + getStatusLabel(status))
-                                            .build();
-
-                                    messagingTemplate.convertAndSend("/topic/signalements", notification);
-                                    log.info("Notification WebSocket envoyée pour nouveau signalement");
+                            try {
+                                for (DocumentChange dc : snapshots.getDocumentChanges()) {
+                                    if (dc.getType() == DocumentChange.Type.REMOVED) {
+                                        ingestQueue.offerRemoval(dc.getDocument().getId());
+                                    } else {
+                                        // ADDED ou MODIFIED : importé, mis à jour ou supprimé logiquement
+                                        offer(dc.getDocument());
+                                    }
                                 }
+                                ingestQueue.markSnapshot(snapshots.getReadTime().toDate().toInstant());
+                            } catch (InterruptedException e) {
+                                Thread.currentThread().interrupt();
+                                log.warn("Listener Firebase interrompu, changements restants ignorés");
                             }
                         }
                     });
 
-            log.info("Listener Firebase démarré avec succès");
+            log.info("Listener Firebase démarré avec succès (modifications après {})", since);
+
+            if (reconcileIntervalMillis > 0) {
+                // Même thread que les événements du listener : une réconciliation ne croise jamais un snapshot
+                listenerExecutor.scheduleWithFixedDelay(() -> periodicReconcile(db),
+                        reconcileIntervalMillis, reconcileIntervalMillis, TimeUnit.MILLISECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Lecture initiale de roadworks_reports interrompue");
         } catch (Exception e) {
             log.error("Erreur lors du démarrage du listener Firebase: {}", e.getMessage());
         }
     }
 
+    private void periodicReconcile(Firestore db) {
+        try {
+            reconcile(db);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Réconciliation de roadworks_reports interrompue");
+        } catch (Exception e) {
+            // Nouvelle tentative à l'échéance suivante
+            log.error("Erreur lors de la réconciliation de roadworks_reports: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Relit toute la collection par pages sans photos : chaque document est comparé à la base (y compris ceux
+     * modifiés sans updatedAt), et les firebaseIds locaux absents de Firestore sont transmis comme suppressions.
+     */
+    private void reconcile(Firestore db) throws Exception {
+        // Lus avant Firestore : un signalement importé pendant la lecture n'est jamais pris pour une suppression
+        Set<String> missing = new HashSet<>(signalementRepository.findAllFirebaseIds());
+        int read = reportReader.forEachPage(reportReader.orderedById(db), null, documents -> {
+            for (DocumentSnapshot document : documents) {
+                missing.remove(document.getId());
+                offer(document);
+            }
+            return true;
+        });
+        int removed = offerRemovals(missing, read);
+        log.info("Réconciliation de roadworks_reports: {} document(s) relu(s), {} supprimé(s)", read, removed);
+    }
+
+    /**
+     * Transmet un document lu : suppression s'il est supprimé logiquement, import ou mise à jour sinon.
+     *
+     * @return true si transmis comme suppression
+     */
+    private boolean offer(DocumentSnapshot document) throws InterruptedException {
+        if (FirestoreReportReader.isDeleted(document)) {
+            ingestQueue.offerRemoval(document.getId());
+            return true;
+        }
+        ingestQueue.offerUpsert(document);
+        return false;
+    }
+
+    private int offerRemovals(Set<String> missing, int read) throws InterruptedException {
+        if (read == 0 && !missing.isEmpty()) {
+            // Collection vide alors que la base en connaît : mauvaise configuration plutôt que suppression en masse
+            log.warn("roadworks_reports vide mais {} signalement(s) Firebase en base : suppressions ignorées", missing.size());
+            return 0;
+        }
+        for (String firebaseId : missing) {
+            ingestQueue.offerRemoval(firebaseId);
+        }
+        return missing.size();
+    }
+
     @PreDestroy
     public void stopListening() {
+        if (listenerExecutor != null) {
+            // Interrompt une lecture initiale en cours avant qu'elle ne s'abonne
+            listenerExecutor.shutdownNow();
+        }
         if (listenerRegistration != null) {
             listenerRegistration.remove();
             log.info("Listener Firebase arrêté");
         }
     }
-
-    private String getStatusLabel(String status) {
-        if (status == null) return "Signalement";
-        switch (status) {
-            case "pothole": return "Nid-de-poule";
-            case "blocked_road": return "Route barrée";
-            case "accident": return "Accident";
-            case "construction": return "Travaux";
-            case "flooding": return "Inondation";
-            case "debris": return "Débris";
-            case "poor_surface": return "Mauvaise surface";
-            default: return status;
-        }
-    }
 }
@@ -142,6 +142,16 @@ public class FirebaseService {
         }
     }
 
+    /**
+     * Ouvre un écrivain groupé (BulkWriter) sur une collection Firestore.
+     * @param collection Le nom de la collection
+     * @return null si Firestore n'est pas disponible
+     */
+    public ReportWriter openReportWriter(String collection) {
+        Firestore firestore = getFirestore();
+        return firestore != null ? new BulkReportWriter(firestore, collection) : null;
+    }
+
     /**
      * Récupère tous les utilisateurs de Firebase
      * @return Liste des enregistrements d'utilisateurs Firebase
@@ -0,0 +1,132 @@
+package itu.cloud.roadworks.service;
+
+import com.google.cloud.Timestamp;
+import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.FieldMask;
+import com.google.cloud.firestore.FieldPath;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.Query;
+import com.google.cloud.firestore.QueryDocumentSnapshot;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lecture paginée de roadworks_reports à mémoire bornée.
+ * Les pages sont lues par requêtes ordonnées avec curseur startAfter, une seule page à la fois en mémoire,
+ * et projetées sans le tableau photos (Base64) : les photos d'un document sont chargées à part,
+ * uniquement quand il est importé (loadPhotos).
+ */
+@Service
+@Slf4j
+public class FirestoreReportReader {
+
+    public static final String REPORTS_COLLECTION = "roadworks_reports";
+    public static final String CREATED_AT = "createdAt";
+    // Horodatage serveur posé par le mobile à la création et par le back-office à chaque export
+    public static final String UPDATED_AT = "updatedAt";
+    // Suppression logique : le document est gardé avec deleted=true et un updatedAt avancé,
+    // ce qui la rend visible au listener et à la reprise (modifiedSince), sans relecture de toute la collection
+    public static final String DELETED = "deleted";
+    private static final String PHOTOS = "photos";
+    private static final long PAGE_TIMEOUT_SECONDS = 30;
+
+    // Tous les champs lus par l'import et l'index des non synchronisés, sauf les photos
+    private static final String[] SUMMARY_FIELDS = {
+            "description", "lat", "lng", "latitude", "longitude", "location",
+            "status", "reportStatus", CREATED_AT, "timestamp", UPDATED_AT, "work", DELETED
+    };
+
+    /**
+     * Traitement d'une page ; renvoie false pour arrêter la lecture.
+     */
+    @FunctionalInterface
+    public interface PageHandler {
+        boolean onPage(List<QueryDocumentSnapshot> documents) throws Exception;
+    }
+
+    private final int pageSize;
+
+    public FirestoreReportReader(@Value("${firebase.sync.page-size:200}") int pageSize) {
+        this.pageSize = Math.max(1, pageSize);
+    }
+
+    /**
+     * Ordre de l'import incrémental : (createdAt, id du document). Les documents sans createdAt n'y figurent pas.
+     */
+    public Query orderedByCreation(Firestore db) {
+        return db.collection(REPORTS_COLLECTION)
+                .select(SUMMARY_FIELDS)
+                .orderBy(CREATED_AT)
+                .orderBy(FieldPath.documentId());
+    }
+
+    /**
+     * Toute la collection, dans l'ordre des ids.
+     */
+    public Query orderedById(Firestore db) {
+        return db.collection(REPORTS_COLLECTION)
+                .select(SUMMARY_FIELDS)
+                .orderBy(FieldPath.documentId());
+    }
+
+    /**
+     * Documents modifiés après since (updatedAt), dans l'ordre (updatedAt, id). Les documents sans updatedAt n'y figurent pas.
+     */
+    public Query modifiedSince(Firestore db, Instant since) {
+        return db.collection(REPORTS_COLLECTION)
+                .select(SUMMARY_FIELDS)
+                .whereGreaterThan(UPDATED_AT, Timestamp.ofTimeSecondsAndNanos(since.getEpochSecond(), since.getNano()))
+                .orderBy(UPDATED_AT)
+                .orderBy(FieldPath.documentId());
+    }
+
+    /**
+     * Document supprimé logiquement (deleted=true) : traité comme une suppression.
+     */
+    public static boolean isDeleted(DocumentSnapshot document) {
+        return Boolean.TRUE.equals(document.get(DELETED));
+    }
+
+    /**
+     * Lit la requête page par page.
+     *
+     * @param startAfter valeurs des champs de tri après lesquelles commencer, null pour partir du début
+     * @return nombre de documents lus
+     * @throws java.util.concurrent.TimeoutException si Firestore ne répond pas pour une page ;
+     *                                               les pages déjà transmises au handler restent traitées
+     */
+    public int forEachPage(Query ordered, Object[] startAfter, PageHandler handler) throws Exception {
+        Query limited = ordered.limit(pageSize);
+        Query page = startAfter != null ? limited.startAfter(startAfter) : limited;
+        int read = 0;
+        while (true) {
+            List<QueryDocumentSnapshot> documents = page.get().get(PAGE_TIMEOUT_SECONDS, TimeUnit.SECONDS).getDocuments();
+            read += documents.size();
+            log.debug("Page Firestore: {} document(s)", documents.size());
+            if (documents.isEmpty() || !handler.onPage(documents) || documents.size() < pageSize) {
+                return read;
+            }
+            page = limited.startAfter(documents.get(documents.size() - 1));
+        }
+    }
+
+    /**
+     * Photos (Base64 ou URLs) d'un document. Si le document les contient déjà (listener), elles sont réutilisées ;
+     * sinon (page projetée) elles sont lues seules, pour ce document uniquement.
+     */
+    @SuppressWarnings("unchecked")
+    public List<String> loadPhotos(DocumentSnapshot document) throws Exception {
+        if (document.contains(PHOTOS)) {
+            return (List<String>) document.get(PHOTOS);
+        }
+        DocumentSnapshot photos = document.getReference()
+                .get(FieldMask.of(PHOTOS))
+                .get(PAGE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        return (List<String>) photos.get(PHOTOS);
+    }
+}
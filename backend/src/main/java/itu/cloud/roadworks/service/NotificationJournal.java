@@ -0,0 +1,76 @@
+package itu.cloud.roadworks.service;
+
+import itu.cloud.roadworks.dto.SignalementNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.AntPathMatcher;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Numérotation et mémoire des derniers événements diffusés.
+ * Chaque événement de modification reçoit un numéro croissant (sequence) et est conservé dans un tampon
+ * circulaire de notification.replay.capacity entrées. Un client qui se reconnecte redemande les événements
+ * postérieurs à son dernier numéro au lieu de tout recharger ; il ne recharge que si ce numéro est sorti du tampon.
+ * <p>
+ * Les numéros repartent de zéro à chaque démarrage : ils sont propres à un flux (stream, tiré au démarrage),
+ * et un client dont le flux ne correspond plus doit recharger.
+ */
+@Service
+public class NotificationJournal {
+
+    private record Entry(String destination, SignalementNotification notification) {
+    }
+
+    /**
+     * Événements manqués, ou vide si le client doit recharger (flux différent ou trou plus grand que le tampon).
+     */
+    public record Replay(String stream, long latestSequence, Optional<List<SignalementNotification>> events) {
+    }
+
+    private final String stream = UUID.randomUUID().toString();
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final Entry[] ring;
+    private long sequence;
+
+    public NotificationJournal(@Value("${notification.replay.capacity:5000}") int capacity) {
+        this.ring = new Entry[Math.max(1, capacity)];
+    }
+
+    public String getStream() {
+        return stream;
+    }
+
+    /**
+     * Attribue le numéro suivant à la notification et la conserve.
+     */
+    public synchronized void record(String destination, SignalementNotification notification) {
+        notification.setSequence(++sequence);
+        ring[(int) (sequence % ring.length)] = new Entry(destination, notification);
+    }
+
+    public synchronized long latestSequence() {
+        return sequence;
+    }
+
+    /**
+     * Événements postérieurs à since, limités aux destinations correspondant au motif STOMP donné (tous si null).
+     */
+    public synchronized Replay since(String clientStream, long since, String destinationPattern) {
+        long oldest = Math.max(1, sequence - ring.length + 1);
+        if (!stream.equals(clientStream) || since < oldest - 1 || since > sequence) {
+            return new Replay(stream, sequence, Optional.empty());
+        }
+        List<SignalementNotification> events = new ArrayList<>();
+        for (long seq = since + 1; seq <= sequence; seq++) {
+            Entry entry = ring[(int) (seq % ring.length)];
+            if (destinationPattern == null || pathMatcher.match(destinationPattern, entry.destination())) {
+                events.add(entry.notification());
+            }
+        }
+        return new Replay(stream, sequence, Optional.of(events));
+    }
+}
@@ -1,21 +1,96 @@
 package itu.cloud.roadworks.service;
 
 import itu.cloud.roadworks.dto.SignalementNotification;
+import itu.cloud.roadworks.dto.SyncJobDto;
 import itu.cloud.roadworks.model.Signalement;
-import lombok.RequiredArgsConstructor;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
+/**
+ * Notifications temps réel (WebSocket) et push FCM (via l'outbox).
+ * Les événements d'un signalement partent sur la destination de sa tuile et de son type (NotificationTopics),
+ * les événements globaux (synchronisation) sur /topic/signalements.
+ * Chaque modification est numérotée par NotificationJournal (rejeu après reconnexion) au moment de son envoi :
+ * les numéros suivent l'ordre des trames, toutes destinations confondues, et un client abonné à plusieurs
+ * destinations ne reçoit jamais un numéro inférieur à un numéro déjà reçu.
+ * Les mêmes trames sont diffusées en SSE (SseNotificationBroadcaster).
+ * Les notifications WebSocket sont regroupées par destination : la première ouvre une fenêtre de
+ * notification.coalesce.window-ms, à la fin de laquelle tout ce qui s'est accumulé part en une seule trame
+ * (BATCH si plusieurs). Une synchronisation ou un changement de statut en masse coûte quelques trames au lieu d'une par signalement.
+ */
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class NotificationService {
 
+    // Libellés du résumé d'une trame BATCH
+    private static final Map<String, String> BATCH_LABELS = Map.of(
+            "NEW_SIGNALEMENT", "nouveau signalement",
+            "STATUS_UPDATED", "statut mis à jour",
+            "WORK_ADDED", "travaux assignés",
+            "SIGNALEMENT_UPDATED", "signalement modifié",
+            "SIGNALEMENT_REMOVED", "signalement supprimé",
+            "SYNC_COMPLETED", "synchronisation terminée",
+            "SYNC_PROGRESS", "avancement de synchronisation"
+    );
+
     private final SimpMessagingTemplate messagingTemplate;
-    private final FcmService fcmService;
+    private final OutboxService outboxService;
+    private final NotificationTopics topics;
+    private final NotificationJournal journal;
+    private final SseNotificationBroadcaster sseBroadcaster;
+    private final long coalesceWindowMillis;
+    private final ScheduledExecutorService flushScheduler;
+
+    // Notifications en attente par destination (accès synchronisé sur la map)
+    private final Map<String, List<SignalementNotification>> pendingFrames = new HashMap<>();
+    // Numérotation et envoi d'une trame sans qu'une autre trame ne s'intercale
+    private final Object sendLock = new Object();
+
+    public NotificationService(SimpMessagingTemplate messagingTemplate,
+                               OutboxService outboxService,
+                               NotificationTopics topics,
+                               NotificationJournal journal,
+                               SseNotificationBroadcaster sseBroadcaster,
+                               @Value("${notification.coalesce.window-ms:500}") long coalesceWindowMillis) {
+        this.messagingTemplate = messagingTemplate;
+        this.outboxService = outboxService;
+        this.topics = topics;
+        this.journal = journal;
+        this.sseBroadcaster = sseBroadcaster;
+        this.coalesceWindowMillis = coalesceWindowMillis;
+        this.flushScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "notification-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flushScheduler.shutdown();
+        List<String> destinations;
+        synchronized (pendingFrames) {
+            destinations = new ArrayList<>(pendingFrames.keySet());
+        }
+        destinations.forEach(this::flush);
+    }
 
     public void notifyNewSignalement(Signalement signalement) {
         SignalementNotification notification = SignalementNotification.builder()
@@ -28,7 +103,7 @@ public class NotificationService {
                 .message("Nouveau signalement: " + signalement.getTypeProblem().getLibelle())
                 .build();
 
-        sendNotification(notification);
+        sendNotification(reportDestination(signalement), notification);
     }
 
     public void notifyStatusUpdated(Signalement signalement, String newStatus) {
@@ -42,10 +117,10 @@ public class NotificationService {
                 .message("Statut mis à jour: " + newStatus)
                 .build();
 
-        sendNotification(notification);
+        sendNotification(reportDestination(signalement), notification);
 
-        // Push notification FCM au propriétaire du signalement
-        fcmService.sendPushToReportOwner(
+        // Push notification FCM au propriétaire du signalement (outbox, envoyée après le commit)
+        outboxService.enqueueFcmPush(
                 signalement.getFirebaseId(),
                 "Statut mis à jour",
                 signalement.getTypeProblem().getLibelle() + " → " + newStatus
@@ -62,16 +137,47 @@ public class NotificationService {
                 .message("Travaux assignés à: " + companyName)
                 .build();
 
-        sendNotification(notification);
+        sendNotification(reportDestination(signalement), notification);
 
-        // Push notification FCM au propriétaire du signalement
-        fcmService.sendPushToReportOwner(
+        // Push notification FCM au propriétaire du signalement (outbox, envoyée après le commit)
+        outboxService.enqueueFcmPush(
                 signalement.getFirebaseId(),
                 "Travaux assignés",
                 companyName + " - " + signalement.getTypeProblem().getLibelle()
         );
     }
 
+    /**
+     * Signalement modifié dans Firestore et reporté en base par le listener (WebSocket uniquement).
+     */
+    public void notifySignalementUpdated(Signalement signalement, String status) {
+        SignalementNotification notification = SignalementNotification.builder()
+                .type("SIGNALEMENT_UPDATED")
+                .signalementId(signalement.getId())
+                .typeProblem(signalement.getTypeProblem().getLibelle())
+                .location(signalement.getLocation())
+                .description(signalement.getDescriptions())
+                .status(status)
+                .timestamp(Instant.now())
+                .message("Signalement modifié depuis Firebase")
+                .build();
+
+        sendNotification(reportDestination(signalement), notification);
+    }
+
+    public void notifySignalementRemoved(Signalement signalement) {
+        SignalementNotification notification = SignalementNotification.builder()
+                .type("SIGNALEMENT_REMOVED")
+                .signalementId(signalement.getId())
+                .typeProblem(signalement.getTypeProblem().getLibelle())
+                .location(signalement.getLocation())
+                .timestamp(Instant.now())
+                .message("Signalement supprimé dans Firebase")
+                .build();
+
+        sendNotification(reportDestination(signalement), notification);
+    }
+
     public void notifySyncCompleted(int count) {
         SignalementNotification notification = SignalementNotification.builder()
                 .type("SYNC_COMPLETED")
@@ -79,11 +185,126 @@ public class NotificationService {
                 .message(count + " nouveaux signalements synchronisés depuis Firebase")
                 .build();
 
-        sendNotification(notification);
+        sendNotification(NotificationTopics.GLOBAL, notification);
+    }
+
+    /**
+     * Avancement d'un job de synchronisation (throttlé par SyncJobService).
+     */
+    public void notifySyncProgress(SyncJobDto job) {
+        SignalementNotification notification = SignalementNotification.builder()
+                .type("SYNC_PROGRESS")
+                .timestamp(Instant.now())
+                .message("Synchronisation " + job.getType() + " : " + (job.getProcessed() + job.getFailed())
+                        + "/" + job.getTotal() + " (" + job.getStatus() + ")")
+                .job(job)
+                .build();
+
+        sendNotification(NotificationTopics.GLOBAL, notification);
+    }
+
+    /**
+     * Tuile et type du signalement : seules les sessions abonnées à cette zone ou à ce type la reçoivent.
+     */
+    private String reportDestination(Signalement signalement) {
+        return topics.reportDestination(signalement.getLocation(), signalement.getTypeProblem().getId());
+    }
+
+    /**
+     * Dans une transaction, la notification n'est diffusée qu'après le commit (pas d'annonce d'une modification annulée).
+     */
+    private void sendNotification(String destination, SignalementNotification notification) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publish(destination, notification);
+                }
+            });
+        } else {
+            publish(destination, notification);
+        }
+    }
+
+    private void publish(String destination, SignalementNotification notification) {
+        if (coalesceWindowMillis <= 0) {
+            send(destination, List.of(notification));
+            return;
+        }
+        synchronized (pendingFrames) {
+            List<SignalementNotification> pending = pendingFrames.get(destination);
+            if (pending == null) {
+                pending = new ArrayList<>();
+                pendingFrames.put(destination, pending);
+                try {
+                    flushScheduler.schedule(() -> flush(destination), coalesceWindowMillis, TimeUnit.MILLISECONDS);
+                } catch (RejectedExecutionException e) {
+                    // Arrêt en cours : envoi direct
+                    pendingFrames.remove(destination);
+                    send(destination, List.of(notification));
+                    return;
+                }
+            }
+            pending.add(notification);
+        }
+    }
+
+    private void flush(String destination) {
+        List<SignalementNotification> pending;
+        synchronized (pendingFrames) {
+            pending = pendingFrames.remove(destination);
+        }
+        if (pending == null || pending.isEmpty()) {
+            return;
+        }
+        try {
+            send(destination, pending);
+        } catch (Exception e) {
+            log.error("Envoi de {} notification(s) WebSocket impossible: {}", pending.size(), e.getMessage());
+        }
+    }
+
+    /**
+     * Trame unique pour plusieurs notifications : résumé par type, détail dans items.
+     */
+    private static SignalementNotification batchFrame(List<SignalementNotification> notifications) {
+        Map<String, Long> countByType = notifications.stream()
+                .collect(Collectors.groupingBy(SignalementNotification::getType, LinkedHashMap::new, Collectors.counting()));
+        String summary = countByType.entrySet().stream()
+                .map(entry -> entry.getValue() + " × " + BATCH_LABELS.getOrDefault(entry.getKey(), entry.getKey()))
+                .collect(Collectors.joining(", "));
+        // Numéro de la trame : celui de sa dernière modification (le client reprend à partir de là)
+        Long lastSequence = null;
+        for (SignalementNotification notification : notifications) {
+            if (notification.getSequence() != null) {
+                lastSequence = notification.getSequence();
+            }
+        }
+        return SignalementNotification.builder()
+                .type("BATCH")
+                .sequence(lastSequence)
+                .timestamp(Instant.now())
+                .message(notifications.size() + " notifications : " + summary)
+                .items(notifications)
+                .build();
     }
 
-    private void sendNotification(SignalementNotification notification) {
-        log.info("Envoi notification WebSocket: {}", notification.getMessage());
-        messagingTemplate.convertAndSend("/topic/signalements", notification);
+    /**
+     * Numérote les notifications puis envoie leur trame, sous le même verrou : l'ordre des numéros est celui des
+     * trames sur le canal broker et en SSE (tous deux diffusent dans l'ordre de réception).
+     */
+    private void send(String destination, List<SignalementNotification> notifications) {
+        synchronized (sendLock) {
+            for (SignalementNotification notification : notifications) {
+                // Numérotées et rejouables : les modifications, pas l'avancement des synchronisations
+                if (!"SYNC_PROGRESS".equals(notification.getType())) {
+                    journal.record(destination, notification);
+                }
+            }
+            SignalementNotification frame = notifications.size() == 1 ? notifications.get(0) : batchFrame(notifications);
+            log.info("Envoi notification WebSocket: {}", frame.getMessage());
+            messagingTemplate.convertAndSend(destination, frame);
+            sseBroadcaster.broadcast(destination, frame);
+        }
     }
 }
@@ -0,0 +1,112 @@
+package itu.cloud.roadworks.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Destinations STOMP des notifications, partitionnées par tuile géographique et par type de problème :
+ * un événement de signalement est publié sur /topic/signalements/{zoom}/{x}/{y}/{idTypeProblem}
+ * (tuile « slippy map » de la position du signalement). Les événements sans position exploitable et les
+ * événements globaux (synchronisation) restent sur /topic/signalements.
+ * <p>
+ * Le broker résout les abonnements par motif : un client s'abonne seulement à ce qu'il affiche,
+ * par ex. /topic/signalements/13/4820/4467/* (une tuile, tous types), /topic/signalements/*&#47;*&#47;*&#47;3
+ * (un type, toute la ville) ou /topic/signalements/** (tout, back-office). Un événement n'est envoyé qu'aux
+ * sessions abonnées à sa destination.
+ */
+@Service
+public class NotificationTopics {
+
+    public static final String GLOBAL = "/topic/signalements";
+    private static final int MAX_TILES = 256;
+
+    private final int zoom;
+
+    public NotificationTopics(@Value("${notification.topics.tile-zoom:13}") int zoom) {
+        this.zoom = Math.max(0, Math.min(zoom, 20));
+    }
+
+    public int getZoom() {
+        return zoom;
+    }
+
+    /**
+     * Destination d'un événement de signalement.
+     *
+     * @param location "lat,lng" (format de Signalement.location)
+     */
+    public String reportDestination(String location, Long typeProblemId) {
+        double[] coords = parseLocation(location);
+        if (coords == null || typeProblemId == null) {
+            return GLOBAL;
+        }
+        return GLOBAL + "/" + zoom + "/" + tileX(coords[1]) + "/" + tileY(coords[0]) + "/" + typeProblemId;
+    }
+
+    /**
+     * Abonnements couvrant une zone affichée, pour les types donnés (tous si la liste est vide).
+     *
+     * @throws IllegalArgumentException si la zone couvre plus de 256 tuiles
+     */
+    public List<String> subscriptions(double minLat, double minLng, double maxLat, double maxLng, List<Long> typeProblemIds) {
+        // y croît vers le sud : la latitude maximale donne la plus petite ligne
+        int minX = tileX(Math.min(minLng, maxLng));
+        int maxX = tileX(Math.max(minLng, maxLng));
+        int minY = tileY(Math.max(minLat, maxLat));
+        int maxY = tileY(Math.min(minLat, maxLat));
+        long tiles = (long) (maxX - minX + 1) * (maxY - minY + 1);
+        if (tiles > MAX_TILES) {
+            throw new IllegalArgumentException("Zone trop grande (" + tiles + " tuiles au zoom " + zoom
+                    + ", " + MAX_TILES + " au plus) : s'abonner par type sur " + GLOBAL + "/*/*/*/{idTypeProblem}");
+        }
+
+        List<String> destinations = new ArrayList<>();
+        for (int x = minX; x <= maxX; x++) {
+            for (int y = minY; y <= maxY; y++) {
+                String tile = GLOBAL + "/" + zoom + "/" + x + "/" + y + "/";
+                if (typeProblemIds == null || typeProblemIds.isEmpty()) {
+                    destinations.add(tile + "*");
+                } else {
+                    typeProblemIds.forEach(typeId -> destinations.add(tile + typeId));
+                }
+            }
+        }
+        return destinations;
+    }
+
+    private int tileX(double lng) {
+        int n = 1 << zoom;
+        return clamp((int) Math.floor((lng + 180.0) / 360.0 * n), n);
+    }
+
+    private int tileY(double lat) {
+        int n = 1 << zoom;
+        double latRad = Math.toRadians(lat);
+        double y = (1.0 - Math.log(Math.tan(latRad) + 1.0 / Math.cos(latRad)) / Math.PI) / 2.0 * n;
+        return clamp((int) Math.floor(y), n);
+    }
+
+    private static int clamp(int tile, int n) {
+        return Math.max(0, Math.min(tile, n - 1));
+    }
+
+    private static double[] parseLocation(String location) {
+        if (location == null) {
+            return null;
+        }
+        String[] parts = location.split(",");
+        if (parts.length != 2) {
+            return null;
+        }
+        try {
+            double lat = Double.parseDouble(parts[0].trim());
+            double lng = Double.parseDouble(parts[1].trim());
+            return Math.abs(lat) <= 85 && Math.abs(lng) <= 180 ? new double[]{lat, lng} : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package itu.cloud.roadworks.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import itu.cloud.roadworks.model.OutboxEvent;
+import itu.cloud.roadworks.repository.OutboxEventRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Envoi en tâche de fond des événements de l'outbox.
+ * Les événements dus sont pris par lots verrouillés (une transaction par lot) : un envoi réussi supprime
+ * la ligne, un échec la reprogramme avec un délai exponentiel, et après outbox.dispatch.max-attempts
+ * échecs elle passe en DEAD (conservée pour analyse, plus envoyée).
+ * Un redémarrage pendant un lot ne perd rien : la transaction n'étant pas validée, le lot sera repris
+ * (livraison au moins une fois).
+ * <p>
+ * Les envois tournent sur un thread dédié (outbox-dispatch), jamais sur les threads des requêtes ni sur le
+ * planificateur partagé. Le délai entre tentatives est tiré au hasard entre la moitié et la totalité du délai
+ * exponentiel, pour que les push en échec ensemble (quota FCM dépassé) ne soient pas toutes réessayées au même instant.
+ */
+@Service
+@Slf4j
+public class OutboxDispatcher {
+
+    private final OutboxEventRepository repository;
+    private final FcmService fcmService;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final long backoffMillis;
+    private final long maxBackoffMillis;
+    private final long intervalMillis;
+    private final ScheduledExecutorService executor;
+
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong retried = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong deadLettered = new AtomicLong();
+
+    public OutboxDispatcher(OutboxEventRepository repository,
+                            FcmService fcmService,
+                            ObjectMapper objectMapper,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${outbox.dispatch.batch-size:500}") int batchSize,
+                            @Value("${outbox.dispatch.max-attempts:8}") int maxAttempts,
+                            @Value("${outbox.dispatch.backoff-ms:2000}") long backoffMillis,
+                            @Value("${outbox.dispatch.max-backoff-ms:600000}") long maxBackoffMillis,
+                            @Value("${outbox.dispatch.interval-ms:1000}") long intervalMillis) {
+        this.repository = repository;
+        this.fcmService = fcmService;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.backoffMillis = backoffMillis;
+        this.maxBackoffMillis = maxBackoffMillis;
+        this.intervalMillis = intervalMillis;
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "outbox-dispatch");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PostConstruct
+    public void start() {
+        executor.scheduleWithFixedDelay(this::dispatch, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    public void dispatch() {
+        try {
+            boolean more = true;
+            while (more) {
+                more = Boolean.TRUE.equals(transactionTemplate.execute(status -> dispatchBatch()));
+            }
+        } catch (Exception e) {
+            // Base indisponible : le passage suivant reprendra les mêmes événements
+            log.error("Envoi de l'outbox interrompu: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Compteurs depuis le démarrage et taille actuelle de l'outbox.
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("sent", sent.get());
+        stats.put("retried", retried.get());
+        stats.put("dropped", dropped.get());
+        stats.put("deadLettered", deadLettered.get());
+        stats.put("pending", repository.countByStatus(OutboxEvent.PENDING));
+        stats.put("dead", repository.countByStatus(OutboxEvent.DEAD));
+        return stats;
+    }
+
+    /**
+     * Les push du lot partent ensemble : destinataires résolus par le cache de tokens, envoi groupé FCM.
+     *
+     * @return true si le lot était plein (il reste peut-être des événements dus)
+     */
+    private boolean dispatchBatch() {
+        List<OutboxEvent> events = repository.lockDue(Instant.now(), batchSize);
+        List<OutboxEvent> pushEvents = new ArrayList<>();
+        List<OutboxService.FcmPush> pushes = new ArrayList<>();
+        for (OutboxEvent event : events) {
+            if (!OutboxService.FCM_PUSH.equals(event.getType())) {
+                retryLater(event, new IllegalStateException("Type d'événement outbox inconnu: " + event.getType()));
+                continue;
+            }
+            try {
+                pushes.add(objectMapper.readValue(event.getPayload(), OutboxService.FcmPush.class));
+                pushEvents.add(event);
+            } catch (Exception e) {
+                retryLater(event, e);
+            }
+        }
+
+        if (!pushes.isEmpty()) {
+            try {
+                List<FcmService.PushResult> results = fcmService.sendPushesToReportOwners(pushes);
+                for (int i = 0; i < pushEvents.size(); i++) {
+                    FcmService.PushResult result = results.get(i);
+                    Exception error = result.error();
+                    if (error == null) {
+                        (result.sent() ? sent : dropped).incrementAndGet();
+                        repository.delete(pushEvents.get(i));
+                    } else if (result.permanent()) {
+                        deadLetter(pushEvents.get(i), error);
+                    } else {
+                        retryLater(pushEvents.get(i), error);
+                    }
+                }
+            } catch (Exception e) {
+                pushEvents.forEach(event -> retryLater(event, e));
+            }
+        }
+        return events.size() == batchSize;
+    }
+
+    /**
+     * Erreur définitive (message refusé par FCM) : passé en DEAD sans attendre max-attempts, reste rejouable via /api/outbox.
+     */
+    private void deadLetter(OutboxEvent event, Exception error) {
+        event.setAttempts(event.getAttempts() + 1);
+        event.setLastError(String.valueOf(error.getMessage()));
+        event.setStatus(OutboxEvent.DEAD);
+        deadLettered.incrementAndGet();
+        log.error("Événement outbox {} ({}) abandonné, erreur définitive: {}", event.getId(), event.getType(), error.getMessage());
+    }
+
+    private void retryLater(OutboxEvent event, Exception error) {
+        int attempts = event.getAttempts() + 1;
+        event.setAttempts(attempts);
+        event.setLastError(String.valueOf(error.getMessage()));
+        if (attempts >= maxAttempts) {
+            event.setStatus(OutboxEvent.DEAD);
+            deadLettered.incrementAndGet();
+            log.error("Événement outbox {} ({}) abandonné après {} tentatives: {}",
+                    event.getId(), event.getType(), attempts, error.getMessage());
+            return;
+        }
+        long ceiling = Math.min(maxBackoffMillis, backoffMillis << Math.min(attempts - 1, 20));
+        long delay = ceiling / 2 + ThreadLocalRandom.current().nextLong(ceiling / 2 + 1);
+        retried.incrementAndGet();
+        event.setNextAttemptAt(Instant.now().plusMillis(delay));
+        log.warn("Événement outbox {} ({}) en échec, tentative {} dans {} ms: {}",
+                event.getId(), event.getType(), attempts + 1, delay, error.getMessage());
+    }
+}
@@ -0,0 +1,96 @@
+package itu.cloud.roadworks.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import itu.cloud.roadworks.model.OutboxEvent;
+import itu.cloud.roadworks.repository.OutboxEventRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Écriture dans l'outbox des effets de bord Firebase : l'événement est enregistré dans la transaction
+ * de la modification (il n'existe que si elle est validée) et envoyé plus tard par OutboxDispatcher.
+ */
+@Service
+public class OutboxService {
+
+    public static final String FCM_PUSH = "FCM_PUSH";
+
+    private final OutboxEventRepository repository;
+    private final ObjectMapper objectMapper;
+    private final long pushCoalesceWindowMillis;
+
+    public OutboxService(OutboxEventRepository repository,
+                         ObjectMapper objectMapper,
+                         @Value("${outbox.fcm.coalesce-window-ms:3000}") long pushCoalesceWindowMillis) {
+        this.repository = repository;
+        this.objectMapper = objectMapper;
+        this.pushCoalesceWindowMillis = pushCoalesceWindowMillis;
+    }
+
+    /**
+     * Push FCM au propriétaire d'un signalement Firebase (payload de FCM_PUSH).
+     */
+    public record FcmPush(String firebaseId, String title, String body) {
+    }
+
+    /**
+     * Programme une push au propriétaire du signalement ; sans firebaseId il n'y a pas de destinataire.
+     */
+    @Transactional
+    public void enqueueFcmPush(String firebaseId, String title, String body) {
+        enqueueFcmPushes(List.of(new FcmPush(firebaseId, title, body)));
+    }
+
+    /**
+     * Les push ne partent qu'après outbox.fcm.coalesce-window-ms : celles d'une même rafale (changement de statut
+     * en masse, synchronisation) sont envoyées ensemble et regroupées par destinataire (FcmService).
+     */
+    @Transactional
+    public void enqueueFcmPushes(List<FcmPush> pushes) {
+        Instant dueAt = Instant.now().plusMillis(pushCoalesceWindowMillis);
+        List<OutboxEvent> events = pushes.stream()
+                .filter(push -> push.firebaseId() != null && !push.firebaseId().isEmpty())
+                .map(push -> OutboxEvent.builder()
+                        .type(FCM_PUSH)
+                        .aggregateId(push.firebaseId())
+                        .payload(toJson(push))
+                        .nextAttemptAt(dueAt)
+                        .build())
+                .toList();
+        repository.saveAll(events);
+    }
+
+    /**
+     * Événements abandonnés (DEAD), du plus récent au plus ancien.
+     */
+    @Transactional(readOnly = true)
+    public List<OutboxEvent> findDeadLetters(int limit) {
+        return repository.findByStatusOrderByIdDesc(OutboxEvent.DEAD, PageRequest.of(0, Math.max(1, limit)));
+    }
+
+    /**
+     * Remet en file des événements abandonnés (tous si ids est vide), avec un nouveau jeu de tentatives.
+     *
+     * @return nombre d'événements remis en file
+     */
+    @Transactional
+    public int requeueDeadLetters(Collection<Long> ids) {
+        Instant now = Instant.now();
+        return ids.isEmpty() ? repository.requeueAllDead(now) : repository.requeueDead(ids, now);
+    }
+
+    private String toJson(Object payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Payload outbox non sérialisable", e);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package itu.cloud.roadworks.service;
+
+import java.util.Base64;
+
+/**
+ * Conversion entre les photos Base64 / data URI envoyées par le mobile et leur contenu binaire.
+ */
+public final class PhotoDataUri {
+
+    private static final String DEFAULT_MIME_TYPE = "image/jpeg";
+
+    private PhotoDataUri() {
+    }
+
+    /**
+     * Vrai si la valeur est un contenu Base64 (data URI ou Base64 brut) et non une URL.
+     */
+    public static boolean isInline(String photoData) {
+        return photoData != null && !photoData.isEmpty()
+                && !photoData.startsWith("http") && !photoData.startsWith("/");
+    }
+
+    public static byte[] decode(String photoData) {
+        String payload = photoData;
+        if (photoData.startsWith("data:")) {
+            payload = photoData.substring(photoData.indexOf(',') + 1);
+        }
+        return Base64.getMimeDecoder().decode(payload);
+    }
+
+    /**
+     * Type MIME déduit des premiers octets du fichier (JPEG, PNG, GIF, WebP).
+     */
+    public static String sniffMimeType(byte[] head) {
+        if (head.length >= 3 && (head[0] & 0xFF) == 0xFF && (head[1] & 0xFF) == 0xD8 && (head[2] & 0xFF) == 0xFF) {
+            return "image/jpeg";
+        }
+        if (head.length >= 4 && (head[0] & 0xFF) == 0x89 && head[1] == 'P' && head[2] == 'N' && head[3] == 'G') {
+            return "image/png";
+        }
+        if (head.length >= 4 && head[0] == 'G' && head[1] == 'I' && head[2] == 'F' && head[3] == '8') {
+            return "image/gif";
+        }
+        if (head.length >= 12 && head[0] == 'R' && head[1] == 'I' && head[2] == 'F' && head[3] == 'F'
+                && head[8] == 'W' && head[9] == 'E' && head[10] == 'B' && head[11] == 'P') {
+            return "image/webp";
+        }
+        return DEFAULT_MIME_TYPE;
+    }
+
+    public static String encode(byte[] content, String mimeType) {
+        return "data:" + mimeType + ";base64," + Base64.getEncoder().encodeToString(content);
+    }
+}
@@ -0,0 +1,29 @@
+package itu.cloud.roadworks.service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Optional;
+
+/**
+ * Stockage binaire des photos, adressé par contenu : la clé est le SHA-256 (hexadécimal)
+ * des octets, donc une photo identique n'est stockée qu'une fois.
+ */
+public interface PhotoStore {
+
+    /**
+     * Préfixe de l'URL publique d'une photo du store (suivi de la clé SHA-256), servie par PhotoApi.
+     */
+    String URL_PREFIX = "/api/photos/";
+
+    /**
+     * Enregistre le contenu s'il n'existe pas déjà et retourne sa clé SHA-256.
+     */
+    String put(byte[] content) throws IOException;
+
+    /**
+     * Fichier local correspondant à la clé, pour un envoi sans copie (sendfile / transferTo).
+     */
+    Optional<Path> find(String hash);
+
+    byte[] read(String hash) throws IOException;
+}
@@ -0,0 +1,156 @@
+package itu.cloud.roadworks.service;
+
+import itu.cloud.roadworks.model.SignalementPhoto;
+import itu.cloud.roadworks.repository.SignalementPhotoRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Migration des photos Base64 stockées en base vers le PhotoStore.
+ * Traite les lignes par lots (une transaction par lot, reprise par id croissant) :
+ * le contenu est déposé dans le store, photo_data est vidé et les variantes (miniature, aperçu) générées.
+ * Les URLs externes restent dans photo_data.
+ * Un second passage génère les variantes manquantes des photos déjà dans le store.
+ */
+@Service
+@Slf4j
+public class PhotoStoreMigrationService {
+
+    private final SignalementPhotoRepository photoRepository;
+    private final PhotoStore photoStore;
+    private final PhotoVariantPipeline photoVariantPipeline;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    private final boolean migrateOnStartup;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    public PhotoStoreMigrationService(SignalementPhotoRepository photoRepository,
+                                      PhotoStore photoStore,
+                                      PhotoVariantPipeline photoVariantPipeline,
+                                      PlatformTransactionManager transactionManager,
+                                      @Value("${photo.store.migration.chunk-size:50}") int chunkSize,
+                                      @Value("${photo.store.migrate-on-startup:false}") boolean migrateOnStartup) {
+        this.photoRepository = photoRepository;
+        this.photoStore = photoStore;
+        this.photoVariantPipeline = photoVariantPipeline;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+        this.migrateOnStartup = migrateOnStartup;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrateOnStartup() {
+        if (migrateOnStartup) {
+            try {
+                migrate();
+            } catch (Exception e) {
+                log.error("Échec de la migration des photos au démarrage", e);
+            }
+        }
+    }
+
+    /**
+     * Lance la migration complète.
+     *
+     * @return compteurs : migrated (déplacées dans le store), skipped (URLs), failed, variants (variantes générées)
+     * @throws IllegalStateException si une migration est déjà en cours
+     */
+    public Map<String, Integer> migrate() {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("Migration des photos déjà en cours");
+        }
+
+        Map<String, Integer> result = new HashMap<>();
+        result.put("migrated", 0);
+        result.put("skipped", 0);
+        result.put("failed", 0);
+        result.put("variants", 0);
+        try {
+            long lastId = 0L;
+            while (true) {
+                long afterId = lastId;
+                Long next = transactionTemplate.execute(status -> migrateChunkAfter(afterId, result));
+                if (next == null) {
+                    break;
+                }
+                lastId = next;
+            }
+
+            lastId = 0L;
+            while (true) {
+                long afterId = lastId;
+                Long next = transactionTemplate.execute(status -> generateVariantsAfter(afterId, result));
+                if (next == null) {
+                    break;
+                }
+                lastId = next;
+            }
+            log.info("Migration des photos terminée: {}", result);
+            return result;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * Migre un lot de photos d'id supérieur à afterId.
+     *
+     * @return l'id de la dernière ligne traitée, ou null s'il n'y a plus rien à migrer
+     */
+    private Long migrateChunkAfter(long afterId, Map<String, Integer> result) {
+        List<SignalementPhoto> chunk = photoRepository.findNotInStoreAfter(afterId, PageRequest.of(0, chunkSize));
+        if (chunk.isEmpty()) {
+            return null;
+        }
+
+        for (SignalementPhoto photo : chunk) {
+            String photoData = photo.getPhotoData();
+            if (photoData == null || !PhotoDataUri.isInline(photoData)) {
+                result.merge("skipped", 1, Integer::sum);
+                continue;
+            }
+            try {
+                photo.setPhotoHash(photoStore.put(PhotoDataUri.decode(photoData)));
+                photo.setPhotoData(null);
+                result.merge("migrated", 1, Integer::sum);
+                applyVariants(photo, result);
+            } catch (IOException | IllegalArgumentException e) {
+                log.warn("Photo {} non migrée: {}", photo.getId(), e.getMessage());
+                result.merge("failed", 1, Integer::sum);
+            }
+        }
+        // Les entités modifiées sont écrites au commit du lot
+        return chunk.get(chunk.size() - 1).getId();
+    }
+
+    private Long generateVariantsAfter(long afterId, Map<String, Integer> result) {
+        List<SignalementPhoto> chunk = photoRepository.findWithoutVariantsAfter(afterId, PageRequest.of(0, chunkSize));
+        if (chunk.isEmpty()) {
+            return null;
+        }
+        chunk.forEach(photo -> applyVariants(photo, result));
+        return chunk.get(chunk.size() - 1).getId();
+    }
+
+    private void applyVariants(SignalementPhoto photo, Map<String, Integer> result) {
+        PhotoThumbnailService.PhotoVariants variants = photoVariantPipeline.createVariants(photo.getPhotoHash());
+        if (variants != null) {
+            photo.setThumbnail(variants.thumbnail());
+            photo.setPreviewHash(variants.previewHash());
+            result.merge("variants", 1, Integer::sum);
+        }
+    }
+}
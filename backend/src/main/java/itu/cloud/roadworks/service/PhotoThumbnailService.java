@@ -0,0 +1,114 @@
+package itu.cloud.roadworks.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Iterator;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PhotoThumbnailService {
+
+    private static final int THUMBNAIL_MAX_SIZE = 96;
+    private static final int PREVIEW_MAX_SIZE = 640;
+    private static final float THUMBNAIL_QUALITY = 0.7f;
+    private static final float PREVIEW_QUALITY = 0.8f;
+
+    private final PhotoStore photoStore;
+
+    /**
+     * Variantes réduites d'une photo : miniature (data URI) et clé de l'aperçu dans le PhotoStore.
+     */
+    public record PhotoVariants(String thumbnail, String previewHash) {
+    }
+
+    /**
+     * Génère la miniature et l'aperçu d'une photo du store en un seul décodage.
+     * L'image est lue directement depuis le fichier avec sous-échantillonnage : seule une image
+     * d'environ deux fois la taille de l'aperçu est chargée en mémoire, quelle que soit la résolution d'origine.
+     *
+     * @return null si le fichier n'est pas une image lisible
+     */
+    public PhotoVariants createVariants(Path file) throws IOException {
+        BufferedImage source = readDownscaled(file.toFile(), PREVIEW_MAX_SIZE);
+        if (source == null) {
+            return null;
+        }
+
+        String thumbnail = PhotoDataUri.encode(writeJpeg(resize(source, THUMBNAIL_MAX_SIZE), THUMBNAIL_QUALITY), "image/jpeg");
+        String previewHash = photoStore.put(writeJpeg(resize(source, PREVIEW_MAX_SIZE), PREVIEW_QUALITY));
+        return new PhotoVariants(thumbnail, previewHash);
+    }
+
+    /**
+     * Décode l'image en sautant des pixels (subsampling) pour ne garder qu'environ 2 × maxSize
+     * sur le plus grand côté ; le reste de la réduction est fait par un redimensionnement filtré.
+     */
+    private BufferedImage readDownscaled(Object input, int maxSize) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(input)) {
+            if (in == null) {
+                return null;
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                int largest = Math.max(reader.getWidth(0), reader.getHeight(0));
+                int step = Math.max(1, largest / (maxSize * 2));
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(step, step, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private static BufferedImage resize(BufferedImage source, int maxSize) {
+        double scale = Math.min(1.0, (double) maxSize / Math.max(source.getWidth(), source.getHeight()));
+        int width = Math.max(1, (int) Math.round(source.getWidth() * scale));
+        int height = Math.max(1, (int) Math.round(source.getHeight() * scale));
+
+        BufferedImage resized = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = resized.createGraphics();
+        graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        graphics.drawImage(source, 0, 0, width, height, Color.WHITE, null);
+        graphics.dispose();
+        return resized;
+    }
+
+    private static byte[] writeJpeg(BufferedImage image, float quality) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpg").next();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ImageOutputStream ios = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(ios);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(quality);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,101 @@
+package itu.cloud.roadworks.service;
+
+import itu.cloud.roadworks.repository.SignalementPhotoRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Génération asynchrone des variantes (miniature, aperçu) des photos ingérées.
+ * Le pool est borné en threads et en file d'attente : quand la file est pleine, la tâche
+ * s'exécute dans le thread appelant, ce qui ralentit l'ingestion au lieu d'accumuler des images en mémoire.
+ */
+@Service
+@Slf4j
+public class PhotoVariantPipeline {
+
+    private final SignalementPhotoRepository photoRepository;
+    private final PhotoStore photoStore;
+    private final PhotoThumbnailService photoThumbnailService;
+    private final ThreadPoolExecutor executor;
+
+    public PhotoVariantPipeline(SignalementPhotoRepository photoRepository,
+                                PhotoStore photoStore,
+                                PhotoThumbnailService photoThumbnailService,
+                                @Value("${photo.variants.threads:2}") int threads,
+                                @Value("${photo.variants.queue-capacity:64}") int queueCapacity) {
+        this.photoRepository = photoRepository;
+        this.photoStore = photoStore;
+        this.photoThumbnailService = photoThumbnailService;
+
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "photo-variants-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    /**
+     * Planifie la génération des variantes d'une photo du store.
+     * Dans une transaction, la tâche n'est soumise qu'après le commit (la ligne doit être visible).
+     */
+    public void submit(Long photoId, String photoHash) {
+        if (photoId == null || photoHash == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    executor.execute(() -> generate(photoId, photoHash));
+                }
+            });
+        } else {
+            executor.execute(() -> generate(photoId, photoHash));
+        }
+    }
+
+    /**
+     * Génère les variantes dans le thread courant (utilisé par la migration, déjà en tâche de fond).
+     */
+    public PhotoThumbnailService.PhotoVariants createVariants(String photoHash) {
+        Optional<Path> file = photoStore.find(photoHash);
+        if (file.isEmpty()) {
+            log.warn("Photo {} absente du store, pas de variantes", photoHash);
+            return null;
+        }
+        try {
+            return photoThumbnailService.createVariants(file.get());
+        } catch (Exception e) {
+            log.warn("Impossible de générer les variantes de la photo {}: {}", photoHash, e.getMessage());
+            return null;
+        }
+    }
+
+    private void generate(Long photoId, String photoHash) {
+        PhotoThumbnailService.PhotoVariants variants = createVariants(photoHash);
+        if (variants != null) {
+            photoRepository.updateVariants(photoId, variants.thumbnail(), variants.previewHash());
+            log.debug("Variantes générées pour la photo {}", photoId);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,91 @@
+package itu.cloud.roadworks.service;
+
+import itu.cloud.roadworks.model.Config;
+import itu.cloud.roadworks.model.DefaultPrice;
+import itu.cloud.roadworks.repository.AdvancementRateRepository;
+import itu.cloud.roadworks.repository.ConfigRepository;
+import itu.cloud.roadworks.repository.DefaultPriceRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Données de référence lues à chaque connexion ou calcul (config, prix forfaitaire courant, taux d'avancement),
+ * servies depuis des copies en mémoire (CachedSnapshot) au lieu d'une requête par lecture.
+ * Les copies sont relues toutes les reference-data.refresh-ms (modifications faites directement en base
+ * ou par une autre instance) et dès qu'une écriture passe par l'API.
+ */
+@Service
+public class ReferenceDataService {
+
+    private static final int DEFAULT_SESSION_DURATION_MINUTES = 60;
+    private static final int DEFAULT_MAX_ATTEMPTS = 3;
+
+    /**
+     * Ligne config, ou les valeurs par défaut si la table est vide.
+     */
+    public record RuntimeConfig(int maxAttempts, int sessionDurationMinutes) {
+    }
+
+    /**
+     * Pourcentage d'avancement d'un statut : copie immuable d'une ligne advancement_rate,
+     * partagée par tous les appelants sans qu'aucun ne puisse modifier celle des autres.
+     */
+    public record AdvancementRateEntry(String statusKey, Integer percentage) {
+    }
+
+    private final CachedSnapshot<RuntimeConfig> config;
+    private final CachedSnapshot<Optional<BigDecimal>> defaultPrice;
+    private final CachedSnapshot<List<AdvancementRateEntry>> advancementRates;
+
+    public ReferenceDataService(ConfigRepository configRepository,
+                                DefaultPriceRepository defaultPriceRepository,
+                                AdvancementRateRepository advancementRateRepository,
+                                @Value("${reference-data.refresh-ms:30000}") long refreshMillis) {
+        this.config = new CachedSnapshot<>(() -> configRepository.findAll().stream()
+                .findFirst()
+                .map(ReferenceDataService::toRuntimeConfig)
+                .orElse(new RuntimeConfig(DEFAULT_MAX_ATTEMPTS, DEFAULT_SESSION_DURATION_MINUTES)), refreshMillis);
+        this.defaultPrice = new CachedSnapshot<>(() -> defaultPriceRepository.findTopByOrderByIdDesc()
+                .map(DefaultPrice::getPrice), refreshMillis);
+        this.advancementRates = new CachedSnapshot<>(() -> advancementRateRepository.findAll().stream()
+                .map(rate -> new AdvancementRateEntry(rate.getStatusKey(), rate.getPercentage()))
+                .toList(), refreshMillis);
+    }
+
+    public RuntimeConfig getConfig() {
+        return config.get();
+    }
+
+    /**
+     * Prix forfaitaire au m² courant (dernier default_price).
+     */
+    public Optional<BigDecimal> getDefaultPrice() {
+        return defaultPrice.get();
+    }
+
+    public List<AdvancementRateEntry> getAdvancementRates() {
+        return advancementRates.get();
+    }
+
+    public void configChanged() {
+        config.invalidate();
+    }
+
+    public void defaultPriceChanged() {
+        defaultPrice.invalidate();
+    }
+
+    public void advancementRatesChanged() {
+        advancementRates.invalidate();
+    }
+
+    private static RuntimeConfig toRuntimeConfig(Config row) {
+        return new RuntimeConfig(
+                row.getMaxAttempts() != null ? row.getMaxAttempts() : DEFAULT_MAX_ATTEMPTS,
+                row.getSessionDuration() != null ? row.getSessionDuration() : DEFAULT_SESSION_DURATION_MINUTES);
+    }
+}
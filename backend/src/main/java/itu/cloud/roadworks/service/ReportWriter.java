@@ -0,0 +1,27 @@
+package itu.cloud.roadworks.service;
+
+import com.google.api.core.ApiFuture;
+
+import java.util.Map;
+
+/**
+ * Écritures groupées vers une collection Firestore.
+ * Chaque écriture part sans attendre le résultat des précédentes (plusieurs lots en vol) ;
+ * close() attend la fin de toutes les écritures soumises.
+ */
+public interface ReportWriter extends AutoCloseable {
+
+    /**
+     * Identifiant de document généré côté client, sans aller-retour vers Firestore.
+     */
+    String newDocumentId();
+
+    /**
+     * Fusionne les champs dans le document, créé s'il n'existe pas.
+     * Les champs absents de data (userId, createdAt posés par le mobile) sont conservés.
+     */
+    ApiFuture<?> merge(String documentId, Map<String, Object> data);
+
+    @Override
+    void close();
+}
@@ -0,0 +1,133 @@
+package itu.cloud.roadworks.service;
+
+import itu.cloud.roadworks.model.Account;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache des sessions valides : token → compte (avec son rôle chargé), pour que la validation d'un token
+ * ne touche pas la base à chaque appel.
+ * Une entrée expire à la fin de la session ou au plus tard après auth.session-cache.ttl-ms (une déconnexion ou un
+ * blocage fait sur une autre instance est pris en compte dans ce délai). Le cache est borné
+ * (auth.session-cache.max-size, les sessions les moins récemment utilisées sortent en premier) et vidé
+ * explicitement à la déconnexion et quand un compte est bloqué, modifié ou supprimé.
+ */
+@Service
+public class SessionCache {
+
+    private record CachedSession(Account account, Instant expiresAt) {
+    }
+
+    private final long ttlMillis;
+    private final Map<String, CachedSession> sessions;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public SessionCache(@Value("${auth.session-cache.ttl-ms:60000}") long ttlMillis,
+                        @Value("${auth.session-cache.max-size:10000}") int maxSize) {
+        this.ttlMillis = ttlMillis;
+        int capacity = Math.max(1, maxSize);
+        // Ordre d'accès : l'entrée la moins récemment utilisée sort quand le cache est plein
+        this.sessions = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedSession> eldest) {
+                if (size() > capacity) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Compte de la session si elle est en cache et non expirée ; vide sinon (à lire en base).
+     */
+    public Optional<Account> get(String token) {
+        Instant now = Instant.now();
+        synchronized (sessions) {
+            CachedSession cached = sessions.get(token);
+            if (cached != null && cached.expiresAt().isAfter(now)) {
+                hits.incrementAndGet();
+                return Optional.of(cached.account());
+            }
+            if (cached != null) {
+                sessions.remove(token);
+            }
+        }
+        misses.incrementAndGet();
+        return Optional.empty();
+    }
+
+    /**
+     * @param sessionExpiresAt fin de la session en base
+     */
+    public void put(String token, Account account, Instant sessionExpiresAt) {
+        Instant ttlEnd = Instant.now().plusMillis(ttlMillis);
+        CachedSession cached = new CachedSession(account, sessionExpiresAt.isBefore(ttlEnd) ? sessionExpiresAt : ttlEnd);
+        synchronized (sessions) {
+            sessions.put(token, cached);
+        }
+    }
+
+    public void evictToken(String token) {
+        synchronized (sessions) {
+            sessions.remove(token);
+        }
+        afterCommit(() -> {
+            synchronized (sessions) {
+                sessions.remove(token);
+            }
+        });
+    }
+
+    /**
+     * Toutes les sessions d'un compte (bloqué, modifié ou supprimé). Dans une transaction, l'éviction est refaite
+     * après le commit : une validation concurrente ne peut pas remettre en cache l'état d'avant la modification.
+     */
+    public void evictAccount(Long accountId) {
+        removeAccount(accountId);
+        afterCommit(() -> removeAccount(accountId));
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        synchronized (sessions) {
+            stats.put("size", sessions.size());
+        }
+        long hitCount = hits.get();
+        long missCount = misses.get();
+        stats.put("hits", hitCount);
+        stats.put("misses", missCount);
+        stats.put("hitRatio", hitCount + missCount == 0 ? 0.0 : (double) hitCount / (hitCount + missCount));
+        stats.put("evictions", evictions.get());
+        return stats;
+    }
+
+    private void removeAccount(Long accountId) {
+        synchronized (sessions) {
+            sessions.values().removeIf(cached -> accountId.equals(cached.account().getId()));
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        }
+    }
+}
@@ -1,7 +1,17 @@
 package itu.cloud.roadworks.service;
 
+import itu.cloud.roadworks.dto.FirebaseSyncErrorDto;
+import itu.cloud.roadworks.dto.FirebaseSyncResultDto;
+import itu.cloud.roadworks.dto.PhotoVariant;
+import itu.cloud.roadworks.dto.SignalementCursor;
+import itu.cloud.roadworks.dto.SignalementFilter;
 import itu.cloud.roadworks.dto.SignalementPhotoDto;
+import itu.cloud.roadworks.dto.SignalementPhotoSummary;
 import itu.cloud.roadworks.dto.SignalementProblemDto;
+import itu.cloud.roadworks.dto.SignalementProblemPageDto;
+import itu.cloud.roadworks.dto.SignalementProblemRow;
+import itu.cloud.roadworks.dto.SignalementSyncRow;
+import itu.cloud.roadworks.dto.UnsyncedFirebaseReportDto;
 import itu.cloud.roadworks.model.Signalement;
 import itu.cloud.roadworks.model.SignalementPhoto;
 import itu.cloud.roadworks.model.SignalementStatus;
@@ -9,6 +19,8 @@ import itu.cloud.roadworks.model.SignalementWork;
 import itu.cloud.roadworks.model.TypeProblem;
 import itu.cloud.roadworks.model.Account;
 import itu.cloud.roadworks.model.Company;
+import itu.cloud.roadworks.model.StatusSignalement;
+import itu.cloud.roadworks.model.SyncCheckpoint;
 import itu.cloud.roadworks.repository.SignalementRepository;
 import itu.cloud.roadworks.repository.SignalementPhotoRepository;
 import itu.cloud.roadworks.repository.SignalementStatusRepository;
@@ -18,20 +30,41 @@ import itu.cloud.roadworks.repository.AccountRepository;
 import itu.cloud.roadworks.repository.ReparationTypeRepository;
 import itu.cloud.roadworks.repository.SignalementWorkRepository;
 import itu.cloud.roadworks.repository.CompanyRepository;
+import itu.cloud.roadworks.repository.SyncCheckpointRepository;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.FieldValue;
 import com.google.cloud.firestore.Firestore;
-import com.google.cloud.firestore.QuerySnapshot;
-import com.google.api.core.ApiFuture;
-
+import com.google.cloud.firestore.SetOptions;
+import com.google.api.core.ApiFutureCallback;
+import com.google.api.core.ApiFutures;
+import com.google.common.util.concurrent.MoreExecutors;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class SignalementService {
@@ -47,68 +80,152 @@ public class SignalementService {
     private final BudgetForfaitaireService budgetForfaitaireService;
     private final FirebaseService firebaseService;
     private final NotificationService notificationService;
-    private final FcmService fcmService;
+    private final OutboxService outboxService;
+    private final PhotoStore photoStore;
+    private final PhotoVariantPipeline photoVariantPipeline;
+    private final UnsyncedReportIndex unsyncedReportIndex;
+    private final FirestoreReportReader reportReader;
+    private final SyncCheckpointRepository checkpointRepository;
+    private final TransactionTemplate transactionTemplate;
+    @Qualifier("firebaseSyncExecutor")
+    private final java.util.concurrent.ExecutorService firebaseSyncExecutor;
+
+    private static final String REPORTS_COLLECTION = "roadworks_reports";
+    private static final String REPORT_CREATED_AT = "createdAt";
+    private static final String INGEST_CHECKPOINT = "firestore.roadworks_reports";
+    // Passe unique sur les documents sans createdAt Timestamp, absents de la requête ordonnée par createdAt
+    private static final String UNDATED_CHECKPOINT = "firestore.roadworks_reports.undated";
+    private static final int FINGERPRINT_BATCH_SIZE = 1000;
+    // Identifiants par requête de résumé des photos (PostgreSQL limite une requête à 32 767 paramètres)
+    private static final int PHOTO_SUMMARY_BATCH_SIZE = 1000;
+
+    @Value("${firebase.sync.parallelism:4}")
+    private int syncParallelism;
+
+    @Value("${firebase.export.chunk-size:100}")
+    private int exportChunkSize;
+
+    @Value("${signalement.page.default-size:100}")
+    private int defaultPageSize;
+
+    @Value("${signalement.page.max-size:500}")
+    private int maxPageSize;
+
+    @Value("${signalement.list.max-size:2000}")
+    private int maxListSize;
+
+    /**
+     * Liste sans paramètre (comportement historique), bornée à signalement.list.max-size signalements :
+     * au-delà, le curseur de la suite est renvoyé comme pour une page.
+     */
+    @Transactional(readOnly = true)
+    public SignalementProblemPageDto findAllProblems() {
+        return page(new SignalementFilter(), null, Math.max(maxListSize, 1));
+    }
+
+    /**
+     * Page de signalements filtrée, paginée par curseur sur (createdAt, id).
+     * Une page coûte deux requêtes quelle que soit sa taille : la projection
+     * (statut, travail, entreprise, type) puis le résumé des photos (sans photo_data),
+     * ce dernier découpé par tranches de 1000 signalements au-delà.
+     */
+    @Transactional(readOnly = true)
+    public SignalementProblemPageDto findProblemsPage(SignalementFilter filter, String cursor, Integer limit) {
+        SignalementCursor after = (cursor != null && !cursor.isEmpty()) ? SignalementCursor.decode(cursor) : null;
+        int size = Math.min(Math.max(limit != null ? limit : defaultPageSize, 1), maxPageSize);
+        return page(filter, after, size);
+    }
+
+    private SignalementProblemPageDto page(SignalementFilter filter, SignalementCursor after, int size) {
+        // Une ligne de plus pour savoir s'il existe une page suivante, sans COUNT
+        List<SignalementProblemDto> rows = findProblems(filter, after, size + 1);
+
+        boolean hasNext = rows.size() > size;
+        List<SignalementProblemDto> page = hasNext ? rows.subList(0, size) : rows;
+        String nextCursor = null;
+        if (hasNext) {
+            SignalementProblemDto last = page.get(page.size() - 1);
+            nextCursor = new SignalementCursor(last.getDetail().getDateProblem(), last.getId()).encode();
+        }
 
-    public List<SignalementProblemDto> findAllProblems() {
-        return repository.findAll()
-                .stream()
-                .map(this::toProblemDto)
+        return SignalementProblemPageDto.builder()
+                .items(page)
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    private List<SignalementProblemDto> findProblems(SignalementFilter filter, SignalementCursor after, int limit) {
+        List<SignalementProblemRow> rows = repository.findProblemRows(
+                filter.getStatus(),
+                filter.getType(),
+                filter.getCompanyId(),
+                filter.getFrom(),
+                filter.getTo(),
+                after != null ? after.getCreatedAt() : null,
+                after != null ? after.getId() : null,
+                limit);
+        if (rows.isEmpty()) {
+            return List.of();
+        }
+
+        List<Long> ids = rows.stream().map(SignalementProblemRow::getId).collect(Collectors.toList());
+        Map<Long, List<SignalementPhotoSummary>> photosBySignalement = new HashMap<>();
+        for (int from = 0; from < ids.size(); from += PHOTO_SUMMARY_BATCH_SIZE) {
+            List<Long> batch = ids.subList(from, Math.min(from + PHOTO_SUMMARY_BATCH_SIZE, ids.size()));
+            photoRepository.findSummariesBySignalementIdIn(batch).forEach(summary ->
+                    photosBySignalement.computeIfAbsent(summary.getSignalementId(), id -> new java.util.ArrayList<>()).add(summary));
+        }
+
+        return rows.stream()
+                .map(row -> toProblemDto(row, photosBySignalement.getOrDefault(row.getId(), List.of())))
                 .collect(Collectors.toList());
     }
 
-    private SignalementProblemDto toProblemDto(Signalement signalement) {
-        SignalementStatus latestStatus = signalement.getStatuses().stream().findFirst().orElse(null);
-        SignalementWork latestWork = signalement.getWorks().stream().findFirst().orElse(null);
+    private SignalementProblemDto toProblemDto(SignalementProblemRow row, List<SignalementPhotoSummary> photos) {
+        SignalementProblemDto.CompanyDto company = row.getCompanyId() != null
+                ? SignalementProblemDto.CompanyDto.builder()
+                        .id(row.getCompanyId())
+                        .name(row.getCompanyName())
+                        .build()
+                : null;
 
         SignalementProblemDto.SignalementProblemDetail detail = SignalementProblemDto.SignalementProblemDetail.builder()
-                .etat(Optional.ofNullable(latestStatus).map(s -> s.getStatusSignalement().getLibelle()).orElse(null))
-                .dateProblem(signalement.getCreatedAt())
-                .surfaceM2(signalement.getSurface())
-                .budget(latestWork != null ? latestWork.getPrice() : null)
-                .entrepriseAssign(Optional.ofNullable(latestWork)
-                        .map(work -> SignalementProblemDto.CompanyDto.builder()
-                                .id(work.getCompany().getId())
-                                .name(work.getCompany().getName())
-                                .build())
-                        .orElse(null))
-                .description(signalement.getDescriptions())
+                .etat(row.getEtat())
+                .dateProblem(row.getCreatedAt())
+                .surfaceM2(row.getSurface())
+                .budget(row.getPrice())
+                .entrepriseAssign(company)
+                .description(row.getDescriptions())
                 .build();
 
         SignalementProblemDto.WorkInfo workInfo = null;
-        if (latestWork != null) {
+        if (company != null) {
             workInfo = SignalementProblemDto.WorkInfo.builder()
-                    .startDate(latestWork.getStartDate() != null ? latestWork.getStartDate().toString() : null)
-                    .endDateEstimation(latestWork.getEndDateEstimation() != null ? latestWork.getEndDateEstimation().toString() : null)
-                    .realEndDate(latestWork.getRealEndDate() != null ? latestWork.getRealEndDate().toString() : null)
-                    .price(latestWork.getPrice())
-                    .company(Optional.ofNullable(latestWork.getCompany())
-                            .map(company -> SignalementProblemDto.CompanyDto.builder()
-                                    .id(company.getId())
-                                    .name(company.getName())
-                                    .build())
-                            .orElse(null))
-                    .reparationType(Optional.ofNullable(latestWork.getReparationType())
-                            .map(rep -> SignalementProblemDto.ReparationTypeDto.builder()
-                                    .id(rep.getId())
-                                    .niveau(rep.getNiveau())
-                                    .build())
-                            .orElse(null))
+                    .startDate(row.getStartDate() != null ? row.getStartDate().toString() : null)
+                    .endDateEstimation(row.getEndDateEstimation() != null ? row.getEndDateEstimation().toString() : null)
+                    .realEndDate(row.getRealEndDate() != null ? row.getRealEndDate().toString() : null)
+                    .price(row.getPrice())
+                    .company(company)
+                    .reparationType(row.getReparationTypeId() != null
+                            ? SignalementProblemDto.ReparationTypeDto.builder()
+                                    .id(row.getReparationTypeId())
+                                    .niveau(row.getReparationNiveau())
+                                    .build()
+                            : null)
                     .build();
         }
 
-        // Récupérer les photos du signalement
-        List<String> photosList = signalement.getPhotos().stream()
-                .map(SignalementPhoto::getPhotoData)
-                .collect(Collectors.toList());
-
         return SignalementProblemDto.builder()
-                .id(signalement.getId())
-                .typeProblem(signalement.getTypeProblem().getLibelle())
-                .illustrationProblem(signalement.getTypeProblem().getIcone())
-                .location(signalement.getLocation())
+                .id(row.getId())
+                .typeProblem(row.getTypeProblem())
+                .illustrationProblem(row.getIllustrationProblem())
+                .location(row.getLocation())
                 .detail(detail)
                 .work(workInfo)
-                .photos(photosList.isEmpty() ? null : photosList)
+                .photoIds(photos.stream().map(SignalementPhotoSummary::getId).collect(Collectors.toList()))
+                .photoCount(photos.size())
+                .thumbnail(photos.stream().map(SignalementPhotoSummary::getThumbnail)
+                        .filter(java.util.Objects::nonNull).findFirst().orElse(null))
                 .build();
     }
 
@@ -120,6 +237,10 @@ public class SignalementService {
             "annulé", 4
     );
 
+    /**
+     * Le statut, la date de fin et la push FCM (outbox) sont enregistrés dans une même transaction.
+     */
+    @Transactional(rollbackFor = Exception.class)
     public void updateStatus(Long signalementId, String statusName, String realEndDate) throws Exception {
         Signalement signalement = repository.findById(signalementId)
                 .orElseThrow(() -> new Exception("Signalement non trouvé"));
@@ -164,335 +285,765 @@ public class SignalementService {
     }
 
     // Méthode surchargée pour la rétro-compatibilité
+    @Transactional(rollbackFor = Exception.class)
     public void updateStatus(Long signalementId, String statusName) throws Exception {
         updateStatus(signalementId, statusName, null);
     }
 
-    public int syncFromFirebase() throws Exception {
-        System.out.println("=== DEBUT SYNCFROMFIREBASE ===");
-        
+    /**
+     * Importe les nouveaux signalements Firestore de façon incrémentale.
+     * Seuls les documents postérieurs au point de reprise (createdAt, id du document) sont lus,
+     * par pages ordonnées ; le point de reprise est enregistré après chaque page.
+     * En cas d'erreur sur un document, le point de reprise n'avance plus au-delà : le document
+     * (et la suite de la page) sera relu au prochain passage, les doublons étant ignorés par firebase_id.
+     * Les documents sans createdAt de type Timestamp, que cette requête ne renvoie pas, sont importés une fois
+     * par importUndatedReports et signalés comme anomalies.
+     */
+    public FirebaseSyncResultDto syncFromFirebase(SyncProgress progress) throws Exception {
         Firestore db = firebaseService.getFirestore();
-        System.out.println("Firestore instance: " + (db != null ? "OK" : "NULL"));
-        
+        FirebaseSyncResultDto syncResult = new FirebaseSyncResultDto();
         if (db == null) {
-            System.out.println("Firebase n'est pas initialisé - retour 0 synchronisé");
-            return 0;
+            log.info("Firebase n'est pas initialisé - aucune synchronisation");
+            return syncResult;
         }
 
         try {
-            System.out.println("Récupération des documents de la collection 'roadworks_reports'");
-            ApiFuture<QuerySnapshot> query = db.collection("roadworks_reports").get();
-            
-            // Ajouter un timeout de 30 secondes
-            System.out.println("Attendre la réponse de Firestore...");
-            QuerySnapshot querySnapshot = query.get(30, java.util.concurrent.TimeUnit.SECONDS);
-            System.out.println("Nombre de documents trouvés: " + querySnapshot.getDocuments().size());
-
-            int count = 0;
-            Account defaultAccount = accountRepository.findByUsername("admin").orElse(null);
-            TypeProblem defaultType = typeProblemRepository.findByLibelle("other")
-                    .orElseGet(() -> typeProblemRepository.findAll().stream().findFirst().orElse(null));
-
-            if (defaultAccount == null || defaultType == null) {
-                System.out.println("Compte admin ou type de problème non trouvé");
-                return 0;
+            IngestReferences references = loadIngestReferences();
+            if (references == null) {
+                syncResult.getErrors().add(syncError(null, new IllegalStateException("Compte admin ou type de problème non trouvé")));
+                return syncResult;
             }
 
-            for (var document : querySnapshot.getDocuments()) {
-                try {
-                    String firebaseId = document.getId();
-                    System.out.println("\n--- Traitement du document: " + firebaseId + " ---");
+            SyncCheckpoint checkpoint = checkpointRepository.findById(INGEST_CHECKPOINT)
+                    .orElseGet(() -> SyncCheckpoint.builder().name(INGEST_CHECKPOINT).build());
+            log.debug("Point de reprise: {} / {}", checkpoint.getLastTimestamp(), checkpoint.getLastDocumentId());
 
-                    // Vérifier si ce signalement a déjà été synchronisé
-                    if (repository.findByFirebaseId(firebaseId).isPresent()) {
-                        System.out.println("✓ Signalement Firebase déjà synchronisé: " + firebaseId);
-                        continue;
-                    }
+            Object[] resumeAfter = null;
+            if (checkpoint.getLastTimestamp() != null && checkpoint.getLastDocumentId() != null) {
+                resumeAfter = new Object[]{toFirestoreTimestamp(checkpoint.getLastTimestamp()), checkpoint.getLastDocumentId()};
+            }
 
-                    String description = document.getString("description");
-                    // Support des deux formats de coordonnées: lat/lng ou latitude/longitude
-                    Double lat = document.getDouble("lat");
-                    if (lat == null) {
-                        lat = document.getDouble("latitude");
-                    }
-                    Double lng = document.getDouble("lng");
-                    if (lng == null) {
-                        lng = document.getDouble("longitude");
+            // Pages projetées sans photos (timeout de 30 secondes par page) : les photos sont lues document par document à l'import
+            java.util.concurrent.atomic.AtomicBoolean checkpointBlocked = new java.util.concurrent.atomic.AtomicBoolean();
+            reportReader.forEachPage(reportReader.orderedByCreation(db), resumeAfter, documents -> {
+                syncResult.setRead(syncResult.getRead() + documents.size());
+                progress.addTotal(documents.size());
+                log.debug("Page Firestore: {} document(s) après le point de reprise", documents.size());
+
+                IngestPageResult result = ingestFirebasePage(documents, references);
+                syncResult.setImported(syncResult.getImported() + result.imported());
+                syncResult.getErrors().addAll(result.errors());
+                progress.advance(documents.size() - result.failed(), result.failed());
+
+                if (!checkpointBlocked.get()) {
+                    int advanceTo = result.firstFailure() < 0 ? documents.size() : result.firstFailure();
+                    for (int i = 0; i < advanceTo; i++) {
+                        advanceCheckpoint(checkpoint, documents.get(i));
                     }
-                    String status = document.getString("status"); // Type de problème: pothole, accident, etc.
-                    String reportStatus = document.getString("reportStatus"); // État du signalement: new, in_progress, completed
-
-                    System.out.println("Valeurs trouvées:");
-                    System.out.println("  description: " + description);
-                    System.out.println("  lat: " + lat);
-                    System.out.println("  lng: " + lng);
-                    System.out.println("  status (type): " + status);
-                    System.out.println("  reportStatus (état): " + reportStatus);
-                    System.out.println("Tous les champs du document: " + document.getData());
-
-                    if (lat != null && lng != null) {
-                        System.out.println("✓ Champs requis présents, création du signalement...");
-
-                        // Mapper le type de problème Firebase vers la base de données
-                        TypeProblem typeProblem = defaultType;
-                        if (status != null && !status.isEmpty()) {
-                            typeProblem = typeProblemRepository.findByLibelle(status).orElse(defaultType);
-                            System.out.println("  Type de problème mappé: " + typeProblem.getLibelle());
-                        }
+                    checkpointRepository.save(checkpoint);
+                    checkpointBlocked.set(result.firstFailure() >= 0);
+                }
+                return true;
+            });
 
-                        // Récupérer le timestamp original de Firebase (champ "createdAt" ou "timestamp")
-                        Instant createdAt = Instant.now(); // Valeur par défaut
-                        Object timestampObj = document.get("createdAt");
-                        if (timestampObj == null) {
-                            timestampObj = document.get("timestamp"); // Fallback
-                        }
-                        if (timestampObj != null) {
-                            if (timestampObj instanceof com.google.cloud.Timestamp) {
-                                createdAt = ((com.google.cloud.Timestamp) timestampObj).toDate().toInstant();
-                                System.out.println("  ✓ Timestamp Firebase (Timestamp): " + createdAt);
-                            } else if (timestampObj instanceof java.util.Date) {
-                                createdAt = ((java.util.Date) timestampObj).toInstant();
-                                System.out.println("  ✓ Timestamp Firebase (Date): " + createdAt);
-                            } else if (timestampObj instanceof Long) {
-                                createdAt = Instant.ofEpochMilli((Long) timestampObj);
-                                System.out.println("  ✓ Timestamp Firebase (Long): " + createdAt);
-                            } else if (timestampObj instanceof Number) {
-                                createdAt = Instant.ofEpochMilli(((Number) timestampObj).longValue());
-                                System.out.println("  ✓ Timestamp Firebase (Number): " + createdAt);
-                            } else {
-                                System.out.println("  ⚠️ Timestamp de type inconnu: " + timestampObj.getClass().getName() + ", utilisation de now()");
-                            }
-                        } else {
-                            System.out.println("  ⚠️ Pas de createdAt/timestamp dans Firebase, utilisation de now()");
-                        }
+            importUndatedReports(db, references, syncResult, progress);
 
-                        Signalement signalement = Signalement.builder()
-                                .account(defaultAccount)
-                                .typeProblem(typeProblem)
-                                .descriptions(description != null ? description : "")
-                                .location(lat + "," + lng)
-                                .createdAt(createdAt)
-                                .firebaseId(firebaseId)
-                                .build();
-
-                        Signalement saved = repository.save(signalement);
-                        System.out.println("✓ Signalement sauvegardé avec ID: " + saved.getId());
-
-                        // Synchroniser les photos depuis Firebase
-                        List<String> photos = (List<String>) document.get("photos");
-                        if (photos != null && !photos.isEmpty()) {
-                            System.out.println("✓ " + photos.size() + " photo(s) trouvée(s) dans Firebase");
-                            int photoOrder = 1;
-                            for (String photoData : photos) {
-                                // Ignorer les photos vides ou nulles
-                                if (photoData == null || photoData.trim().isEmpty()) {
-                                    System.out.println("  ⚠️ Photo ignorée (vide ou nulle)");
-                                    continue;
-                                }
-                                try {
-                                    SignalementPhoto photo = SignalementPhoto.builder()
-                                            .signalement(saved)
-                                            .photoData(photoData)
-                                            .photoOrder(photoOrder++)
-                                            .createdAt(Instant.now())
-                                            .build();
-                                    photoRepository.save(photo);
-                                    System.out.println("  ✓ Photo " + (photoOrder - 1) + " sauvegardée (taille: " + photoData.length() + " caractères)");
-                                } catch (Exception e) {
-                                    System.err.println("  ⚠️ Erreur lors de la sauvegarde de la photo: " + e.getMessage());
-                                }
-                            }
-                        } else {
-                            System.out.println("✓ Pas de photos dans le document Firebase");
-                        }
+            log.info("Synchronisation terminée: {} document(s) lu(s), {} signalement(s) importé(s), {} anomalie(s)",
+                    syncResult.getRead(), syncResult.getImported(), syncResult.getErrors().size());
 
-                        // Vérifier s'il y a des informations de travail dans le document Firebase
-                        Map<String, Object> workInfo = (Map<String, Object>) document.get("work");
-                        boolean hasWork = workInfo != null;
-                        System.out.println("✓ Document a du travail: " + hasWork);
-
-                        // Mapper le statut Firestore vers les statuts de la base
-                        // Si reportStatus existe, l'utiliser, sinon "nouveau"
-                        String statusToUse = "nouveau";
-
-                        if (reportStatus != null && !reportStatus.isEmpty()) {
-                            String firebaseReportStatus = reportStatus.toLowerCase().trim();
-                            System.out.println("  Mapping du reportStatus: '" + reportStatus + "' -> '" + firebaseReportStatus + "'");
-
-                            // Mapping reportStatus Firebase → Base de données
-                            if (firebaseReportStatus.equals("in_progress") || firebaseReportStatus.equals("en_cours")) {
-                                statusToUse = "en_cours";
-                                System.out.println("    Résultat: 'en_cours'");
-                            } else if (firebaseReportStatus.equals("completed") || firebaseReportStatus.equals("terminé") || firebaseReportStatus.equals("resolved")) {
-                                statusToUse = "terminé";
-                                System.out.println("    Résultat: 'terminé'");
-                            } else if (firebaseReportStatus.equals("cancelled") || firebaseReportStatus.equals("annulé") || firebaseReportStatus.equals("rejected")) {
-                                statusToUse = "annulé";
-                                System.out.println("    Résultat: 'annulé'");
-                            } else {
-                                // new ou autre valeur → nouveau
-                                statusToUse = "nouveau";
-                                System.out.println("    Résultat: 'nouveau' (default)");
-                            }
-                        } else {
-                            System.out.println("  reportStatus absent -> Statut par défaut: 'nouveau'");
-                        }
+            // Notification de fin de synchronisation
+            if (syncResult.getImported() > 0) {
+                notificationService.notifySyncCompleted(syncResult.getImported());
+            }
 
-                        System.out.println("Statut final à utiliser: " + statusToUse);
-
-                        // Convertir en final pour la lambda
-                        final String finalStatusToUse = statusToUse;
-                        
-                        var statusSignalement = statusSignalementRepository
-                                .findByLibelle(finalStatusToUse)
-                                .orElseGet(() -> {
-                                    System.out.println("⚠️  Statut '" + finalStatusToUse + "' non trouvé, utilisation du statut 'nouveau'");
-                                    return statusSignalementRepository.findByLibelle("nouveau").orElse(null);
-                                });
-
-                        if (statusSignalement != null) {
-                            System.out.println("✓ StatusSignalement trouvé: " + statusSignalement.getLibelle());
-
-                            SignalementStatus signalStatus = SignalementStatus.builder()
-                                    .signalement(saved)
-                                    .statusSignalement(statusSignalement)
-                                    .updatedAt(Instant.now())
-                                    .build();
-                            statusRepository.save(signalStatus);
-                            System.out.println("✓ Status créé et sauvegardé");
-
-                            // Vérifier s'il y a des informations de travail dans le document Firebase (déjà extrait plus haut)
-                            if (workInfo != null) {
-                                System.out.println("✓ Informations de travail trouvées dans Firebase");
-                                try {
-                                    // Extraire les données du travail
-                                    String companyName = (String) workInfo.get("company");
-                                    Number surface = (Number) workInfo.get("surface");
-                                    Number price = (Number) workInfo.get("price");
-                                    String startDateStr = (String) workInfo.get("startDate");
-                                    String endDateStr = (String) workInfo.get("endDateEstimation");
-
-                                    System.out.println("  Données extraites:");
-                                    System.out.println("    Company: " + companyName);
-                                    System.out.println("    Surface: " + surface);
-                                    System.out.println("    Price: " + price);
-                                    System.out.println("    StartDate: " + startDateStr);
-                                    System.out.println("    EndDate: " + endDateStr);
-
-                                    // Si on a au moins une entreprise et un prix, créer le SignalementWork
-                                    if (companyName != null && !companyName.isEmpty()) {
-                                        // Chercher ou créer l'entreprise
-                                        Company company = companyRepository.findByName(companyName)
-                                                .orElseGet(() -> {
-                                                    System.out.println("  Création d'une nouvelle entreprise: " + companyName);
-                                                    Company newCompany = Company.builder()
-                                                            .name(companyName)
-                                                            .siret("UNKNOWN") // Valeur par défaut
-                                                            .address("") // Vide
-                                                            .build();
-                                                    return companyRepository.save(newCompany);
-                                                });
-
-                                        System.out.println("  Entreprise trouvée/créée: " + company.getName());
-
-                                        // Créer le SignalementWork
-                                        LocalDate startDate = null;
-                                        LocalDate endDate = null;
-
-                                        if (startDateStr != null && !startDateStr.isEmpty()) {
-                                            try {
-                                                startDate = LocalDate.parse(startDateStr);
-                                                System.out.println("  StartDate parsée: " + startDate);
-                                            } catch (Exception e) {
-                                                System.out.println("  ⚠️ Impossible de parser startDate: " + startDateStr);
-                                            }
-                                        }
-
-                                        if (endDateStr != null && !endDateStr.isEmpty()) {
-                                            try {
-                                                endDate = LocalDate.parse(endDateStr);
-                                                System.out.println("  EndDate parsée: " + endDate);
-                                            } catch (Exception e) {
-                                                System.out.println("  ⚠️ Impossible de parser endDate: " + endDateStr);
-                                            }
-                                        }
-
-                                        BigDecimal priceValue = null;
-                                        if (price != null) {
-                                            priceValue = BigDecimal.valueOf(price.doubleValue());
-                                            System.out.println("  Price convertie: " + priceValue);
-                                        }
-
-                                        // Mettre à jour la surface du signalement
-                                        if (surface != null) {
-                                            saved.setSurface(BigDecimal.valueOf(surface.doubleValue()));
-                                            repository.save(saved);
-                                            System.out.println("  Surface mise à jour: " + surface);
-                                        }
-
-                                        // Créer le SignalementWork
-                                        SignalementWork work = SignalementWork.builder()
-                                                .signalement(saved)
-                                                .company(company)
-                                                .startDate(startDate)
-                                                .endDateEstimation(endDate)
-                                                .price(priceValue)
-                                                .build();
-
-                                        workRepository.save(work);
-                                        System.out.println("✓ SignalementWork créé et sauvegardé pour le signalement: " + saved.getId());
-                                    }
-                                } catch (Exception e) {
-                                    System.err.println("  ❌ Erreur lors de la création du SignalementWork: " + e.getMessage());
-                                    e.printStackTrace();
-                                }
-                            } else {
-                                System.out.println("✓ Pas de travail associé dans Firebase");
-                            }
+            return syncResult;
+        } catch (java.util.concurrent.TimeoutException e) {
+            // Les pages déjà traitées restent acquises (point de reprise enregistré)
+            syncResult.getErrors().add(syncError(null, new IllegalStateException("Firestore n'a pas répondu après 30 secondes")));
+            return syncResult;
+        } catch (com.google.api.gax.rpc.UnavailableException e) {
+            syncResult.getErrors().add(syncError(null, new IllegalStateException("Firestore indisponible - Credentials invalides ou pas de connexion")));
+            return syncResult;
+        } catch (Exception e) {
+            syncResult.getErrors().add(syncError(null, e));
+            return syncResult;
+        }
+    }
 
-                            count++;
-                            System.out.println("✓ Signalement importé avec succès! (Total: " + count + ")");
+    /**
+     * Passe de rattrapage des documents dont createdAt manque ou n'est pas un Timestamp : la requête ordonnée
+     * par createdAt ne les renvoie pas (ou les place avant tout point de reprise). Toute la collection est lue
+     * une fois par pages projetées, dans l'ordre des ids, avec son propre point de reprise ; seuls ces documents
+     * sont importés, avec une anomalie indiquant la date retenue. Une fois la passe complète, elle n'est plus refaite
+     * (jusqu'à resetSyncCheckpoint).
+     */
+    private void importUndatedReports(Firestore db, IngestReferences references, FirebaseSyncResultDto syncResult,
+                                      SyncProgress progress) throws Exception {
+        SyncCheckpoint checkpoint = checkpointRepository.findById(UNDATED_CHECKPOINT)
+                .orElseGet(() -> SyncCheckpoint.builder().name(UNDATED_CHECKPOINT).build());
+        if (checkpoint.getLastTimestamp() != null) {
+            return;
+        }
+        Object[] resumeAfter = checkpoint.getLastDocumentId() != null ? new Object[]{checkpoint.getLastDocumentId()} : null;
+
+        java.util.concurrent.atomic.AtomicBoolean blocked = new java.util.concurrent.atomic.AtomicBoolean();
+        java.util.concurrent.atomic.AtomicInteger undated = new java.util.concurrent.atomic.AtomicInteger();
+        reportReader.forEachPage(reportReader.orderedById(db), resumeAfter, documents -> {
+            List<DocumentSnapshot> page = documents.stream()
+                    .filter(document -> !(document.get(REPORT_CREATED_AT) instanceof com.google.cloud.Timestamp))
+                    .collect(Collectors.toList());
+            if (!page.isEmpty()) {
+                undated.addAndGet(page.size());
+                syncResult.setRead(syncResult.getRead() + page.size());
+                progress.addTotal(page.size());
+                IngestPageResult result = ingestFirebasePage(page, references);
+                syncResult.setImported(syncResult.getImported() + result.imported());
+                syncResult.getErrors().addAll(result.errors());
+                progress.advance(page.size() - result.failed(), result.failed());
+                if (result.firstFailure() >= 0) {
+                    // Reprise au premier document en erreur au prochain passage
+                    if (result.firstFailure() > 0) {
+                        checkpoint.setLastDocumentId(page.get(result.firstFailure() - 1).getId());
+                        checkpointRepository.save(checkpoint);
+                    }
+                    blocked.set(true);
+                    return false;
+                }
+            }
+            checkpoint.setLastDocumentId(documents.get(documents.size() - 1).getId());
+            checkpointRepository.save(checkpoint);
+            return true;
+        });
+
+        if (!blocked.get()) {
+            // Passe complète : plus relue
+            checkpoint.setLastTimestamp(Instant.now());
+            checkpointRepository.save(checkpoint);
+        }
+        log.info("Passe des documents sans createdAt: {} document(s) trouvé(s){}", undated.get(),
+                blocked.get() ? ", reprise au prochain passage" : "");
+    }
+
+    /**
+     * Oublie les points de reprise : la prochaine synchronisation relira toute la collection.
+     */
+    public void resetSyncCheckpoint() {
+        checkpointRepository.deleteById(INGEST_CHECKPOINT);
+        checkpointRepository.deleteById(UNDATED_CHECKPOINT);
+    }
 
-                            // Envoyer notification WebSocket pour nouveau signalement
-                            notificationService.notifyNewSignalement(saved);
-                        } else {
-                            System.out.println("❌ ERREUR: StatusSignalement null pour '" + finalStatusToUse + "'");
+    /**
+     * Applique un lot de changements reçus par le listener Firestore (un seul changement par document, le plus récent).
+     * Les documents inconnus sont importés comme par syncFromFirebase (même mapping, mêmes partitions) ;
+     * les documents déjà importés sont mis à jour et les documents supprimés retirés, dans une transaction.
+     * Un document en erreur n'est pas rejoué ici : son id est renvoyé dans failedIds, la file d'import
+     * le remet en attente (délai croissant) sans avancer son point de reprise au-delà.
+     *
+     * @param documents  documents ajoutés ou modifiés
+     * @param removedIds ids des documents supprimés
+     */
+    public FirebaseSyncResultDto applyFirebaseChanges(List<? extends DocumentSnapshot> documents, List<String> removedIds) {
+        FirebaseSyncResultDto syncResult = new FirebaseSyncResultDto();
+        syncResult.setRead(documents.size() + removedIds.size());
+
+        if (!documents.isEmpty()) {
+            IngestReferences references = loadIngestReferences();
+            if (references == null) {
+                throw new IllegalStateException("Compte admin ou type de problème non trouvé");
+            }
+            Set<String> existing = new HashSet<>(repository.findExistingFirebaseIds(
+                    documents.stream().map(DocumentSnapshot::getId).collect(Collectors.toList())));
+            // Index des non synchronisés : les documents importés en sortiront via saveFirebaseImports
+            unsyncedReportIndex.remove(existing);
+            documents.stream()
+                    .filter(document -> !existing.contains(document.getId()))
+                    .forEach(unsyncedReportIndex::put);
+
+            IngestPageResult result = ingestFirebasePage(documents, references, existing);
+            syncResult.setImported(result.imported());
+            syncResult.getErrors().addAll(result.errors());
+            syncResult.getFailedIds().addAll(result.failedIds());
+
+            if (!existing.isEmpty()) {
+                Map<String, DocumentSnapshot> modified = documents.stream()
+                        .filter(document -> existing.contains(document.getId()))
+                        .collect(Collectors.toMap(DocumentSnapshot::getId, document -> document, (a, b) -> b));
+                Integer updated = transactionTemplate.execute(status -> {
+                    int count = 0;
+                    for (Signalement signalement : repository.findByFirebaseIdIn(modified.keySet())) {
+                        if (applyFirebaseModification(signalement, modified.get(signalement.getFirebaseId()), references)) {
+                            count++;
                         }
-                    } else {
-                        System.out.println("❌ Document incomplet:");
-                        System.out.println("   lat: " + (lat == null ? "NULL" : "OK"));
-                        System.out.println("   lng: " + (lng == null ? "NULL" : "OK"));
                     }
+                    return count;
+                });
+                syncResult.setUpdated(updated != null ? updated : 0);
+            }
+        }
+
+        if (!removedIds.isEmpty()) {
+            unsyncedReportIndex.remove(removedIds);
+            Integer removed = transactionTemplate.execute(status -> {
+                int count = 0;
+                for (Signalement signalement : repository.findByFirebaseIdIn(removedIds)) {
+                    if (removeFirebaseDeleted(signalement)) {
+                        count++;
+                    }
+                }
+                return count;
+            });
+            syncResult.setRemoved(removed != null ? removed : 0);
+        }
+
+        if (syncResult.getImported() > 0 || syncResult.getUpdated() > 0 || syncResult.getRemoved() > 0) {
+            log.info("Listener Firebase: {} importé(s), {} modifié(s), {} supprimé(s), {} anomalie(s)", syncResult.getImported(),
+                    syncResult.getUpdated(), syncResult.getRemoved(), syncResult.getErrors().size());
+        }
+        return syncResult;
+    }
+
+    /**
+     * Reporte sur un signalement déjà importé la description, la position, le type et l'état du document.
+     * L'état ne peut qu'avancer (STATUS_HIERARCHY) : l'écho de nos propres écritures, où "annulé" est
+     * exporté en "new", ne le fait pas régresser. Photos et travaux, gérés par le back-office, ne sont pas repris.
+     *
+     * @return true si le signalement a changé
+     */
+    private boolean applyFirebaseModification(Signalement signalement, DocumentSnapshot document, IngestReferences references) {
+        boolean changed = false;
+
+        String description = document.getString("description");
+        if (description != null && !description.equals(signalement.getDescriptions())) {
+            signalement.setDescriptions(description);
+            changed = true;
+        }
+
+        String location = readFirebaseLocation(document);
+        if (location != null && !sameLocation(location, signalement.getLocation())) {
+            signalement.setLocation(location);
+            changed = true;
+        }
+
+        String type = document.getString("status");
+        if (type != null && !type.isEmpty()) {
+            TypeProblem typeProblem = references.types().getOrDefault(type, references.defaultType());
+            if (!typeProblem.getId().equals(signalement.getTypeProblem().getId())) {
+                signalement.setTypeProblem(typeProblem);
+                changed = true;
+            }
+        }
+
+        String currentStatus = latestStatusLibelle(signalement);
+        String reportStatus = document.getString("reportStatus");
+        String newStatus = currentStatus;
+        if (reportStatus != null) {
+            String mapped = mapFirebaseReportStatus(reportStatus);
+            StatusSignalement statusSignalement = references.statuses().get(mapped);
+            if (statusSignalement != null
+                    && STATUS_HIERARCHY.getOrDefault(mapped, 0) > STATUS_HIERARCHY.getOrDefault(currentStatus, 0)) {
+                // Le plus récent en tête, comme l'ordre de chargement (updatedAt DESC)
+                signalement.getStatuses().add(0, SignalementStatus.builder()
+                        .signalement(signalement)
+                        .statusSignalement(statusSignalement)
+                        .updatedAt(Instant.now())
+                        .build());
+                newStatus = mapped;
+                changed = true;
+            }
+        }
+
+        if (changed) {
+            log.debug("Signalement {} mis à jour depuis Firebase ({})", signalement.getId(), signalement.getFirebaseId());
+            // Diffusé après le commit
+            notificationService.notifySignalementUpdated(signalement, newStatus);
+        }
+        return changed;
+    }
+
+    /**
+     * Supprime le signalement dont le document Firestore a été supprimé, tant que le back-office ne l'a pas pris
+     * en charge (statut "nouveau", aucun travail). Sinon il est conservé : l'export suivant recréera le document.
+     */
+    private boolean removeFirebaseDeleted(Signalement signalement) {
+        if (!signalement.getWorks().isEmpty() || !"nouveau".equals(latestStatusLibelle(signalement))) {
+            log.info("Document {} supprimé dans Firebase, signalement {} conservé (déjà pris en charge)",
+                    signalement.getFirebaseId(), signalement.getId());
+            return false;
+        }
+        Long id = signalement.getId();
+        // Statuts et photos suivent par cascade ; les fichiers du PhotoStore, adressés par contenu, sont conservés
+        repository.delete(signalement);
+        log.info("Signalement {} supprimé (document {} supprimé dans Firebase)", id, signalement.getFirebaseId());
+        notificationService.notifySignalementRemoved(signalement);
+        return true;
+    }
+
+    /**
+     * Données de référence de l'import, chargées une fois par synchronisation au lieu d'une requête par document.
+     * Les entreprises créées pendant l'import y sont ajoutées ; pendant le traitement parallèle elles ne sont que lues.
+     */
+    private record IngestReferences(Account account,
+                                    TypeProblem defaultType,
+                                    Map<String, TypeProblem> types,
+                                    Map<String, StatusSignalement> statuses,
+                                    Map<String, Company> companies) {
+
+        StatusSignalement status(String libelle) {
+            return statuses.getOrDefault(libelle, statuses.get("nouveau"));
+        }
+    }
+
+    /**
+     * @param failedIds    documents non importés suite à une erreur (à relire)
+     * @param firstFailure index du premier document en erreur dans la page, -1 si aucun
+     */
+    private record IngestPageResult(int imported, List<String> failedIds, int firstFailure, List<FirebaseSyncErrorDto> errors) {
+
+        int failed() {
+            return failedIds.size();
+        }
+
+        IngestPageResult merge(IngestPageResult other) {
+            List<FirebaseSyncErrorDto> allErrors = new java.util.ArrayList<>(errors);
+            allErrors.addAll(other.errors());
+            List<String> allFailed = new java.util.ArrayList<>(failedIds);
+            allFailed.addAll(other.failedIds());
+            int failure = firstFailure < 0 ? other.firstFailure()
+                    : other.firstFailure() < 0 ? firstFailure : Math.min(firstFailure, other.firstFailure());
+            return new IngestPageResult(imported + other.imported(), allFailed, failure, allErrors);
+        }
+    }
+
+    private IngestReferences loadIngestReferences() {
+        Account defaultAccount = accountRepository.findByUsername("admin").orElse(null);
+        List<TypeProblem> types = typeProblemRepository.findAll();
+        TypeProblem defaultType = types.stream()
+                .filter(type -> "other".equals(type.getLibelle()))
+                .findFirst()
+                .orElse(types.isEmpty() ? null : types.get(0));
+        if (defaultAccount == null || defaultType == null) {
+            return null;
+        }
+
+        return new IngestReferences(
+                defaultAccount,
+                defaultType,
+                types.stream().collect(Collectors.toMap(TypeProblem::getLibelle, type -> type, (a, b) -> a)),
+                statusSignalementRepository.findAll().stream()
+                        .collect(Collectors.toMap(StatusSignalement::getLibelle, status -> status, (a, b) -> a)),
+                companyRepository.findAll().stream()
+                        .collect(Collectors.toMap(Company::getName, company -> company, (a, b) -> a, HashMap::new)));
+    }
+
+    /**
+     * Importe une page de documents : une requête IN pour écarter les documents déjà importés,
+     * puis découpage en partitions traitées en parallèle sur le pool borné firebaseSyncExecutor.
+     * Chaque partition écrit ses signalements dans sa propre transaction (INSERT par lots JDBC).
+     * Un document est entièrement traité par une seule partition : ses statuts, photos et travail
+     * restent ordonnés ; l'ordre entre documents de partitions différentes n'est pas garanti.
+     */
+    private IngestPageResult ingestFirebasePage(List<? extends DocumentSnapshot> documents, IngestReferences references) {
+        if (documents.isEmpty()) {
+            return new IngestPageResult(0, List.of(), -1, List.of());
+        }
+        Set<String> existing = new HashSet<>(repository.findExistingFirebaseIds(
+                documents.stream().map(DocumentSnapshot::getId).collect(Collectors.toList())));
+        log.debug("{} document(s) de la page déjà synchronisé(s)", existing.size());
+        return ingestFirebasePage(documents, references, existing);
+    }
+
+    private IngestPageResult ingestFirebasePage(List<? extends DocumentSnapshot> documents, IngestReferences references,
+                                                Set<String> existing) {
+        List<Integer> pending = new java.util.ArrayList<>();
+        for (int i = 0; i < documents.size(); i++) {
+            if (!existing.contains(documents.get(i).getId())) {
+                pending.add(i);
+            }
+        }
+        if (pending.isEmpty()) {
+            return new IngestPageResult(0, List.of(), -1, List.of());
+        }
+        // Les entreprises inconnues sont créées avant le découpage : les partitions ne font que les lire
+        List<FirebaseSyncErrorDto> companyErrors =
+                ensureIngestCompanies(pending.stream().map(documents::get).collect(Collectors.toList()), references);
+
+        int partitionSize = (pending.size() + syncParallelism - 1) / Math.max(1, syncParallelism);
+        List<java.util.concurrent.Future<IngestPageResult>> futures = new java.util.ArrayList<>();
+        for (int from = 0; from < pending.size(); from += partitionSize) {
+            List<Integer> partition = pending.subList(from, Math.min(from + partitionSize, pending.size()));
+            futures.add(firebaseSyncExecutor.submit(() -> ingestPartition(documents, partition, references)));
+        }
+
+        IngestPageResult result = new IngestPageResult(0, List.of(), -1, companyErrors);
+        for (int i = 0; i < futures.size(); i++) {
+            try {
+                result = result.merge(futures.get(i).get());
+            } catch (Exception e) {
+                // Erreur inattendue hors document : toute la partition sera relue au prochain passage
+                List<Integer> partition = pending.subList(i * partitionSize, Math.min((i + 1) * partitionSize, pending.size()));
+                int firstIndex = partition.get(0);
+                Throwable cause = e instanceof java.util.concurrent.ExecutionException ? e.getCause() : e;
+                result = result.merge(new IngestPageResult(0,
+                        partition.stream().map(index -> documents.get(index).getId()).collect(Collectors.toList()),
+                        firstIndex, List.of(syncError(documents.get(firstIndex).getId(), cause))));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Prépare et enregistre une partition de documents (indices dans la page).
+     * Si l'écriture groupée échoue, la partition est rejouée document par document pour isoler le fautif.
+     */
+    private IngestPageResult ingestPartition(List<? extends DocumentSnapshot> documents, List<Integer> indices,
+                                             IngestReferences references) {
+        List<FirebaseSyncErrorDto> errors = new java.util.ArrayList<>();
+        List<Signalement> toSave = new java.util.ArrayList<>();
+        List<Integer> preparedIndices = new java.util.ArrayList<>();
+        List<String> failedIds = new java.util.ArrayList<>();
+        int firstFailure = -1;
+        for (int index : indices) {
+            DocumentSnapshot document = documents.get(index);
+            try {
+                Signalement signalement = prepareFirebaseImport(document, references, errors);
+                if (signalement != null) {
+                    toSave.add(signalement);
+                    preparedIndices.add(index);
+                }
+            } catch (Exception e) {
+                errors.add(syncError(document.getId(), e));
+                failedIds.add(document.getId());
+                firstFailure = firstFailure < 0 ? index : firstFailure;
+            }
+        }
+        if (toSave.isEmpty()) {
+            return new IngestPageResult(0, failedIds, firstFailure, errors);
+        }
+
+        try {
+            saveFirebaseImports(toSave);
+            return new IngestPageResult(toSave.size(), failedIds, firstFailure, errors);
+        } catch (Exception e) {
+            log.warn("Écriture groupée de {} signalement(s) impossible, reprise document par document: {}", toSave.size(), e.getMessage());
+            errors.add(syncError(null, new IllegalStateException(
+                    "Écriture groupée de " + toSave.size() + " signalement(s) impossible, reprise document par document: "
+                            + (e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName()), e)));
+        }
+
+        int imported = 0;
+        for (int index : preparedIndices) {
+            DocumentSnapshot document = documents.get(index);
+            try {
+                // Les entités de la transaction annulée ont déjà reçu un id : on repart du document
+                // (ses anomalies non bloquantes sont déjà dans errors)
+                Signalement signalement = prepareFirebaseImport(document, references, new java.util.ArrayList<>());
+                if (signalement != null) {
+                    saveFirebaseImports(List.of(signalement));
+                    imported++;
+                }
+            } catch (Exception e) {
+                errors.add(syncError(document.getId(), e));
+                failedIds.add(document.getId());
+                firstFailure = firstFailure < 0 ? index : Math.min(firstFailure, index);
+            }
+        }
+        return new IngestPageResult(imported, failedIds, firstFailure, errors);
+    }
+
+    /**
+     * Crée en une transaction les entreprises citées par les documents et absentes de la base.
+     *
+     * @return l'anomalie de création, vide si tout est créé
+     */
+    @SuppressWarnings("unchecked")
+    private List<FirebaseSyncErrorDto> ensureIngestCompanies(List<? extends DocumentSnapshot> documents, IngestReferences references) {
+        List<Company> newCompanies = new java.util.ArrayList<>();
+        for (DocumentSnapshot document : documents) {
+            Object work = document.get("work");
+            Object companyName = work instanceof Map ? ((Map<String, Object>) work).get("company") : null;
+            if (companyName instanceof String name && !name.isEmpty() && !references.companies().containsKey(name)) {
+                log.debug("Création d'une nouvelle entreprise: {}", name);
+                Company company = Company.builder()
+                        .name(name)
+                        .siret("UNKNOWN") // Valeur par défaut
+                        .address("") // Vide
+                        .createdAt(Instant.now())
+                        .build();
+                references.companies().put(name, company);
+                newCompanies.add(company);
+            }
+        }
+        if (!newCompanies.isEmpty()) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> companyRepository.saveAll(newCompanies));
+            } catch (Exception e) {
+                // Les travaux de ces entreprises seront ignorés, les signalements restent importés
+                newCompanies.forEach(company -> references.companies().remove(company.getName()));
+                log.warn("Création des entreprises impossible: {}", e.getMessage());
+                return List.of(syncError(null, new IllegalStateException("Création des entreprises "
+                        + newCompanies.stream().map(Company::getName).collect(Collectors.joining(", "))
+                        + " impossible, travaux ignorés: " + e.getMessage(), e)));
+            }
+        }
+        return List.of();
+    }
+
+    private void saveFirebaseImports(List<Signalement> signalements) {
+        transactionTemplate.executeWithoutResult(status -> {
+            // Les statuts, photos et travaux suivent par cascade
+            repository.saveAll(signalements);
+            for (Signalement signalement : signalements) {
+                for (SignalementPhoto photo : signalement.getPhotos()) {
+                    photoVariantPipeline.submit(photo.getId(), photo.getPhotoHash());
+                }
+            }
+        });
+
+        unsyncedReportIndex.remove(signalements.stream().map(Signalement::getFirebaseId).collect(Collectors.toList()));
+        for (Signalement signalement : signalements) {
+            log.debug("Signalement importé: {} (ID: {})", signalement.getFirebaseId(), signalement.getId());
+            // Envoyer notification WebSocket pour nouveau signalement
+            notificationService.notifyNewSignalement(signalement);
+        }
+    }
+
+    private static FirebaseSyncErrorDto syncError(String documentId, Throwable error) {
+        return FirebaseSyncErrorDto.builder()
+                .documentId(documentId)
+                .message(error.getMessage() != null ? error.getMessage() : error.getClass().getSimpleName())
+                .build();
+    }
+
+    /**
+     * Construit, sans l'enregistrer, le signalement d'un document Firestore avec ses photos, son statut et son travail.
+     * Une photo ou un travail illisible n'empêche pas l'import : l'anomalie est ajoutée à warnings.
+     * Une lecture des photos impossible (Firestore) fait échouer le document, qui sera relu.
+     *
+     * @return null si le document est incomplet (coordonnées manquantes) ou supprimé logiquement
+     */
+    @SuppressWarnings("unchecked")
+    private Signalement prepareFirebaseImport(DocumentSnapshot document, IngestReferences references,
+                                              List<FirebaseSyncErrorDto> warnings) throws Exception {
+        String firebaseId = document.getId();
+        log.debug("Traitement du document {}", firebaseId);
+        if (FirestoreReportReader.isDeleted(document)) {
+            // Supprimé logiquement avant d'avoir été importé : rien à créer
+            return null;
+        }
+
+        String description = document.getString("description");
+        String location = readFirebaseLocation(document);
+        String status = document.getString("status"); // Type de problème: pothole, accident, etc.
+        String reportStatus = document.getString("reportStatus"); // État du signalement: new, in_progress, completed
+
+        if (location == null) {
+            warnings.add(syncError(firebaseId, new IllegalArgumentException("Document incomplet: coordonnées lat/lng manquantes")));
+            return null;
+        }
+
+        String statusToUse = mapFirebaseReportStatus(reportStatus);
+        StatusSignalement statusSignalement = references.status(statusToUse);
+        if (statusSignalement == null) {
+            warnings.add(syncError(firebaseId, new IllegalStateException("Statut '" + statusToUse + "' absent de la base")));
+            return null;
+        }
+
+        // Mapper le type de problème Firebase vers la base de données
+        TypeProblem typeProblem = references.defaultType();
+        if (status != null && !status.isEmpty()) {
+            typeProblem = references.types().getOrDefault(status, references.defaultType());
+        }
+
+        Signalement signalement = Signalement.builder()
+                .account(references.account())
+                .typeProblem(typeProblem)
+                .descriptions(description != null ? description : "")
+                .location(location)
+                .createdAt(readFirebaseCreatedAt(document, warnings))
+                .firebaseId(firebaseId)
+                .build();
+
+        // Photos : lues pour ce seul document (les pages en sont dépourvues), le contenu est déposé
+        // dans le PhotoStore dès maintenant et la ligne part avec le lot ; le Base64 n'est pas conservé
+        List<String> photos = reportReader.loadPhotos(document);
+        if (photos != null) {
+            int photoOrder = 1;
+            for (String photoData : photos) {
+                // Ignorer les photos vides ou nulles
+                if (photoData == null || photoData.trim().isEmpty()) {
+                    continue;
+                }
+                try {
+                    signalement.getPhotos().add(toPhoto(signalement, photoData, photoOrder++));
                 } catch (Exception e) {
-                    System.err.println("❌ ERREUR lors de la synchronisation du document: " + e.getMessage());
-                    e.printStackTrace();
+                    // Non bloquant : le signalement est importé sans cette photo
+                    warnings.add(syncError(firebaseId, new IllegalArgumentException("Photo " + (photoOrder - 1) + " ignorée: " + e.getMessage(), e)));
                 }
             }
+        }
 
-            System.out.println("Synchronisation terminée: " + count + " signalements importés");
+        signalement.getStatuses().add(SignalementStatus.builder()
+                .signalement(signalement)
+                .statusSignalement(statusSignalement)
+                .updatedAt(Instant.now())
+                .build());
 
-            // Notification de fin de synchronisation
-            if (count > 0) {
-                notificationService.notifySyncCompleted(count);
+        // Informations de travail éventuelles
+        Map<String, Object> workInfo = (Map<String, Object>) document.get("work");
+        if (workInfo != null) {
+            try {
+                SignalementWork work = toFirebaseWork(signalement, workInfo, references, warnings);
+                if (work != null) {
+                    signalement.getWorks().add(work);
+                }
+            } catch (Exception e) {
+                // Non bloquant : le signalement est importé sans travail
+                warnings.add(syncError(firebaseId, new IllegalArgumentException("Travail ignoré: " + e.getMessage(), e)));
             }
+        }
 
-            return count;
-        } catch (java.util.concurrent.TimeoutException e) {
-            System.err.println("TIMEOUT: Firestore n'a pas répondu après 30 secondes");
-            System.out.println("Retour 0 synchronisé (timeout Firestore)");
-            return 0;
-        } catch (com.google.api.gax.rpc.UnavailableException e) {
-            System.err.println("Firestore indisponible - Credentials invalides ou pas de connexion");
-            System.out.println("Retour 0 synchronisé (Firestore indisponible)");
-            return 0;
+        log.debug("Document {} préparé: {} photo(s), statut {}, travail: {}", firebaseId, signalement.getPhotos().size(),
+                statusSignalement.getLibelle(), !signalement.getWorks().isEmpty());
+        return signalement;
+    }
+
+    /**
+     * Coordonnées "lat,lng" du document, null si l'une manque.
+     */
+    private static String readFirebaseLocation(DocumentSnapshot document) {
+        // Support des deux formats de coordonnées: lat/lng ou latitude/longitude
+        Double lat = document.getDouble("lat");
+        if (lat == null) {
+            lat = document.getDouble("latitude");
+        }
+        Double lng = document.getDouble("lng");
+        if (lng == null) {
+            lng = document.getDouble("longitude");
+        }
+        return lat != null && lng != null ? lat + "," + lng : null;
+    }
+
+    /**
+     * Compare deux positions "lat,lng" numériquement (l'écriture des nombres peut différer d'un côté à l'autre).
+     */
+    private static boolean sameLocation(String a, String b) {
+        if (a == null || b == null) {
+            return a == b;
+        }
+        String[] left = a.split(",");
+        String[] right = b.split(",");
+        try {
+            return left.length == 2 && right.length == 2
+                    && Double.parseDouble(left[0].trim()) == Double.parseDouble(right[0].trim())
+                    && Double.parseDouble(left[1].trim()) == Double.parseDouble(right[1].trim());
+        } catch (NumberFormatException e) {
+            return a.equals(b);
+        }
+    }
+
+    /**
+     * Mapping reportStatus Firebase → statut de la base ("nouveau" par défaut).
+     */
+    private static String mapFirebaseReportStatus(String reportStatus) {
+        if (reportStatus == null || reportStatus.isEmpty()) {
+            return "nouveau";
+        }
+        String firebaseReportStatus = reportStatus.toLowerCase().trim();
+        if (firebaseReportStatus.equals("in_progress") || firebaseReportStatus.equals("en_cours")) {
+            return "en_cours";
+        } else if (firebaseReportStatus.equals("completed") || firebaseReportStatus.equals("terminé") || firebaseReportStatus.equals("resolved")) {
+            return "terminé";
+        } else if (firebaseReportStatus.equals("cancelled") || firebaseReportStatus.equals("annulé") || firebaseReportStatus.equals("rejected")) {
+            return "annulé";
+        }
+        // new ou autre valeur → nouveau
+        return "nouveau";
+    }
+
+    /**
+     * Timestamp original du document (champ "createdAt" ou "timestamp"), now() à défaut.
+     * Un createdAt absent ou d'un autre type que Timestamp est signalé dans warnings.
+     */
+    private static Instant readFirebaseCreatedAt(DocumentSnapshot document, List<FirebaseSyncErrorDto> warnings) {
+        Object createdAt = document.get(REPORT_CREATED_AT);
+        if (createdAt instanceof com.google.cloud.Timestamp) {
+            return ((com.google.cloud.Timestamp) createdAt).toDate().toInstant();
+        }
+        Object timestampObj = createdAt != null ? createdAt : document.get("timestamp"); // Fallback
+        Instant instant = null;
+        if (timestampObj instanceof com.google.cloud.Timestamp) {
+            instant = ((com.google.cloud.Timestamp) timestampObj).toDate().toInstant();
+        } else if (timestampObj instanceof java.util.Date) {
+            instant = ((java.util.Date) timestampObj).toInstant();
+        } else if (timestampObj instanceof Number) {
+            instant = Instant.ofEpochMilli(((Number) timestampObj).longValue());
+        }
+        // Hors de l'import incrémental (ordonné par createdAt) : signalé pour que la donnée soit corrigée
+        String found = createdAt == null ? "absent" : "de type " + createdAt.getClass().getSimpleName();
+        warnings.add(syncError(document.getId(), new IllegalArgumentException("createdAt " + found + ", "
+                + (instant != null ? "date " + instant + " utilisée" : "date d'import utilisée"))));
+        return instant != null ? instant : Instant.now();
+    }
+
+    /**
+     * Travail décrit dans le document Firestore ; null sans entreprise. Une date illisible est signalée dans warnings.
+     */
+    private SignalementWork toFirebaseWork(Signalement signalement, Map<String, Object> workInfo, IngestReferences references,
+                                           List<FirebaseSyncErrorDto> warnings) {
+        String companyName = (String) workInfo.get("company");
+        if (companyName == null || companyName.isEmpty()) {
+            return null;
+        }
+        Number surface = (Number) workInfo.get("surface");
+        Number price = (Number) workInfo.get("price");
+
+        // Créée au préalable par ensureIngestCompanies
+        Company company = references.companies().get(companyName);
+        if (company == null) {
+            return null;
+        }
+
+        // Mettre à jour la surface du signalement
+        if (surface != null) {
+            signalement.setSurface(BigDecimal.valueOf(surface.doubleValue()));
+        }
+
+        return SignalementWork.builder()
+                .signalement(signalement)
+                .company(company)
+                .startDate(parseFirebaseDate(signalement.getFirebaseId(), (String) workInfo.get("startDate"), warnings))
+                .endDateEstimation(parseFirebaseDate(signalement.getFirebaseId(), (String) workInfo.get("endDateEstimation"), warnings))
+                .price(price != null ? BigDecimal.valueOf(price.doubleValue()) : null)
+                .build();
+    }
+
+    private static LocalDate parseFirebaseDate(String firebaseId, String value, List<FirebaseSyncErrorDto> warnings) {
+        if (value == null || value.isEmpty()) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(value);
         } catch (Exception e) {
-            System.err.println("Erreur lors de la synchronisation Firebase: " + e.getMessage());
-            e.printStackTrace();
-            System.out.println("Retour 0 synchronisé (erreur)");
-            return 0;
+            warnings.add(syncError(firebaseId, new IllegalArgumentException("Date de travail illisible ignorée: " + value, e)));
+            return null;
+        }
+    }
+
+    private void advanceCheckpoint(SyncCheckpoint checkpoint, DocumentSnapshot document) {
+        // Seul un createdAt de type Timestamp peut servir de borne startAfter
+        com.google.cloud.Timestamp createdAt = document.get(REPORT_CREATED_AT) instanceof com.google.cloud.Timestamp
+                ? document.getTimestamp(REPORT_CREATED_AT) : null;
+        if (createdAt != null) {
+            checkpoint.setLastTimestamp(createdAt.toDate().toInstant());
+            checkpoint.setLastDocumentId(document.getId());
         }
     }
 
+    private static com.google.cloud.Timestamp toFirestoreTimestamp(Instant instant) {
+        return com.google.cloud.Timestamp.ofTimeSecondsAndNanos(instant.getEpochSecond(), instant.getNano());
+    }
+
+    @Transactional(rollbackFor = Exception.class)
     public void addWork(Long signalementId, Map<String, Object> workData) throws Exception {
         try {
             Signalement signalement = repository.findById(signalementId)
@@ -612,70 +1163,147 @@ public class SignalementService {
      * Exporte tous les signalements locaux (sans firebaseId) vers Firebase
      * pour qu'ils soient visibles dans l'application mobile.
      */
-    public int exportLocalSignalementsToFirebase() throws Exception {
-        System.out.println("=== DEBUT exportLocalSignalementsToFirebase ===");
-        
-        Firestore db = firebaseService.getFirestore();
-        if (db == null) {
-            System.out.println("Firebase n'est pas initialisé - retour 0 exporté");
-            return 0;
-        }
+    public int exportLocalSignalementsToFirebase(SyncProgress progress) throws Exception {
+        List<Long> ids = repository.findIdsWithoutFirebaseId();
+        log.debug("Signalements locaux à exporter: {}", ids.size());
 
-        // Récupérer tous les signalements sans firebaseId
-        List<Signalement> localSignalements = repository.findAll().stream()
-                .filter(s -> s.getFirebaseId() == null || s.getFirebaseId().isEmpty())
-                .collect(Collectors.toList());
+        int exportedCount = writeReportsToFirebase(ids, progress);
+        log.info("Export vers Firebase terminé: {} signalement(s) exporté(s) sur {}", exportedCount, ids.size());
+        return exportedCount;
+    }
 
-        System.out.println("Nombre de signalements locaux à exporter: " + localSignalements.size());
+    /**
+     * Synchronise vers Firebase les statuts des signalements modifiés depuis leur dernier envoi
+     * pour que l'application mobile affiche les derniers changements.
+     * Un signalement dont l'empreinte n'a pas changé n'est ni rechargé ni réécrit.
+     */
+    public int syncAllStatusToFirebase(SyncProgress progress) throws Exception {
+        List<Long> ids = repository.findIdsWithFirebaseId();
+        List<Long> changed = findChangedSinceLastSync(ids);
+        log.debug("Signalements à synchroniser: {} ({} inchangé(s))", changed.size(), ids.size() - changed.size());
 
-        int exportedCount = 0;
-        for (Signalement signalement : localSignalements) {
-            try {
-                syncToFirebase(signalement.getId());
-                exportedCount++;
-                System.out.println("✓ Signalement " + signalement.getId() + " exporté vers Firebase");
-            } catch (Exception e) {
-                System.err.println("✗ Erreur export signalement " + signalement.getId() + ": " + e.getMessage());
+        int syncedCount = writeReportsToFirebase(changed, progress);
+        log.info("Synchronisation des statuts terminée: {} signalement(s) envoyé(s) sur {}", syncedCount, changed.size());
+        return syncedCount;
+    }
+
+    /**
+     * Document Firestore prêt à écrire.
+     *
+     * @param created true si l'identifiant vient d'être attribué (pas encore de propriétaire côté mobile)
+     */
+    private record PreparedReport(Long signalementId, String firebaseId, boolean created,
+                                  Map<String, Object> data, String fingerprint, String pushBody) {
+    }
+
+    private List<Long> findChangedSinceLastSync(List<Long> ids) {
+        List<Long> changed = new java.util.ArrayList<>();
+        for (int from = 0; from < ids.size(); from += FINGERPRINT_BATCH_SIZE) {
+            List<Long> batch = ids.subList(from, Math.min(from + FINGERPRINT_BATCH_SIZE, ids.size()));
+            for (SignalementSyncRow row : repository.findSyncRows(batch)) {
+                if (!firebaseFingerprint(row).equals(row.getFirebasePayloadHash())) {
+                    changed.add(row.getId());
+                }
             }
         }
-
-        System.out.println("=== FIN exportLocalSignalementsToFirebase - " + exportedCount + " exportés ===");
-        return exportedCount;
+        return changed;
     }
 
     /**
-     * Synchronise tous les statuts des signalements existants vers Firebase
-     * pour que l'application mobile affiche les derniers changements.
+     * Écrit les signalements dans Firestore par lots, sans lecture préalable ni attente par document.
+     * Chaque lot est chargé dans sa propre transaction (collections chargées par batch), les signalements
+     * sans firebaseId y reçoivent un identifiant généré côté client, puis les documents sont remis au
+     * ReportWriter : le lot suivant se prépare pendant que les écritures du précédent sont en vol.
+     * Les identifiants des écritures en échec sont retirés à la fin ; les push FCM passent par l'outbox une fois tout écrit.
+     *
+     * @return nombre de documents écrits
      */
-    public int syncAllStatusToFirebase() throws Exception {
-        System.out.println("=== DEBUT syncAllStatusToFirebase ===");
-        
-        Firestore db = firebaseService.getFirestore();
-        if (db == null) {
-            System.out.println("Firebase n'est pas initialisé - retour 0 synchronisé");
+    private int writeReportsToFirebase(List<Long> ids, SyncProgress progress) {
+        if (ids.isEmpty()) {
             return 0;
         }
+        java.util.concurrent.atomic.AtomicInteger written = new java.util.concurrent.atomic.AtomicInteger();
+        List<OutboxService.FcmPush> ownerPushes = java.util.Collections.synchronizedList(new java.util.ArrayList<>());
+        List<Long> failedAssignments = java.util.Collections.synchronizedList(new java.util.ArrayList<>());
+        List<Map.Entry<Long, String>> fingerprints = java.util.Collections.synchronizedList(new java.util.ArrayList<>());
+
+        try (ReportWriter writer = firebaseService.openReportWriter(REPORTS_COLLECTION)) {
+            if (writer == null) {
+                log.info("Firebase n'est pas initialisé - aucun document écrit");
+                return 0;
+            }
+            progress.addTotal(ids.size());
+
+            for (int from = 0; from < ids.size(); from += exportChunkSize) {
+                List<Long> chunk = ids.subList(from, Math.min(from + exportChunkSize, ids.size()));
+                List<PreparedReport> reports = transactionTemplate.execute(status -> prepareReports(chunk, writer, progress));
+
+                for (PreparedReport report : reports) {
+                    ApiFutures.addCallback(writer.merge(report.firebaseId(), report.data()), new ApiFutureCallback<Object>() {
+                        @Override
+                        public void onSuccess(Object result) {
+                            written.incrementAndGet();
+                            if (report.fingerprint() != null) {
+                                fingerprints.add(Map.entry(report.signalementId(), report.fingerprint()));
+                            }
+                            // Push au propriétaire du signalement (les documents créés ici n'en ont pas encore)
+                            if (!report.created()) {
+                                ownerPushes.add(new OutboxService.FcmPush(report.firebaseId(), "Statut mis à jour", report.pushBody()));
+                            }
+                            progress.advance(1, 0);
+                        }
 
-        // Récupérer tous les signalements avec un firebaseId (déjà synchronisés)
-        List<Signalement> syncedSignalements = repository.findAll().stream()
-                .filter(s -> s.getFirebaseId() != null && !s.getFirebaseId().isEmpty())
-                .collect(Collectors.toList());
+                        @Override
+                        public void onFailure(Throwable error) {
+                            log.warn("Écriture Firebase du signalement {} en échec: {}", report.signalementId(), error.getMessage());
+                            if (report.created()) {
+                                failedAssignments.add(report.signalementId());
+                            }
+                            progress.advance(0, 1);
+                        }
+                    }, MoreExecutors.directExecutor());
+                }
+            }
+        }
+
+        if (!failedAssignments.isEmpty()) {
+            repository.clearFirebaseIds(failedAssignments);
+        }
+        // Empreinte enregistrée après l'écriture : un envoi interrompu sera refait au passage suivant
+        for (int from = 0; from < fingerprints.size(); from += exportChunkSize) {
+            List<Map.Entry<Long, String>> chunk = fingerprints.subList(from, Math.min(from + exportChunkSize, fingerprints.size()));
+            transactionTemplate.executeWithoutResult(status -> chunk.forEach(entry ->
+                    repository.updateFirebasePayloadHash(entry.getKey(), entry.getValue())));
+        }
 
-        System.out.println("Nombre de signalements à synchroniser: " + syncedSignalements.size());
+        outboxService.enqueueFcmPushes(ownerPushes);
+        return written.get();
+    }
 
-        int syncedCount = 0;
-        for (Signalement signalement : syncedSignalements) {
+    private List<PreparedReport> prepareReports(List<Long> ids, ReportWriter writer, SyncProgress progress) {
+        List<PreparedReport> reports = new java.util.ArrayList<>(ids.size());
+        // Empreintes lues avant les entités : une modification concurrente sera renvoyée au passage suivant
+        Map<Long, String> fingerprints = repository.findSyncRows(ids).stream()
+                .collect(Collectors.toMap(SignalementSyncRow::getId, SignalementService::firebaseFingerprint));
+        for (Signalement signalement : repository.findAllById(ids)) {
             try {
-                syncToFirebase(signalement.getId());
-                syncedCount++;
-                System.out.println("✓ Statut du signalement " + signalement.getId() + " synchronisé vers Firebase");
+                Map<String, Object> data = buildFirebaseReport(signalement);
+                String firebaseId = signalement.getFirebaseId();
+                boolean created = firebaseId == null || firebaseId.isEmpty();
+                if (created) {
+                    // Enregistré au commit du lot (UPDATE groupé), avant l'écriture Firestore :
+                    // un export interrompu ne crée pas de doublon au passage suivant
+                    firebaseId = writer.newDocumentId();
+                    signalement.setFirebaseId(firebaseId);
+                }
+                reports.add(new PreparedReport(signalement.getId(), firebaseId, created, data,
+                        fingerprints.get(signalement.getId()), ownerPushBody(signalement)));
             } catch (Exception e) {
-                System.err.println("✗ Erreur sync statut signalement " + signalement.getId() + ": " + e.getMessage());
+                log.warn("Préparation du signalement {} pour Firebase en échec: {}", signalement.getId(), e.getMessage());
+                progress.advance(0, 1);
             }
         }
-
-        System.out.println("=== FIN syncAllStatusToFirebase - " + syncedCount + " synchronisés ===");
-        return syncedCount;
+        return reports;
     }
 
     public void syncToFirebase(Long signalementId) throws Exception {
@@ -688,92 +1316,29 @@ public class SignalementService {
                 throw new Exception("Firebase n'est pas initialisé");
             }
 
-            // Récupérer le dernier statut (nouveau, en_cours, terminé, annulé)
-            SignalementStatus latestStatus = signalement.getStatuses().stream().findFirst().orElse(null);
-            String reportStatus = latestStatus != null ? latestStatus.getStatusSignalement().getLibelle() : "nouveau";
-
-            // Mapper le statut backend vers le format mobile
-            String mobileReportStatus = "new";
-            if ("en_cours".equals(reportStatus)) {
-                mobileReportStatus = "in_progress";
-            } else if ("terminé".equals(reportStatus) || "resolu".equals(reportStatus)) {
-                mobileReportStatus = "completed";
-            }
-
-            // Récupérer le dernier work s'il existe
-            SignalementWork latestWork = signalement.getWorks().stream().findFirst().orElse(null);
-
-            // Extraire lat et lng depuis location
-            String[] coords = signalement.getLocation().split(",");
-            double lat = Double.parseDouble(coords[0].trim());
-            double lng = Double.parseDouble(coords[1].trim());
-
-            // Préparer les données à synchroniser
-            Map<String, Object> data = new java.util.HashMap<>();
-            data.put("description", signalement.getDescriptions());
-            data.put("lat", lat);
-            data.put("lng", lng);
-            data.put("status", signalement.getTypeProblem().getLibelle()); // Type de problème: pothole, accident, etc.
-            data.put("reportStatus", mobileReportStatus); // Statut: new, in_progress, completed
-            data.put("lastUpdated", Instant.now().toString());
-
-            // Préserver le userId existant si le document existe déjà dans Firebase
-            String firebaseId = signalement.getFirebaseId();
-            if (firebaseId != null && !firebaseId.isEmpty()) {
-                try {
-                    var existingDoc = db.collection("roadworks_reports").document(firebaseId).get().get();
-                    if (existingDoc.exists() && existingDoc.getString("userId") != null) {
-                        data.put("userId", existingDoc.getString("userId"));
-                    }
-                } catch (Exception e) {
-                    System.err.println("Impossible de récupérer le userId existant: " + e.getMessage());
-                }
-            }
+            String fingerprint = repository.findSyncRows(List.of(signalementId)).stream()
+                    .map(SignalementService::firebaseFingerprint)
+                    .findFirst()
+                    .orElse(null);
+            Map<String, Object> data = buildFirebaseReport(signalement);
 
-            // Ajouter les informations de travail si elles existent
-            if (latestWork != null) {
-                Map<String, Object> workData = new java.util.HashMap<>();
-                workData.put("surface", signalement.getSurface() != null ? signalement.getSurface().doubleValue() : null);
-                workData.put("company", latestWork.getCompany().getName());
-                workData.put("companyId", latestWork.getCompany().getId());
-                workData.put("startDate", latestWork.getStartDate() != null ? latestWork.getStartDate().toString() : null);
-                workData.put("endDateEstimation", latestWork.getEndDateEstimation() != null ? latestWork.getEndDateEstimation().toString() : null);
-                workData.put("realEndDate", latestWork.getRealEndDate() != null ? latestWork.getRealEndDate().toString() : null);
-                workData.put("price", latestWork.getPrice() != null ? latestWork.getPrice().doubleValue() : null);
-                data.put("work", workData);
-            }
-
-            // Ajouter les photos si elles existent
-            List<SignalementPhoto> photos = photoRepository.findBySignalementIdOrderByPhotoOrderAsc(signalementId);
-            if (!photos.isEmpty()) {
-                List<String> photoDataList = photos.stream()
-                        .map(SignalementPhoto::getPhotoData)
-                        .collect(Collectors.toList());
-                data.put("photos", photoDataList);
-                System.out.println("✓ " + photos.size() + " photo(s) ajoutée(s) à la synchronisation Firebase");
-            }
-
-            // Si le signalement a un firebaseId, mettre à jour le document existant
+            // Si le signalement a un firebaseId, fusionner dans le document existant
+            // (le userId posé par le mobile est conservé sans relire le document)
             // Sinon, créer un nouveau document
+            String firebaseId = signalement.getFirebaseId();
             if (firebaseId != null && !firebaseId.isEmpty()) {
-                db.collection("roadworks_reports").document(firebaseId).set(data).get();
+                db.collection(REPORTS_COLLECTION).document(firebaseId).set(data, SetOptions.merge()).get();
             } else {
                 // Créer un nouveau document et sauvegarder son ID
-                var docRef = db.collection("roadworks_reports").add(data).get();
+                var docRef = db.collection(REPORTS_COLLECTION).add(data).get();
                 signalement.setFirebaseId(docRef.getId());
                 firebaseId = docRef.getId();
                 repository.save(signalement);
             }
+            repository.updateFirebasePayloadHash(signalementId, fingerprint);
 
-            // Envoyer push notification FCM au proprietaire du signalement
-            String desc = signalement.getDescriptions();
-            String shortDesc = (desc != null && desc.length() > 50)
-                    ? desc.substring(0, 50) + "..." : (desc != null ? desc : "Votre signalement");
-            fcmService.sendPushToReportOwner(
-                    firebaseId,
-                    "Statut mis à jour",
-                    shortDesc + " → " + reportStatus
-            );
+            // Push notification FCM au proprietaire du signalement (envoyée par l'outbox)
+            outboxService.enqueueFcmPush(firebaseId, "Statut mis à jour", ownerPushBody(signalement));
 
         } catch (Exception e) {
             System.err.println("Erreur dans syncToFirebase: " + e.getMessage());
@@ -783,116 +1348,122 @@ public class SignalementService {
     }
 
     /**
-     * Récupère les signalements Firebase qui ne sont pas encore synchronisés dans la base de données locale.
-     * Utile pour le manager afin de voir tous les signalements, même ceux non encore importés.
+     * Document roadworks_reports au format attendu par le mobile.
      */
-    public List<Map<String, Object>> getUnsyncedFirebaseSignalements() throws Exception {
-        System.out.println("=== DEBUT getUnsyncedFirebaseSignalements ===");
-        
-        Firestore db = firebaseService.getFirestore();
-        if (db == null) {
-            System.out.println("Firebase n'est pas initialisé - retour liste vide");
-            return List.of();
+    private Map<String, Object> buildFirebaseReport(Signalement signalement) throws IOException {
+        // Récupérer le dernier statut (nouveau, en_cours, terminé, annulé)
+        String reportStatus = latestStatusLibelle(signalement);
+
+        // Mapper le statut backend vers le format mobile
+        String mobileReportStatus = "new";
+        if ("en_cours".equals(reportStatus)) {
+            mobileReportStatus = "in_progress";
+        } else if ("terminé".equals(reportStatus) || "resolu".equals(reportStatus)) {
+            mobileReportStatus = "completed";
         }
 
-        try {
-            ApiFuture<QuerySnapshot> query = db.collection("roadworks_reports").get();
-            QuerySnapshot querySnapshot = query.get(30, java.util.concurrent.TimeUnit.SECONDS);
-            System.out.println("Nombre de documents Firebase trouvés: " + querySnapshot.getDocuments().size());
-
-            List<Map<String, Object>> unsyncedSignalements = new java.util.ArrayList<>();
-
-            for (var document : querySnapshot.getDocuments()) {
-                String firebaseId = document.getId();
-                
-                // Vérifier si ce signalement a déjà été synchronisé
-                if (repository.findByFirebaseId(firebaseId).isPresent()) {
-                    // Déjà synchronisé, on l'ignore
-                    continue;
-                }
+        // Récupérer le dernier work s'il existe
+        SignalementWork latestWork = signalement.getWorks().stream().findFirst().orElse(null);
 
-                // Ce signalement n'est pas synchronisé, on le récupère
-                // DEBUG: Afficher tous les champs du document pour comprendre la structure
-                System.out.println("=== Document Firebase " + firebaseId + " ===");
-                System.out.println("Tous les champs: " + document.getData());
+        // Extraire lat et lng depuis location
+        String[] coords = signalement.getLocation().split(",");
+        double lat = Double.parseDouble(coords[0].trim());
+        double lng = Double.parseDouble(coords[1].trim());
+
+        // Préparer les données à synchroniser
+        Map<String, Object> data = new java.util.HashMap<>();
+        data.put("description", signalement.getDescriptions());
+        data.put("lat", lat);
+        data.put("lng", lng);
+        data.put("status", signalement.getTypeProblem().getLibelle()); // Type de problème: pothole, accident, etc.
+        data.put("reportStatus", mobileReportStatus); // Statut: new, in_progress, completed
+        data.put("lastUpdated", Instant.now().toString());
+        // Horodatage serveur, comme le mobile : borne de reprise du listener (FirebaseIngestQueue)
+        data.put("updatedAt", FieldValue.serverTimestamp());
+
+        // Ajouter les informations de travail si elles existent
+        if (latestWork != null) {
+            Map<String, Object> workData = new java.util.HashMap<>();
+            workData.put("surface", signalement.getSurface() != null ? signalement.getSurface().doubleValue() : null);
+            workData.put("company", latestWork.getCompany().getName());
+            workData.put("companyId", latestWork.getCompany().getId());
+            workData.put("startDate", latestWork.getStartDate() != null ? latestWork.getStartDate().toString() : null);
+            workData.put("endDateEstimation", latestWork.getEndDateEstimation() != null ? latestWork.getEndDateEstimation().toString() : null);
+            workData.put("realEndDate", latestWork.getRealEndDate() != null ? latestWork.getRealEndDate().toString() : null);
+            workData.put("price", latestWork.getPrice() != null ? latestWork.getPrice().doubleValue() : null);
+            data.put("work", workData);
+        }
 
-                String description = document.getString("description");
-                // Support de plusieurs formats de coordonnées
-                Double lat = document.getDouble("lat");
-                if (lat == null) {
-                    lat = document.getDouble("latitude");
-                }
-                // Essayer aussi avec "location" qui pourrait être un objet
-                if (lat == null && document.get("location") != null) {
-                    try {
-                        Map<String, Object> location = (Map<String, Object>) document.get("location");
-                        if (location != null) {
-                            Object latObj = location.get("lat");
-                            if (latObj == null) latObj = location.get("latitude");
-                            if (latObj instanceof Number) {
-                                lat = ((Number) latObj).doubleValue();
-                            }
-                        }
-                    } catch (Exception e) {
-                        System.out.println("  location n'est pas un objet Map");
-                    }
-                }
+        // Ajouter les photos si elles existent
+        List<SignalementPhoto> photos = signalement.getPhotos();
+        if (photos != null && !photos.isEmpty()) {
+            List<String> photoDataList = new java.util.ArrayList<>(photos.size());
+            for (SignalementPhoto photo : photos) {
+                photoDataList.add(toInlinePhotoData(photo));
+            }
+            data.put("photos", photoDataList);
+        }
+        return data;
+    }
 
-                Double lng = document.getDouble("lng");
-                if (lng == null) {
-                    lng = document.getDouble("longitude");
-                }
-                if (lng == null && document.get("location") != null) {
-                    try {
-                        Map<String, Object> location = (Map<String, Object>) document.get("location");
-                        if (location != null) {
-                            Object lngObj = location.get("lng");
-                            if (lngObj == null) lngObj = location.get("longitude");
-                            if (lngObj == null) lngObj = location.get("lon");
-                            if (lngObj instanceof Number) {
-                                lng = ((Number) lngObj).doubleValue();
-                            }
-                        }
-                    } catch (Exception e) {
-                        System.out.println("  location n'est pas un objet Map");
-                    }
-                }
+    /**
+     * Empreinte SHA-256 des champs que buildFirebaseReport envoie à Firestore (hors lastUpdated et updatedAt),
+     * calculée depuis la projection SQL : décider si un document doit être réécrit ne charge pas les entités.
+     * Les photos y figurent par leurs ids, une photo n'étant jamais modifiée sur place.
+     */
+    static String firebaseFingerprint(SignalementSyncRow row) {
+        String canonical = String.join("\u001f",
+                String.valueOf(row.getDescriptions()),
+                String.valueOf(row.getLocation()),
+                plainDecimal(row.getSurface()),
+                String.valueOf(row.getTypeProblem()),
+                String.valueOf(row.getEtat()),
+                String.valueOf(row.getCompanyId()),
+                String.valueOf(row.getCompanyName()),
+                String.valueOf(row.getStartDate()),
+                String.valueOf(row.getEndDateEstimation()),
+                String.valueOf(row.getRealEndDate()),
+                plainDecimal(row.getPrice()),
+                String.valueOf(row.getPhotoIds()));
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(canonical.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponible", e);
+        }
+    }
 
-                String status = document.getString("status"); // Type de problème
-                String reportStatus = document.getString("reportStatus"); // État du signalement
-                Object timestamp = document.get("timestamp");
-
-                System.out.println("  Coordonnées extraites - lat: " + lat + ", lng: " + lng);
-
-                if (lat != null && lng != null) {
-                    Map<String, Object> signalementData = new java.util.HashMap<>();
-                    signalementData.put("firebaseId", firebaseId);
-                    signalementData.put("description", description != null ? description : "Aucune description");
-                    signalementData.put("lat", lat);
-                    signalementData.put("lng", lng);
-                    signalementData.put("typeProblem", status != null ? status : "other");
-                    signalementData.put("reportStatus", reportStatus != null ? reportStatus : "new");
-                    signalementData.put("timestamp", timestamp);
-                    signalementData.put("isSynced", false); // Marqueur pour le frontend
-                    
-                    unsyncedSignalements.add(signalementData);
-                }
-            }
+    private static String plainDecimal(BigDecimal value) {
+        return value != null ? value.stripTrailingZeros().toPlainString() : "null";
+    }
 
-            System.out.println("Nombre de signalements non synchronisés: " + unsyncedSignalements.size());
-            return unsyncedSignalements;
+    private static String latestStatusLibelle(Signalement signalement) {
+        SignalementStatus latestStatus = signalement.getStatuses().stream().findFirst().orElse(null);
+        return latestStatus != null ? latestStatus.getStatusSignalement().getLibelle() : "nouveau";
+    }
 
-        } catch (Exception e) {
-            System.err.println("Erreur lors de la récupération des signalements Firebase non synchronisés: " + e.getMessage());
-            e.printStackTrace();
-            throw e;
-        }
+    private static String ownerPushBody(Signalement signalement) {
+        String desc = signalement.getDescriptions();
+        String shortDesc = (desc != null && desc.length() > 50)
+                ? desc.substring(0, 50) + "..." : (desc != null ? desc : "Votre signalement");
+        return shortDesc + " → " + latestStatusLibelle(signalement);
     }
 
     /**
-     * Récupère toutes les photos d'un signalement par son ID.
+     * Récupère les signalements Firebase qui ne sont pas encore synchronisés dans la base de données locale.
+     * Utile pour le manager afin de voir tous les signalements, même ceux non encore importés.
+     * Servis depuis l'index en mémoire tenu à jour par le listener (aucune lecture Firestore ni photo).
      */
-    public List<SignalementPhotoDto> getPhotosBySignalementId(Long signalementId) throws Exception {
+    public List<UnsyncedFirebaseReportDto> getUnsyncedFirebaseSignalements() {
+        return unsyncedReportIndex.findAll();
+    }
+
+    /**
+     * Récupère toutes les photos d'un signalement par son ID, dans la variante demandée.
+     * Une variante pas encore générée (ou impossible pour une URL externe) retombe sur la suivante :
+     * miniature → aperçu → original.
+     */
+    public List<SignalementPhotoDto> getPhotosBySignalementId(Long signalementId, PhotoVariant variant) throws Exception {
         // Vérifier que le signalement existe
         repository.findById(signalementId)
                 .orElseThrow(() -> new Exception("Signalement non trouvé avec l'ID: " + signalementId));
@@ -903,10 +1474,59 @@ public class SignalementService {
                 .map(photo -> SignalementPhotoDto.builder()
                         .id(photo.getId())
                         .signalementId(signalementId)
-                        .photoData(photo.getPhotoData())
+                        .photoData(photoData(photo, variant))
                         .photoOrder(photo.getPhotoOrder())
                         .createdAt(photo.getCreatedAt())
                         .build())
                 .collect(Collectors.toList());
     }
+
+    private String photoData(SignalementPhoto photo, PhotoVariant variant) {
+        if (variant == PhotoVariant.THUMBNAIL && photo.getThumbnail() != null) {
+            return photo.getThumbnail();
+        }
+        if (variant != PhotoVariant.ORIGINAL && photo.getPreviewHash() != null) {
+            return PhotoStore.URL_PREFIX + photo.getPreviewHash();
+        }
+        return photo.getPhotoHash() != null ? PhotoStore.URL_PREFIX + photo.getPhotoHash() : photo.getPhotoData();
+    }
+
+    /**
+     * Parcourt les photos (URL du contenu dans le store) de plusieurs signalements sans les accumuler en mémoire.
+     * Le consommateur est appelé photo par photo, dans l'ordre (signalement, photoOrder).
+     */
+    @Transactional(readOnly = true)
+    public void forEachPhotoOfSignalements(List<Long> signalementIds, Consumer<SignalementPhotoDto> consumer) {
+        try (Stream<SignalementPhotoDto> photos = photoRepository.streamBySignalementIdIn(signalementIds)) {
+            photos.forEach(consumer);
+        }
+    }
+
+    /**
+     * Construit la photo à enregistrer : le contenu Base64 est déposé dans le PhotoStore
+     * (dédupliqué par SHA-256), seules les URLs restent dans photo_data.
+     */
+    private SignalementPhoto toPhoto(Signalement signalement, String photoData, int photoOrder) throws IOException {
+        SignalementPhoto.SignalementPhotoBuilder builder = SignalementPhoto.builder()
+                .signalement(signalement)
+                .photoOrder(photoOrder)
+                .createdAt(Instant.now());
+        if (!PhotoDataUri.isInline(photoData)) {
+            return builder.photoData(photoData).build();
+        }
+
+        // Miniature et aperçu sont générés ensuite par le PhotoVariantPipeline
+        return builder.photoHash(photoStore.put(PhotoDataUri.decode(photoData))).build();
+    }
+
+    /**
+     * Photo au format attendu par le mobile (data URI Base64), relue depuis le PhotoStore si besoin.
+     */
+    private String toInlinePhotoData(SignalementPhoto photo) throws IOException {
+        if (photo.getPhotoHash() == null) {
+            return photo.getPhotoData();
+        }
+        byte[] content = photoStore.read(photo.getPhotoHash());
+        return PhotoDataUri.encode(content, PhotoDataUri.sniffMimeType(content));
+    }
 }
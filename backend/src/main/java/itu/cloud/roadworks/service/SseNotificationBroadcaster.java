@@ -0,0 +1,370 @@
+package itu.cloud.roadworks.service;
+
+import itu.cloud.roadworks.dto.SignalementNotification;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayDeque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Diffusion des notifications en Server-Sent Events, pour les clients derrière des proxys où SockJS
+ * retombe en polling XHR. Mêmes trames que sur WebSocket, mêmes destinations (motif au choix du client).
+ * <p>
+ * Les connexions sont asynchrones (SseEmitter) : une connexion inactive n'occupe aucun thread. Un seul thread
+ * (sse-broadcast) répartit les événements, battements de cœur compris, dans la file de chaque client, ce qui garde
+ * leur ordre ; les écritures sont faites par un petit pool (sse-send), une seule à la fois par client.
+ * La file d'un client est bornée (sse.client-buffer-size) : un client qui ne lit plus est déconnecté quand elle
+ * est pleine, sans jamais retarder les autres ni accumuler les événements en mémoire ; il se reconnecte et rejoue.
+ * Chaque événement numéroté porte l'id "{stream}:{sequence}" : à la reconnexion, EventSource renvoie Last-Event-ID
+ * et les événements manqués sont rejoués depuis NotificationJournal ; s'ils ne sont plus disponibles,
+ * un événement "resync" demande au client de tout recharger.
+ */
+@Service
+@Slf4j
+public class SseNotificationBroadcaster {
+
+    public static final String DEFAULT_DESTINATION = "/topic/signalements/**";
+
+    private static final class Client {
+        private final SseEmitter emitter;
+        private final String destinationPattern;
+        // Dernier numéro mis en file (accès depuis le seul thread sse-broadcast)
+        private long lastSequence;
+        // Événements à écrire, écriture en cours, connexion fermée (accès synchronisé sur le client)
+        private final Queue<SseEmitter.SseEventBuilder> pending = new ArrayDeque<>();
+        private boolean draining;
+        private boolean closed;
+        // Fermée faute de lecture : l'émetteur reste à terminer
+        private boolean slow;
+
+        private Client(SseEmitter emitter, String destinationPattern) {
+            this.emitter = emitter;
+            this.destinationPattern = destinationPattern;
+        }
+    }
+
+    private final NotificationJournal journal;
+    private final long timeoutMillis;
+    private final long heartbeatMillis;
+    private final int clientBufferSize;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final Set<Client> clients = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService executor;
+    private final ExecutorService senders;
+
+    private final AtomicLong sentEvents = new AtomicLong();
+    private final AtomicLong replayedEvents = new AtomicLong();
+    private final AtomicLong closedOnError = new AtomicLong();
+    private final AtomicLong closedSlow = new AtomicLong();
+
+    public SseNotificationBroadcaster(NotificationJournal journal,
+                                      @Value("${sse.timeout-ms:1800000}") long timeoutMillis,
+                                      @Value("${sse.heartbeat-ms:15000}") long heartbeatMillis,
+                                      @Value("${sse.client-buffer-size:256}") int clientBufferSize,
+                                      @Value("${sse.sender-threads:4}") int senderThreads) {
+        this.journal = journal;
+        this.timeoutMillis = timeoutMillis;
+        this.heartbeatMillis = heartbeatMillis;
+        this.clientBufferSize = Math.max(1, clientBufferSize);
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "sse-broadcast");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Au plus une tâche en file par client (voir enqueue) : la file du pool est bornée par les connexions
+        this.senders = Executors.newFixedThreadPool(Math.max(1, senderThreads), runnable -> {
+            Thread thread = new Thread(runnable, "sse-send");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PostConstruct
+    public void start() {
+        if (heartbeatMillis > 0) {
+            executor.scheduleWithFixedDelay(this::heartbeat, heartbeatMillis, heartbeatMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+        senders.shutdownNow();
+        clients.forEach(client -> client.emitter.complete());
+        clients.clear();
+    }
+
+    /**
+     * Nouvelle connexion SSE.
+     *
+     * @param destinationPattern motif de destination STOMP (DEFAULT_DESTINATION si null)
+     * @param lastEventId        en-tête Last-Event-ID d'une reconnexion, null pour ne recevoir que les nouveaux événements
+     */
+    public SseEmitter subscribe(String destinationPattern, String lastEventId) {
+        return register(new SseEmitter(timeoutMillis), destinationPattern, lastEventId);
+    }
+
+    SseEmitter register(SseEmitter emitter, String destinationPattern, String lastEventId) {
+        Client client = new Client(emitter, destinationPattern != null ? destinationPattern : DEFAULT_DESTINATION);
+        emitter.onCompletion(() -> close(client));
+        emitter.onTimeout(() -> close(client));
+        emitter.onError(error -> close(client));
+        // Rejeu et inscription sur le thread de diffusion : aucun événement diffusé entre les deux n'est perdu
+        executor.execute(() -> {
+            if (resume(client, lastEventId)) {
+                clients.add(client);
+            }
+        });
+        return emitter;
+    }
+
+    /**
+     * Trame publiée sur une destination STOMP (appelé par NotificationService).
+     */
+    public void broadcast(String destination, SignalementNotification notification) {
+        if (clients.isEmpty()) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                for (Client client : clients) {
+                    if (pathMatcher.match(client.destinationPattern, destination)) {
+                        deliver(client, notification);
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Arrêt en cours
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("connections", clients.size());
+        stats.put("sentEvents", sentEvents.get());
+        stats.put("replayedEvents", replayedEvents.get());
+        stats.put("closedOnError", closedOnError.get());
+        stats.put("closedSlow", closedSlow.get());
+        return stats;
+    }
+
+    /**
+     * @return false si la connexion est déjà fermée
+     */
+    private boolean resume(Client client, String lastEventId) {
+        long since = -1;
+        String stream = null;
+        if (lastEventId != null) {
+            int separator = lastEventId.lastIndexOf(':');
+            try {
+                stream = lastEventId.substring(0, Math.max(separator, 0));
+                since = Long.parseLong(lastEventId.substring(separator + 1));
+            } catch (NumberFormatException e) {
+                since = -1;
+            }
+        }
+        // L'id donne au client sa position dès la connexion (bloc sans données : aucun événement déclenché),
+        // même si rien n'est publié avant la prochaine coupure
+        if (since < 0) {
+            client.lastSequence = journal.latestSequence();
+            return enqueue(client, SseEmitter.event()
+                    .id(journal.getStream() + ":" + client.lastSequence)
+                    .comment("connecté"));
+        }
+
+        NotificationJournal.Replay replay = journal.since(stream, since, client.destinationPattern);
+        client.lastSequence = replay.latestSequence();
+        // Un rejeu plus grand que la file du client la déborderait : rechargement, comme un trou trop grand
+        if (replay.events().isEmpty() || replay.events().get().size() >= clientBufferSize) {
+            return enqueue(client, SseEmitter.event()
+                    .id(replay.stream() + ":" + replay.latestSequence())
+                    .name("resync")
+                    .data(Map.of("stream", replay.stream(), "latestSequence", replay.latestSequence()), MediaType.APPLICATION_JSON));
+        }
+        for (SignalementNotification notification : replay.events().get()) {
+            if (!enqueue(client, event(notification))) {
+                return false;
+            }
+            replayedEvents.incrementAndGet();
+        }
+        return true;
+    }
+
+    private void deliver(Client client, SignalementNotification notification) {
+        SignalementNotification frame = notification;
+        if ("BATCH".equals(notification.getType()) && notification.getItems() != null) {
+            // Une partie de la trame a pu être rejouée à la connexion
+            List<SignalementNotification> items = notification.getItems().stream()
+                    .filter(item -> item.getSequence() == null || item.getSequence() > client.lastSequence)
+                    .toList();
+            if (items.isEmpty()) {
+                return;
+            }
+            if (items.size() < notification.getItems().size()) {
+                frame = SignalementNotification.builder()
+                        .type(notification.getType())
+                        .sequence(notification.getSequence())
+                        .timestamp(notification.getTimestamp())
+                        .message(notification.getMessage())
+                        .items(items)
+                        .build();
+            }
+        } else if (notification.getSequence() != null && notification.getSequence() <= client.lastSequence) {
+            return;
+        }
+        if (enqueue(client, event(frame))) {
+            sentEvents.incrementAndGet();
+            if (frame.getSequence() != null) {
+                client.lastSequence = frame.getSequence();
+            }
+        }
+    }
+
+    private SseEmitter.SseEventBuilder event(SignalementNotification notification) {
+        SseEmitter.SseEventBuilder event = SseEmitter.event().data(notification, MediaType.APPLICATION_JSON);
+        if (notification.getSequence() != null) {
+            event.id(journal.getStream() + ":" + notification.getSequence());
+        }
+        return event;
+    }
+
+    private void heartbeat() {
+        for (Client client : clients) {
+            enqueue(client, SseEmitter.event().comment("heartbeat"));
+        }
+    }
+
+    /**
+     * Met l'événement dans la file du client et lance son écriture si aucune n'est en cours.
+     *
+     * @return false si la connexion est fermée, ou si la file était pleine (le client est alors déconnecté)
+     */
+    private boolean enqueue(Client client, SseEmitter.SseEventBuilder event) {
+        boolean overflow = false;
+        boolean startDrain = false;
+        synchronized (client) {
+            if (client.closed) {
+                return false;
+            }
+            if (client.pending.size() >= clientBufferSize) {
+                overflow = true;
+                client.closed = true;
+                client.slow = true;
+                client.pending.clear();
+            } else {
+                client.pending.add(event);
+                startDrain = !client.draining;
+                client.draining = true;
+            }
+        }
+        if (overflow) {
+            disconnectSlow(client);
+            return false;
+        }
+        if (startDrain) {
+            try {
+                senders.execute(() -> drain(client));
+            } catch (RejectedExecutionException e) {
+                // Arrêt en cours
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * File pleine : le client ne lit plus. L'émetteur est terminé ici si aucune écriture n'est en cours,
+     * sinon par son écriture quand elle rend la main (terminer pendant un envoi bloqué attendrait ce dernier).
+     */
+    private void disconnectSlow(Client client) {
+        boolean completeNow;
+        synchronized (client) {
+            // L'émetteur est terminé une seule fois : ici, ou par l'écriture en cours
+            completeNow = client.slow && !client.draining;
+            client.slow &= !completeNow;
+        }
+        clients.remove(client);
+        closedSlow.incrementAndGet();
+        log.debug("Connexion SSE trop lente fermée ({} événements en attente)", clientBufferSize);
+        if (completeNow) {
+            client.emitter.complete();
+        }
+    }
+
+    /**
+     * Écrit la file du client jusqu'à ce qu'elle soit vide (thread sse-send).
+     */
+    private void drain(Client client) {
+        while (true) {
+            SseEmitter.SseEventBuilder event;
+            boolean completeNow = false;
+            synchronized (client) {
+                event = client.closed ? null : client.pending.poll();
+                if (event == null) {
+                    completeNow = client.slow;
+                    client.slow = false;
+                    client.draining = false;
+                }
+            }
+            if (event == null) {
+                if (completeNow) {
+                    client.emitter.complete();
+                }
+                return;
+            }
+            if (!send(client, event)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Un envoi en échec (client parti, proxy qui a coupé) ferme la connexion.
+     */
+    private boolean send(Client client, SseEmitter.SseEventBuilder event) {
+        try {
+            client.emitter.send(event);
+            return true;
+        } catch (Exception e) {
+            synchronized (client) {
+                client.closed = true;
+                client.pending.clear();
+                client.draining = false;
+            }
+            clients.remove(client);
+            closedOnError.incrementAndGet();
+            // Le conteneur signale lui-même l'erreur d'E/S à la requête asynchrone, qui se termine
+            log.debug("Connexion SSE fermée: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Connexion terminée (fin, délai dépassé ou erreur signalée par le conteneur).
+     */
+    private void close(Client client) {
+        synchronized (client) {
+            client.closed = true;
+            client.pending.clear();
+        }
+        clients.remove(client);
+    }
+}
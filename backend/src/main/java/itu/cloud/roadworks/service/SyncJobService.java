@@ -0,0 +1,191 @@
+package itu.cloud.roadworks.service;
+
+import itu.cloud.roadworks.dto.SyncJobDto;
+import itu.cloud.roadworks.dto.SyncJobType;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Exécution des synchronisations Firebase en tâche de fond.
+ * Chaque lancement renvoie immédiatement un identifiant de job ; l'avancement est consultable
+ * par l'API et diffusé sur /topic/signalements (au plus une fois par intervalle, plus l'état final).
+ * Un type de job ne peut avoir qu'une exécution en cours.
+ */
+@Service
+@Slf4j
+public class SyncJobService {
+
+    private static final int MAX_RETAINED_JOBS = 50;
+
+    /**
+     * Traitement d'un job : rend compte de son avancement et renvoie son résultat final.
+     */
+    @FunctionalInterface
+    public interface SyncTask {
+        Map<String, Object> run(SyncProgress progress) throws Exception;
+    }
+
+    private final ExecutorService syncJobExecutor;
+    private final NotificationService notificationService;
+    private final long broadcastIntervalMillis;
+
+    private final Map<SyncJobType, SyncJob> running = new ConcurrentHashMap<>();
+    private final Map<String, SyncJob> jobs = new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, SyncJob> eldest) {
+            return size() > MAX_RETAINED_JOBS && eldest.getValue().finishedAt != null;
+        }
+    };
+
+    public SyncJobService(@Qualifier("syncJobExecutor") ExecutorService syncJobExecutor,
+                          NotificationService notificationService,
+                          @Value("${sync.jobs.progress-interval-ms:1000}") long broadcastIntervalMillis) {
+        this.syncJobExecutor = syncJobExecutor;
+        this.notificationService = notificationService;
+        this.broadcastIntervalMillis = broadcastIntervalMillis;
+    }
+
+    /**
+     * Lance un job en tâche de fond.
+     *
+     * @throws IllegalStateException si un job du même type est déjà en cours
+     */
+    public SyncJobDto start(SyncJobType type, SyncTask task) {
+        SyncJob job = new SyncJob(type);
+        SyncJob current = running.putIfAbsent(type, job);
+        if (current != null) {
+            throw new IllegalStateException("Une synchronisation " + type + " est déjà en cours: " + current.id);
+        }
+        synchronized (jobs) {
+            jobs.put(job.id, job);
+        }
+
+        try {
+            syncJobExecutor.execute(() -> run(job, task));
+        } catch (RuntimeException e) {
+            running.remove(type, job);
+            job.finish(null, e);
+            throw e;
+        }
+        log.info("Job de synchronisation {} lancé: {}", type, job.id);
+        return job.toDto();
+    }
+
+    public Optional<SyncJobDto> find(String jobId) {
+        synchronized (jobs) {
+            return Optional.ofNullable(jobs.get(jobId)).map(SyncJob::toDto);
+        }
+    }
+
+    public Optional<SyncJobDto> findRunning(SyncJobType type) {
+        return Optional.ofNullable(running.get(type)).map(SyncJob::toDto);
+    }
+
+    /**
+     * Jobs récents, du plus récent au plus ancien.
+     */
+    public List<SyncJobDto> recent() {
+        List<SyncJobDto> result = new ArrayList<>();
+        synchronized (jobs) {
+            jobs.values().forEach(job -> result.add(0, job.toDto()));
+        }
+        return result;
+    }
+
+    private void run(SyncJob job, SyncTask task) {
+        try {
+            Map<String, Object> result = task.run(job);
+            job.finish(result, null);
+            log.info("Job de synchronisation {} terminé: {}", job.id, result);
+        } catch (Exception e) {
+            job.finish(null, e);
+            log.error("Job de synchronisation {} en échec", job.id, e);
+        } finally {
+            running.remove(job.type, job);
+            notificationService.notifySyncProgress(job.toDto());
+        }
+    }
+
+    private final class SyncJob implements SyncProgress {
+        private final String id = UUID.randomUUID().toString();
+        private final SyncJobType type;
+        private final Instant startedAt = Instant.now();
+        private final AtomicInteger total = new AtomicInteger();
+        private final AtomicInteger processed = new AtomicInteger();
+        private final AtomicInteger failed = new AtomicInteger();
+        private volatile long lastBroadcast;
+        private volatile Instant finishedAt;
+        private volatile Map<String, Object> result;
+        private volatile String error;
+
+        private SyncJob(SyncJobType type) {
+            this.type = type;
+        }
+
+        @Override
+        public void addTotal(int count) {
+            total.addAndGet(count);
+        }
+
+        @Override
+        public void advance(int processedCount, int failedCount) {
+            processed.addAndGet(processedCount);
+            failed.addAndGet(failedCount);
+
+            long now = System.currentTimeMillis();
+            long last = lastBroadcast;
+            if (now - last >= broadcastIntervalMillis) {
+                lastBroadcast = now;
+                notificationService.notifySyncProgress(toDto());
+            }
+        }
+
+        private void finish(Map<String, Object> jobResult, Exception failure) {
+            result = jobResult;
+            error = failure != null ? String.valueOf(failure.getMessage()) : null;
+            finishedAt = Instant.now();
+        }
+
+        private SyncJobDto toDto() {
+            int done = processed.get() + failed.get();
+            Instant end = finishedAt != null ? finishedAt : Instant.now();
+            double seconds = Math.max(0.001, Duration.between(startedAt, end).toMillis() / 1000.0);
+            double throughput = done / seconds;
+            Long eta = null;
+            if (finishedAt != null) {
+                eta = 0L;
+            } else if (throughput > 0 && total.get() >= done) {
+                eta = Math.round((total.get() - done) / throughput);
+            }
+
+            return SyncJobDto.builder()
+                    .id(id)
+                    .type(type)
+                    .status(finishedAt == null ? "RUNNING" : error == null ? "COMPLETED" : "FAILED")
+                    .total(total.get())
+                    .processed(processed.get())
+                    .failed(failed.get())
+                    .throughputPerSecond(Math.round(throughput * 100) / 100.0)
+                    .etaSeconds(eta)
+                    .startedAt(startedAt)
+                    .finishedAt(finishedAt)
+                    .result(result)
+                    .error(error)
+                    .build();
+        }
+    }
+}
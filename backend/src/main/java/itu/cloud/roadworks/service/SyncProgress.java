@@ -0,0 +1,24 @@
+package itu.cloud.roadworks.service;
+
+/**
+ * Avancement d'une synchronisation, alimenté par le traitement (éventuellement depuis plusieurs threads).
+ */
+public interface SyncProgress {
+
+    SyncProgress NONE = new SyncProgress() {
+        @Override
+        public void addTotal(int count) {
+        }
+
+        @Override
+        public void advance(int processed, int failed) {
+        }
+    };
+
+    /**
+     * Ajoute des éléments au total à traiter (l'import Firestore le découvre page par page).
+     */
+    void addTotal(int count);
+
+    void advance(int processed, int failed);
+}
@@ -0,0 +1,157 @@
+package itu.cloud.roadworks.service;
+
+import com.google.cloud.Timestamp;
+import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.Firestore;
+import itu.cloud.roadworks.dto.UnsyncedFirebaseReportDto;
+import itu.cloud.roadworks.repository.SignalementRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Vue en mémoire des signalements Firestore pas encore importés en base.
+ * Chargée au démarrage par pages projetées (sans photos) puis réconciliée avec les firebaseIds locaux ;
+ * tenue à jour ensuite par le listener (via SignalementService.applyFirebaseChanges) et par chaque import.
+ * La lecture ne fait ni appel Firestore ni requête SQL.
+ */
+@Service
+@Slf4j
+public class UnsyncedReportIndex {
+
+    /**
+     * @param updateTime heure de modification Firestore : une version plus ancienne ne remplace pas la courante
+     */
+    private record Entry(UnsyncedFirebaseReportDto report, Timestamp updateTime) {
+    }
+
+    private final FirebaseService firebaseService;
+    private final FirestoreReportReader reportReader;
+    private final SignalementRepository repository;
+
+    private final Map<String, Entry> reports = new ConcurrentHashMap<>();
+
+    public UnsyncedReportIndex(FirebaseService firebaseService,
+                               FirestoreReportReader reportReader,
+                               SignalementRepository repository) {
+        this.firebaseService = firebaseService;
+        this.reportReader = reportReader;
+        this.repository = repository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        Firestore db = firebaseService.getFirestore();
+        if (db == null) {
+            log.warn("Firestore non disponible, index des signalements non synchronisés vide");
+            return;
+        }
+        try {
+            // Pages projetées (sans photos) : une seule page en mémoire à la fois
+            int read = reportReader.forEachPage(reportReader.orderedById(db), null, documents -> {
+                documents.forEach(this::put);
+                return true;
+            });
+            // Réconciliation après la lecture : un import validé avant cette requête en fait partie,
+            // un import validé après retire lui-même son document (remove)
+            repository.findAllFirebaseIds().forEach(reports::remove);
+            log.info("Index des signalements non synchronisés chargé: {} sur {} document(s)", reports.size(), read);
+        } catch (Exception e) {
+            log.error("Chargement de l'index des signalements non synchronisés impossible: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Signalements en attente d'import, du plus récent au plus ancien.
+     */
+    public List<UnsyncedFirebaseReportDto> findAll() {
+        List<UnsyncedFirebaseReportDto> result = new ArrayList<>(reports.size());
+        reports.values().forEach(entry -> result.add(entry.report()));
+        result.sort(Comparator.comparing(UnsyncedFirebaseReportDto::getTimestamp,
+                Comparator.nullsLast(Comparator.reverseOrder())));
+        return result;
+    }
+
+    /**
+     * Document absent de la base : ajouté ou remplacé s'il est plus récent que la version indexée.
+     * Sans coordonnées ou supprimé logiquement, il n'est pas affichable et n'est pas indexé.
+     */
+    public void put(DocumentSnapshot document) {
+        UnsyncedFirebaseReportDto report = FirestoreReportReader.isDeleted(document) ? null : project(document);
+        if (report == null) {
+            reports.remove(document.getId());
+            return;
+        }
+        Entry entry = new Entry(report, document.getUpdateTime());
+        reports.merge(document.getId(), entry, (current, candidate) ->
+                current.updateTime() != null && candidate.updateTime() != null
+                        && candidate.updateTime().compareTo(current.updateTime()) < 0 ? current : candidate);
+    }
+
+    /**
+     * Documents importés, déjà présents en base ou supprimés de Firestore.
+     */
+    public void remove(Collection<String> firebaseIds) {
+        firebaseIds.forEach(reports::remove);
+    }
+
+    public int size() {
+        return reports.size();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static UnsyncedFirebaseReportDto project(DocumentSnapshot document) {
+        Map<String, Object> location = document.get("location") instanceof Map
+                ? (Map<String, Object>) document.get("location") : Map.of();
+        Double lat = firstNumber(document.get("lat"), document.get("latitude"), location.get("lat"), location.get("latitude"));
+        Double lng = firstNumber(document.get("lng"), document.get("longitude"),
+                location.get("lng"), location.get("longitude"), location.get("lon"));
+        if (lat == null || lng == null) {
+            return null;
+        }
+
+        String description = document.getString("description");
+        String status = document.getString("status");
+        String reportStatus = document.getString("reportStatus");
+        return UnsyncedFirebaseReportDto.builder()
+                .firebaseId(document.getId())
+                .description(description != null ? description : "Aucune description")
+                .lat(lat)
+                .lng(lng)
+                .typeProblem(status != null ? status : "other")
+                .reportStatus(reportStatus != null ? reportStatus : "new")
+                .timestamp(readInstant(document.get("createdAt"), document.get("timestamp")))
+                .build();
+    }
+
+    private static Double firstNumber(Object... values) {
+        for (Object value : values) {
+            if (value instanceof Number number) {
+                return number.doubleValue();
+            }
+        }
+        return null;
+    }
+
+    private static Instant readInstant(Object... values) {
+        for (Object value : values) {
+            if (value instanceof Timestamp timestamp) {
+                return timestamp.toDate().toInstant();
+            } else if (value instanceof java.util.Date date) {
+                return date.toInstant();
+            } else if (value instanceof Number number) {
+                return Instant.ofEpochMilli(number.longValue());
+            }
+        }
+        return null;
+    }
+}
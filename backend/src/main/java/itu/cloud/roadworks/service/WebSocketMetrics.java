@@ -0,0 +1,62 @@
+package itu.cloud.roadworks.service;
+
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Compteurs de la diffusion WebSocket : sessions ouvertes, trames abandonnées (canal sortant saturé),
+ * sessions coupées pour lenteur (limite de temps d'envoi ou de tampon dépassée) et occupation des canaux.
+ */
+@Service
+public class WebSocketMetrics {
+
+    private final Map<String, ThreadPoolTaskExecutor> channels = new LinkedHashMap<>();
+    private final AtomicLong openSessions = new AtomicLong();
+    private final AtomicLong droppedFrames = new AtomicLong();
+    private final AtomicLong slowSessionsClosed = new AtomicLong();
+
+    /**
+     * Canal STOMP à surveiller (inbound, broker, outbound).
+     */
+    public synchronized void registerChannel(String name, ThreadPoolTaskExecutor executor) {
+        channels.put(name, executor);
+    }
+
+    public void sessionOpened() {
+        openSessions.incrementAndGet();
+    }
+
+    public void sessionClosed(boolean slowConsumer) {
+        openSessions.decrementAndGet();
+        if (slowConsumer) {
+            slowSessionsClosed.incrementAndGet();
+        }
+    }
+
+    public void frameDropped() {
+        droppedFrames.incrementAndGet();
+    }
+
+    public synchronized Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("openSessions", openSessions.get());
+        stats.put("droppedFrames", droppedFrames.get());
+        stats.put("slowSessionsClosed", slowSessionsClosed.get());
+        channels.forEach((name, executor) -> {
+            Map<String, Object> channel = new LinkedHashMap<>();
+            ThreadPoolExecutor pool = executor.getThreadPoolExecutor();
+            channel.put("queued", pool.getQueue().size());
+            channel.put("remainingCapacity", pool.getQueue().remainingCapacity());
+            channel.put("activeThreads", pool.getActiveCount());
+            channel.put("poolSize", pool.getPoolSize());
+            channel.put("completedTasks", pool.getCompletedTaskCount());
+            stats.put(name, channel);
+        });
+        return stats;
+    }
+}
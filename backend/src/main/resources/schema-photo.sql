@@ -4,7 +4,10 @@
 CREATE TABLE IF NOT EXISTS signalement_photo (
     id BIGSERIAL PRIMARY KEY,
     id_signalement BIGINT NOT NULL,
-    photo_data TEXT NOT NULL,
+    photo_data TEXT,
+    photo_hash VARCHAR(64),
+    preview_hash VARCHAR(64),
+    thumbnail TEXT,
     photo_order INTEGER,
     created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
     CONSTRAINT fk_signalement_photo_signalement
@@ -16,3 +19,16 @@ CREATE TABLE IF NOT EXISTS signalement_photo (
 -- Index pour améliorer les performances des requêtes
 CREATE INDEX IF NOT EXISTS idx_signalement_photo_signalement_id
     ON signalement_photo(id_signalement);
+
+CREATE INDEX IF NOT EXISTS idx_signalement_photo_hash
+    ON signalement_photo(photo_hash);
+
+-- Miniature affichée dans la liste des signalements (bases existantes)
+ALTER TABLE signalement_photo ADD COLUMN IF NOT EXISTS thumbnail TEXT;
+
+-- Contenu binaire déplacé dans le store de photos, adressé par SHA-256 (bases existantes)
+ALTER TABLE signalement_photo ADD COLUMN IF NOT EXISTS photo_hash VARCHAR(64);
+ALTER TABLE signalement_photo ALTER COLUMN photo_data DROP NOT NULL;
+
+-- Aperçu réduit (640 px) généré à l'ingestion, stocké dans le store de photos (bases existantes)
+ALTER TABLE signalement_photo ADD COLUMN IF NOT EXISTS preview_hash VARCHAR(64);
@@ -0,0 +1,7 @@
+-- Passage des ids de signalement, photos, statuts et travaux en séquence Hibernate (allocationSize = 50)
+-- Exécuter ce script sur les bases existantes avant de démarrer la nouvelle version du backend
+
+ALTER SEQUENCE signalement_id_seq INCREMENT BY 50;
+ALTER SEQUENCE signalement_photo_id_seq INCREMENT BY 50;
+ALTER SEQUENCE signalement_status_id_seq INCREMENT BY 50;
+ALTER SEQUENCE signalement_work_id_seq INCREMENT BY 50;
@@ -0,0 +1,30 @@
+-- Colonnes et tables de la synchronisation Firebase à ajouter aux bases existantes
+-- Exécuter ce script sur votre base de données PostgreSQL avant de démarrer la nouvelle version du backend
+
+-- Empreinte du dernier document envoyé à Firestore : seuls les signalements modifiés sont renvoyés
+ALTER TABLE signalement ADD COLUMN IF NOT EXISTS firebase_payload_hash VARCHAR(64);
+
+-- Points de reprise des synchronisations incrémentales (dernier document Firestore traité par flux)
+CREATE TABLE IF NOT EXISTS sync_checkpoint (
+    name VARCHAR(100) PRIMARY KEY,
+    last_timestamp TIMESTAMP,
+    last_document_id VARCHAR(255),
+    updated_at TIMESTAMP NOT NULL DEFAULT NOW()
+);
+
+-- Outbox transactionnelle des push FCM (écrite avec la modification, vidée par OutboxDispatcher)
+CREATE TABLE IF NOT EXISTS outbox_event (
+    id BIGSERIAL PRIMARY KEY,
+    type VARCHAR(30) NOT NULL,
+    aggregate_id VARCHAR(255),
+    payload TEXT NOT NULL,
+    status VARCHAR(20) NOT NULL DEFAULT 'PENDING',
+    attempts INTEGER NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP NOT NULL DEFAULT NOW(),
+    last_error TEXT,
+    created_at TIMESTAMP NOT NULL DEFAULT NOW()
+);
+ALTER SEQUENCE outbox_event_id_seq INCREMENT BY 50;
+
+CREATE INDEX IF NOT EXISTS idx_outbox_event_due
+    ON outbox_event(status, next_attempt_at);
@@ -0,0 +1,96 @@
+package itu.cloud.roadworks.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Copie relue au plus une fois par intervalle, dès l'accès suivant une invalidation, et jamais servie comme
+ * fraîche si une invalidation est arrivée pendant son chargement.
+ */
+class CachedSnapshotTest {
+
+    private static final long REFRESH_MS = 60_000;
+
+    @Test
+    void valueIsLoadedOnceWithinTheRefreshInterval() {
+        AtomicInteger loads = new AtomicInteger();
+        CachedSnapshot<Integer> snapshot = new CachedSnapshot<>(loads::incrementAndGet, REFRESH_MS);
+
+        assertEquals(1, snapshot.get());
+        assertEquals(1, snapshot.get());
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void invalidateForcesAReloadOnNextAccess() {
+        AtomicInteger loads = new AtomicInteger();
+        CachedSnapshot<Integer> snapshot = new CachedSnapshot<>(loads::incrementAndGet, REFRESH_MS);
+        snapshot.get();
+
+        snapshot.invalidate();
+
+        assertEquals(2, snapshot.get());
+        assertEquals(2, snapshot.get());
+    }
+
+    @Test
+    void valueLoadedDuringInvalidationIsNotServedAsFresh() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch writeDone = new CountDownLatch(1);
+        CachedSnapshot<Integer> snapshot = new CachedSnapshot<>(() -> {
+            int load = loads.incrementAndGet();
+            if (load == 1) {
+                // Première lecture : une écriture et son invalidation arrivent pendant le chargement
+                loading.countDown();
+                await(writeDone);
+            }
+            return load;
+        }, REFRESH_MS);
+
+        CompletableFuture<Integer> reader = CompletableFuture.supplyAsync(snapshot::get);
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+        snapshot.invalidate();
+        writeDone.countDown();
+
+        // Le lecteur en cours reçoit la valeur chargée, mais elle n'est pas gardée : l'accès suivant relit
+        assertEquals(1, reader.get(5, TimeUnit.SECONDS));
+        assertEquals(2, snapshot.get());
+        assertEquals(2, snapshot.get());
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void concurrentReadersShareASingleLoad() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        CachedSnapshot<Integer> snapshot = new CachedSnapshot<>(() -> {
+            await(release);
+            return loads.incrementAndGet();
+        }, REFRESH_MS);
+
+        CompletableFuture<Integer> first = CompletableFuture.supplyAsync(snapshot::get);
+        CompletableFuture<Integer> second = CompletableFuture.supplyAsync(snapshot::get);
+        release.countDown();
+
+        assertEquals(1, first.get(5, TimeUnit.SECONDS));
+        assertEquals(1, second.get(5, TimeUnit.SECONDS));
+        assertEquals(1, loads.get());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package itu.cloud.roadworks.service;
+
+import com.google.firebase.messaging.BatchResponse;
+import com.google.firebase.messaging.FirebaseMessaging;
+import com.google.firebase.messaging.FirebaseMessagingException;
+import com.google.firebase.messaging.MessagingErrorCode;
+import com.google.firebase.messaging.SendResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.MockedStatic;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Réponses FCM par message : un token refusé définitivement (UNREGISTERED, SENDER_ID_MISMATCH) est retiré du cache
+ * et la push abandonnée sans erreur ; un message refusé (INVALID_ARGUMENT) est une erreur définitive, sans purge ;
+ * une erreur passagère est renvoyée pour que l'outbox réessaie.
+ */
+class FcmServiceTest {
+
+    private FcmTokenCache tokenCache;
+    private FcmService fcmService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        tokenCache = mock(FcmTokenCache.class);
+        fcmService = new FcmService(tokenCache);
+        when(tokenCache.resolveTokens(anyCollection())).thenReturn(Map.of(
+                "report-1", "token-a",
+                "report-2", "token-b",
+                "report-3", "token-c"));
+    }
+
+    @Test
+    void unregisteredTokenIsPurgedAndPushDropped() throws Exception {
+        List<FcmService.PushResult> results = send(List.of(
+                failure(MessagingErrorCode.UNREGISTERED),
+                failure(MessagingErrorCode.UNAVAILABLE),
+                success()));
+
+        assertFalse(results.get(0).sent());
+        assertNull(results.get(0).error(), "refus définitif : rien à réessayer");
+        verify(tokenCache).invalidateToken("token-a");
+
+        assertFalse(results.get(1).sent());
+        assertNotNull(results.get(1).error(), "erreur passagère : la push doit être réessayée");
+        verify(tokenCache, never()).invalidateToken("token-b");
+
+        assertTrue(results.get(2).sent());
+        assertNull(results.get(2).error());
+    }
+
+    @Test
+    void invalidArgumentKeepsTheTokenAndIsPermanent() throws Exception {
+        List<FcmService.PushResult> results = send(List.of(
+                failure(MessagingErrorCode.INVALID_ARGUMENT),
+                failure(MessagingErrorCode.SENDER_ID_MISMATCH),
+                failure(MessagingErrorCode.UNAVAILABLE)));
+
+        // Message refusé : le token reste valable, l'événement part en DEAD sans nouvelle tentative
+        assertNotNull(results.get(0).error());
+        assertTrue(results.get(0).permanent());
+        verify(tokenCache, never()).invalidateToken("token-a");
+
+        assertNull(results.get(1).error());
+        verify(tokenCache).invalidateToken("token-b");
+
+        assertFalse(results.get(2).permanent());
+    }
+
+    @Test
+    void pushWithoutTokenIsDroppedWithoutCallingFcm() throws Exception {
+        when(tokenCache.resolveTokens(anyCollection())).thenReturn(Map.of());
+
+        List<FcmService.PushResult> results = fcmService.sendPushesToReportOwners(List.of(push("report-1")));
+
+        assertEquals(1, results.size());
+        assertFalse(results.get(0).sent());
+        assertNull(results.get(0).error());
+        verify(tokenCache, never()).invalidateToken(anyString());
+    }
+
+    private List<FcmService.PushResult> send(List<SendResponse> responses) throws Exception {
+        try (MockedStatic<FirebaseMessaging> messaging = mockStatic(FirebaseMessaging.class)) {
+            FirebaseMessaging instance = mock(FirebaseMessaging.class);
+            BatchResponse batch = mock(BatchResponse.class);
+            messaging.when(FirebaseMessaging::getInstance).thenReturn(instance);
+            when(instance.sendEach(anyList())).thenReturn(batch);
+            when(batch.getResponses()).thenReturn(responses);
+
+            return fcmService.sendPushesToReportOwners(List.of(push("report-1"), push("report-2"), push("report-3")));
+        }
+    }
+
+    private static OutboxService.FcmPush push(String firebaseId) {
+        return new OutboxService.FcmPush(firebaseId, "Statut mis à jour", "en cours");
+    }
+
+    private static SendResponse success() {
+        SendResponse response = mock(SendResponse.class);
+        when(response.isSuccessful()).thenReturn(true);
+        return response;
+    }
+
+    private static SendResponse failure(MessagingErrorCode code) {
+        FirebaseMessagingException error = mock(FirebaseMessagingException.class);
+        when(error.getMessagingErrorCode()).thenReturn(code);
+        SendResponse response = mock(SendResponse.class);
+        when(response.isSuccessful()).thenReturn(false);
+        when(response.getException()).thenReturn(error);
+        return response;
+    }
+}
@@ -0,0 +1,85 @@
+package itu.cloud.roadworks.service;
+
+import com.google.api.core.ApiFutures;
+import com.google.cloud.firestore.CollectionReference;
+import com.google.cloud.firestore.DocumentReference;
+import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.FieldMask;
+import com.google.cloud.firestore.Firestore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Résolution firebaseId → userId → token en lectures groupées, et retrait d'un token refusé par FCM :
+ * l'utilisateur reste en cache sans token (pas de relecture Firestore ni de nouvel envoi au même token).
+ */
+class FcmTokenCacheTest {
+
+    private Firestore db;
+    private FcmTokenCache cache;
+
+    @BeforeEach
+    void setUp() {
+        db = mock(Firestore.class);
+        CollectionReference collection = mock(CollectionReference.class);
+        when(db.collection(anyString())).thenReturn(collection);
+        when(collection.document(anyString())).thenReturn(mock(DocumentReference.class));
+        DocumentSnapshot report = document("report-1", "userId", "user-1");
+        DocumentSnapshot token = document("user-1", "token", "token-a");
+        when(db.getAll(any(DocumentReference[].class), any(FieldMask.class))).thenReturn(
+                ApiFutures.immediateFuture(List.of(report)),
+                ApiFutures.immediateFuture(List.of(token)));
+
+        FirebaseService firebaseService = mock(FirebaseService.class);
+        when(firebaseService.getFirestore()).thenReturn(db);
+        cache = new FcmTokenCache(firebaseService, 3600000);
+    }
+
+    @Test
+    void tokensAreReadOnceThenServedFromCache() throws Exception {
+        assertEquals(Map.of("report-1", "token-a"), cache.resolveTokens(List.of("report-1")));
+        assertEquals(Map.of("report-1", "token-a"), cache.resolveTokens(List.of("report-1")));
+
+        // Une lecture groupée par collection (signalements puis tokens), aucune au second appel
+        verify(db, times(2)).getAll(any(DocumentReference[].class), any(FieldMask.class));
+    }
+
+    @Test
+    void invalidatedTokenIsNotResolvedOrReadAgain() throws Exception {
+        cache.resolveTokens(List.of("report-1"));
+
+        assertEquals(1, cache.invalidateToken("token-a"));
+        assertEquals(0, cache.invalidateToken("token-a"), "déjà retiré");
+
+        assertTrue(cache.resolveTokens(List.of("report-1")).isEmpty());
+        verify(db, times(2)).getAll(any(DocumentReference[].class), any(FieldMask.class));
+    }
+
+    @Test
+    void unknownTokenLeavesCacheUntouched() throws Exception {
+        cache.resolveTokens(List.of("report-1"));
+
+        assertEquals(0, cache.invalidateToken("token-z"));
+        assertEquals(Map.of("report-1", "token-a"), cache.resolveTokens(List.of("report-1")));
+    }
+
+    private static DocumentSnapshot document(String id, String field, String value) {
+        DocumentSnapshot snapshot = mock(DocumentSnapshot.class);
+        when(snapshot.getId()).thenReturn(id);
+        when(snapshot.exists()).thenReturn(true);
+        when(snapshot.getString(field)).thenReturn(value);
+        return snapshot;
+    }
+}
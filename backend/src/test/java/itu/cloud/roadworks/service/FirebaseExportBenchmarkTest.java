@@ -0,0 +1,169 @@
+package itu.cloud.roadworks.service;
+
+import itu.cloud.roadworks.model.Account;
+import itu.cloud.roadworks.model.Role;
+import itu.cloud.roadworks.model.StatusSignalement;
+import itu.cloud.roadworks.model.TypeProblem;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+/**
+ * Débit de l'export groupé vers Firestore (documents/s) à 1k, 10k et 100k signalements,
+ * contre un Firestore en mémoire qui simule la latence réseau de chaque lot.
+ * Désactivé par défaut : mvn test -Pbenchmark -Dtest=FirebaseExportBenchmarkTest
+ * (options : -Dbenchmark.export.sizes=1000,10000 -Dbenchmark.firestore.latency-ms=20 -Dbenchmark.firestore.in-flight=10)
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:roadworks_export;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.type.preferred_instant_jdbc_type=TIMESTAMP"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ContextConfiguration(classes = SignalementServiceQueryCountTest.JpaSlice.class)
+@Import(SignalementService.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@Tag("benchmark")
+class FirebaseExportBenchmarkTest {
+
+    private static final int SEED_BATCH = 1000;
+
+    @Autowired
+    private SignalementService service;
+
+    @Autowired
+    private TestEntityManager em;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @MockBean
+    private BudgetForfaitaireService budgetForfaitaireService;
+
+    @MockBean
+    private FirebaseService firebaseService;
+
+    @MockBean
+    private NotificationService notificationService;
+
+    @MockBean
+    private OutboxService outboxService;
+
+    @MockBean
+    private PhotoStore photoStore;
+
+    @MockBean
+    private PhotoVariantPipeline photoVariantPipeline;
+
+    @MockBean
+    private UnsyncedReportIndex unsyncedReportIndex;
+
+    @MockBean
+    private FirestoreReportReader reportReader;
+
+    @MockBean(name = "firebaseSyncExecutor")
+    private ExecutorService firebaseSyncExecutor;
+
+    @Test
+    void exportThroughput() throws Exception {
+        long latencyMillis = Long.getLong("benchmark.firestore.latency-ms", 20);
+        int inFlight = Integer.getInteger("benchmark.firestore.in-flight", 10);
+        int[] sizes = Arrays.stream(System.getProperty("benchmark.export.sizes", "1000,10000,100000").split(","))
+                .map(String::trim)
+                .mapToInt(Integer::parseInt)
+                .toArray();
+
+        long[] references = transactionTemplate.execute(status -> createReferences());
+        // Ancien chemin : une lecture puis une écriture bloquantes par document
+        double sequential = 1000.0 / (2 * latencyMillis);
+        System.out.printf("Latence simulée %d ms, %d lots en vol ; chemin séquentiel : %.0f documents/s%n",
+                latencyMillis, inFlight, sequential);
+
+        int seeded = 0;
+        for (int size : sizes) {
+            jdbcTemplate.update("UPDATE signalement SET firebase_id = NULL");
+            seeded += seed(seeded, size - seeded, references);
+
+            InMemoryReportWriter writer = new InMemoryReportWriter(latencyMillis, inFlight);
+            when(firebaseService.openReportWriter(anyString())).thenReturn(writer);
+
+            long start = System.nanoTime();
+            int exported = service.exportLocalSignalementsToFirebase(SyncProgress.NONE);
+            double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+
+            System.out.printf("%,d signalements : %.2f s, %.0f documents/s%n", size, seconds, exported / seconds);
+            assertEquals(size, exported);
+            assertEquals(size, writer.documents.size());
+            assertEquals(0, jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM signalement WHERE firebase_id IS NULL", Integer.class));
+        }
+    }
+
+    /**
+     * @return ids du compte, du type de problème et du statut "nouveau"
+     */
+    private long[] createReferences() {
+        Role role = em.persist(Role.builder().libelle("manager").build());
+        Account account = em.persist(Account.builder()
+                .username("admin")
+                .pwd("x")
+                .role(role)
+                .createdAt(Instant.now())
+                .isActive(true)
+                .isLocked(false)
+                .attempts(0)
+                .build());
+        TypeProblem type = em.persist(TypeProblem.builder().libelle("pothole").icone("🕳️").build());
+        StatusSignalement nouveau = em.persist(StatusSignalement.builder().libelle("nouveau").build());
+        return new long[]{account.getId(), type.getId(), nouveau.getId()};
+    }
+
+    /**
+     * Insère directement en JDBC (ids explicites) : seul l'export est mesuré.
+     */
+    private int seed(int offset, int count, long[] references) {
+        Timestamp now = Timestamp.from(Instant.now());
+        for (int from = 0; from < count; from += SEED_BATCH) {
+            List<Object[]> signalements = new ArrayList<>();
+            List<Object[]> statuses = new ArrayList<>();
+            for (int i = from; i < Math.min(from + SEED_BATCH, count); i++) {
+                long id = 1_000_000L + offset + i;
+                signalements.add(new Object[]{id, references[0], "Signalement " + id, now, "-18.87,47.50", references[1]});
+                statuses.add(new Object[]{id, id, references[2], now});
+            }
+            jdbcTemplate.batchUpdate("INSERT INTO signalement (id, id_account, descriptions, created_at, location, id_type_problem) "
+                    + "VALUES (?, ?, ?, ?, ?, ?)", signalements);
+            jdbcTemplate.batchUpdate("INSERT INTO signalement_status (id, id_signalement, id_status_signalement, updated_at) "
+                    + "VALUES (?, ?, ?, ?)", statuses);
+        }
+        return count;
+    }
+}
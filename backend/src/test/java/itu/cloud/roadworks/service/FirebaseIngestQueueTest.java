@@ -0,0 +1,122 @@
+package itu.cloud.roadworks.service;
+
+import com.google.cloud.firestore.DocumentSnapshot;
+import itu.cloud.roadworks.dto.FirebaseSyncResultDto;
+import itu.cloud.roadworks.model.SyncCheckpoint;
+import itu.cloud.roadworks.repository.SyncCheckpointRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Un document non appliqué est remis en file avec son propre délai : les autres documents passent pendant ce délai,
+ * et le point de reprise du listener n'avance pas au-delà tant qu'il n'est pas appliqué.
+ */
+class FirebaseIngestQueueTest {
+
+    private SignalementService signalementService;
+    private SyncCheckpointRepository checkpointRepository;
+    private FirebaseIngestQueue queue;
+    private final List<List<String>> appliedBatches = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        signalementService = mock(SignalementService.class);
+        checkpointRepository = mock(SyncCheckpointRepository.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        queue.stop();
+    }
+
+    @Test
+    void failedDocumentIsRetriedAndHoldsTheCheckpoint() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        AtomicReference<Object> checkpointBeforeRetry = new AtomicReference<>();
+        answerWith(ids -> {
+            if (calls.incrementAndGet() == 1) {
+                return List.of("doc-a");
+            }
+            checkpointBeforeRetry.set(queue.stats().get("checkpoint"));
+            return List.of();
+        });
+        create(20);
+
+        // Reçus avant le démarrage du thread d'import : un seul lot
+        Instant readTime = Instant.parse("2026-01-01T00:00:00Z");
+        queue.offerUpsert(document("doc-a"));
+        queue.offerUpsert(document("doc-b"));
+        queue.markSnapshot(readTime);
+        queue.start();
+
+        ArgumentCaptor<SyncCheckpoint> saved = ArgumentCaptor.forClass(SyncCheckpoint.class);
+        verify(checkpointRepository, timeout(5000)).save(saved.capture());
+        assertEquals(List.of(List.of("doc-a", "doc-b"), List.of("doc-a")), appliedBatches);
+        // Point de reprise enregistré seulement après la nouvelle tentative réussie
+        assertNull(checkpointBeforeRetry.get());
+        assertEquals(readTime, saved.getValue().getLastTimestamp());
+        assertEquals(1L, queue.stats().get("retriedDocuments"));
+    }
+
+    @Test
+    void otherDocumentsPassDuringTheRetryDelay() throws Exception {
+        answerWith(ids -> ids.contains("doc-a") ? List.of("doc-a") : List.of());
+        create(60_000);
+        queue.start();
+
+        queue.offerUpsert(document("doc-a"));
+        queue.markSnapshot(Instant.parse("2026-01-01T00:00:00Z"));
+        verify(signalementService, timeout(5000)).applyFirebaseChanges(anyList(), anyList());
+        queue.offerUpsert(document("doc-c"));
+        queue.markSnapshot(Instant.parse("2026-01-01T00:01:00Z"));
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (appliedBatches.size() < 2 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(List.of(List.of("doc-a"), List.of("doc-c")), appliedBatches);
+        assertEquals(1, queue.stats().get("pending"));
+        verify(checkpointRepository, never()).save(any());
+    }
+
+    private void create(long retryMillis) {
+        queue = new FirebaseIngestQueue(signalementService, checkpointRepository, 100, 10, retryMillis, 60_000);
+    }
+
+    private void answerWith(java.util.function.Function<List<String>, List<String>> failedIds) {
+        when(signalementService.applyFirebaseChanges(anyList(), anyList())).thenAnswer(invocation -> {
+            List<DocumentSnapshot> documents = invocation.getArgument(0);
+            List<String> ids = new ArrayList<>();
+            documents.forEach(document -> ids.add(document.getId()));
+            appliedBatches.add(ids);
+            FirebaseSyncResultDto result = new FirebaseSyncResultDto();
+            result.getFailedIds().addAll(failedIds.apply(ids));
+            return result;
+        });
+    }
+
+    private static DocumentSnapshot document(String id) {
+        DocumentSnapshot document = mock(DocumentSnapshot.class);
+        when(document.getId()).thenReturn(id);
+        return document;
+    }
+}
@@ -0,0 +1,78 @@
+package itu.cloud.roadworks.service;
+
+import com.google.api.core.ApiFuture;
+import com.google.api.core.SettableApiFuture;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Firestore en mémoire pour les mesures d'export : comme le BulkWriter, les écritures sont regroupées
+ * par lots de 20 ; chaque lot est acquitté après une latence réseau fixe, avec un nombre borné de lots en vol.
+ * Les écritures sont soumises depuis un seul thread (celui de l'export).
+ */
+class InMemoryReportWriter implements ReportWriter {
+
+    private static final int BATCH_SIZE = 20;
+
+    final Map<String, Map<String, Object>> documents = new ConcurrentHashMap<>();
+
+    private final long latencyMillis;
+    private final int maxInFlightBatches;
+    private final Semaphore inFlight;
+    private final ScheduledExecutorService network = Executors.newScheduledThreadPool(2);
+    private final AtomicLong ids = new AtomicLong();
+    private List<Runnable> pending = new ArrayList<>();
+
+    InMemoryReportWriter(long latencyMillis, int maxInFlightBatches) {
+        this.latencyMillis = latencyMillis;
+        this.maxInFlightBatches = maxInFlightBatches;
+        this.inFlight = new Semaphore(maxInFlightBatches);
+    }
+
+    @Override
+    public String newDocumentId() {
+        return "doc-" + ids.incrementAndGet();
+    }
+
+    @Override
+    public ApiFuture<?> merge(String documentId, Map<String, Object> data) {
+        SettableApiFuture<Void> future = SettableApiFuture.create();
+        pending.add(() -> {
+            documents.computeIfAbsent(documentId, id -> new ConcurrentHashMap<>()).putAll(new HashMap<>(data));
+            future.set(null);
+        });
+        if (pending.size() >= BATCH_SIZE) {
+            send();
+        }
+        return future;
+    }
+
+    @Override
+    public void close() {
+        if (!pending.isEmpty()) {
+            send();
+        }
+        inFlight.acquireUninterruptibly(maxInFlightBatches);
+        inFlight.release(maxInFlightBatches);
+        network.shutdown();
+    }
+
+    private void send() {
+        List<Runnable> batch = pending;
+        pending = new ArrayList<>();
+        inFlight.acquireUninterruptibly();
+        network.schedule(() -> {
+            batch.forEach(Runnable::run);
+            inFlight.release();
+        }, latencyMillis, TimeUnit.MILLISECONDS);
+    }
+}
@@ -0,0 +1,78 @@
+package itu.cloud.roadworks.service;
+
+import itu.cloud.roadworks.dto.SignalementNotification;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Rejeu après reconnexion : événements postérieurs au dernier numéro reçu, dans l'ordre des numéros,
+ * filtrés par le motif d'abonnement ; rechargement demandé si le flux a changé ou si le trou dépasse le tampon.
+ */
+class NotificationJournalTest {
+
+    private static final String TILE_A = "/topic/signalements/13/1/1/1";
+    private static final String TILE_B = "/topic/signalements/13/2/2/1";
+
+    @Test
+    void replaysMissedEventsInSequenceOrder() {
+        NotificationJournal journal = new NotificationJournal(10);
+        record(journal, TILE_A, TILE_B, TILE_A, NotificationTopics.GLOBAL);
+
+        NotificationJournal.Replay replay = journal.since(journal.getStream(), 1, "/topic/signalements/**");
+
+        assertEquals(4L, replay.latestSequence());
+        assertEquals(List.of(2L, 3L, 4L), sequences(replay));
+    }
+
+    @Test
+    void replayIsFilteredByDestinationPattern() {
+        NotificationJournal journal = new NotificationJournal(10);
+        record(journal, TILE_A, TILE_B, TILE_A, NotificationTopics.GLOBAL);
+
+        assertEquals(List.of(1L, 3L), sequences(journal.since(journal.getStream(), 0, "/topic/signalements/13/1/**")));
+        assertEquals(List.of(1L, 2L, 3L, 4L), sequences(journal.since(journal.getStream(), 0, null)));
+    }
+
+    @Test
+    void upToDateClientGetsNoEvents() {
+        NotificationJournal journal = new NotificationJournal(10);
+        record(journal, TILE_A, TILE_B);
+
+        assertEquals(List.of(), sequences(journal.since(journal.getStream(), 2, null)));
+    }
+
+    @Test
+    void gapLargerThanBufferRequiresReload() {
+        NotificationJournal journal = new NotificationJournal(3);
+        record(journal, TILE_A, TILE_A, TILE_A, TILE_A, TILE_A);
+
+        // Tampon : 3, 4, 5. Depuis 2, rien ne manque ; depuis 1, l'événement 2 est perdu
+        assertEquals(List.of(3L, 4L, 5L), sequences(journal.since(journal.getStream(), 2, null)));
+        assertTrue(journal.since(journal.getStream(), 1, null).events().isEmpty());
+    }
+
+    @Test
+    void otherStreamOrFutureSequenceRequiresReload() {
+        NotificationJournal journal = new NotificationJournal(10);
+        record(journal, TILE_A);
+
+        NotificationJournal.Replay otherStream = journal.since("redemarrage", 0, null);
+        assertTrue(otherStream.events().isEmpty());
+        assertEquals(journal.getStream(), otherStream.stream());
+        assertTrue(journal.since(journal.getStream(), 5, null).events().isEmpty());
+    }
+
+    private static void record(NotificationJournal journal, String... destinations) {
+        for (String destination : destinations) {
+            journal.record(destination, SignalementNotification.builder().type("STATUS_UPDATED").build());
+        }
+    }
+
+    private static List<Long> sequences(NotificationJournal.Replay replay) {
+        return replay.events().orElseThrow().stream().map(SignalementNotification::getSequence).toList();
+    }
+}
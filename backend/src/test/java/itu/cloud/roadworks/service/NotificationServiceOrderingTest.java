@@ -0,0 +1,98 @@
+package itu.cloud.roadworks.service;
+
+import itu.cloud.roadworks.dto.SignalementNotification;
+import itu.cloud.roadworks.dto.SyncJobDto;
+import itu.cloud.roadworks.model.Signalement;
+import itu.cloud.roadworks.model.TypeProblem;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Numérotation au moment de l'envoi : les trames de plusieurs destinations, regroupées par fenêtre,
+ * partent avec des numéros croissants (un client abonné à /topic/signalements/** n'en écarte aucune).
+ */
+class NotificationServiceOrderingTest {
+
+    private static final String TILE_A = "/topic/signalements/13/1/1/1";
+    private static final String TILE_B = "/topic/signalements/13/2/2/1";
+
+    private SimpMessagingTemplate messagingTemplate;
+    private NotificationTopics topics;
+    private NotificationJournal journal;
+    private NotificationService service;
+
+    @BeforeEach
+    void setUp() {
+        messagingTemplate = mock(SimpMessagingTemplate.class);
+        topics = mock(NotificationTopics.class);
+        journal = new NotificationJournal(100);
+        // Fenêtre longue : les trames ne partent qu'à l'arrêt, ce qui fixe l'ordre des envois
+        service = new NotificationService(messagingTemplate, mock(OutboxService.class), topics, journal,
+                mock(SseNotificationBroadcaster.class), 60_000);
+    }
+
+    @Test
+    void sequencesFollowSendOrderAcrossDestinations() {
+        when(topics.reportDestination(eq("A"), any())).thenReturn(TILE_A);
+        when(topics.reportDestination(eq("B"), any())).thenReturn(TILE_B);
+
+        // A ouvre sa fenêtre avant B, mais reçoit encore une modification après B
+        service.notifySignalementUpdated(signalement(1L, "A"), "nouveau");
+        service.notifySignalementUpdated(signalement(2L, "B"), "nouveau");
+        service.notifySignalementUpdated(signalement(3L, "A"), "en cours");
+        service.shutdown();
+
+        ArgumentCaptor<Object> frames = ArgumentCaptor.forClass(Object.class);
+        verify(messagingTemplate, times(2)).convertAndSend(anyString(), frames.capture());
+
+        List<Long> sent = new ArrayList<>();
+        for (Object frame : frames.getAllValues()) {
+            SignalementNotification notification = (SignalementNotification) frame;
+            List<SignalementNotification> items = notification.getItems() != null
+                    ? notification.getItems() : List.of(notification);
+            items.forEach(item -> sent.add(item.getSequence()));
+            // Numéro d'une trame regroupée : celui de sa dernière modification
+            assertEquals(items.get(items.size() - 1).getSequence(), notification.getSequence());
+        }
+        assertEquals(List.of(1L, 2L, 3L), sent);
+        assertEquals(3L, journal.latestSequence());
+    }
+
+    @Test
+    void progressIsSentInBatchButNotNumbered() {
+        service.notifySyncProgress(SyncJobDto.builder().id("job-1").status("RUNNING").total(10).processed(5).build());
+        service.notifySyncCompleted(10);
+        service.shutdown();
+
+        ArgumentCaptor<Object> frame = ArgumentCaptor.forClass(Object.class);
+        verify(messagingTemplate).convertAndSend(eq(NotificationTopics.GLOBAL), frame.capture());
+        SignalementNotification batch = (SignalementNotification) frame.getValue();
+        assertEquals("BATCH", batch.getType());
+        assertNull(batch.getItems().get(0).getSequence());
+        assertEquals(1L, batch.getSequence());
+        assertEquals(1L, journal.latestSequence());
+    }
+
+    private static Signalement signalement(Long id, String location) {
+        return Signalement.builder()
+                .id(id)
+                .location(location)
+                .typeProblem(TypeProblem.builder().id(1L).libelle("Nid-de-poule").build())
+                .build();
+    }
+}
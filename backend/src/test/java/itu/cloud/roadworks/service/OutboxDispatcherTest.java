@@ -0,0 +1,155 @@
+package itu.cloud.roadworks.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import itu.cloud.roadworks.model.OutboxEvent;
+import itu.cloud.roadworks.repository.OutboxEventRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Transitions d'un événement de l'outbox : envoyé (ligne supprimée), réessayé avec un délai tiré dans
+ * [plafond / 2, plafond], ou passé en DEAD après max-attempts échecs. FCM et la base sont simulés.
+ */
+class OutboxDispatcherTest {
+
+    private static final int BATCH_SIZE = 10;
+    private static final int MAX_ATTEMPTS = 4;
+    private static final long BACKOFF_MS = 2000;
+    private static final long MAX_BACKOFF_MS = 600000;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private OutboxEventRepository repository;
+    private FcmService fcmService;
+    private OutboxDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(OutboxEventRepository.class);
+        fcmService = mock(FcmService.class);
+        dispatcher = new OutboxDispatcher(repository, fcmService, objectMapper, mock(PlatformTransactionManager.class),
+                BATCH_SIZE, MAX_ATTEMPTS, BACKOFF_MS, MAX_BACKOFF_MS, 1000);
+    }
+
+    @Test
+    void successfulPushDeletesTheRow() throws Exception {
+        OutboxEvent event = pushEvent(0);
+        when(repository.lockDue(any(), anyInt())).thenReturn(List.of(event));
+        when(fcmService.sendPushesToReportOwners(any())).thenReturn(List.of(new FcmService.PushResult(true, null)));
+
+        dispatcher.dispatch();
+
+        verify(repository).delete(event);
+        assertEquals(1L, dispatcher.stats().get("sent"));
+    }
+
+    @Test
+    void pushWithoutRecipientIsDroppedNotRetried() throws Exception {
+        OutboxEvent event = pushEvent(0);
+        when(repository.lockDue(any(), anyInt())).thenReturn(List.of(event));
+        when(fcmService.sendPushesToReportOwners(any())).thenReturn(List.of(new FcmService.PushResult(false, null)));
+
+        dispatcher.dispatch();
+
+        verify(repository).delete(event);
+        assertEquals(1L, dispatcher.stats().get("dropped"));
+        assertEquals(0, event.getAttempts());
+    }
+
+    @Test
+    void transientErrorReschedulesWithinJitterBounds() throws Exception {
+        for (int previousAttempts = 0; previousAttempts < MAX_ATTEMPTS - 1; previousAttempts++) {
+            OutboxEvent event = pushEvent(previousAttempts);
+            when(repository.lockDue(any(), anyInt())).thenReturn(List.of(event));
+            when(fcmService.sendPushesToReportOwners(any()))
+                    .thenReturn(List.of(new FcmService.PushResult(false, new IllegalStateException("QUOTA_EXCEEDED"))));
+
+            Instant before = Instant.now();
+            dispatcher.dispatch();
+            Instant after = Instant.now();
+
+            long ceiling = Math.min(MAX_BACKOFF_MS, BACKOFF_MS << previousAttempts);
+            assertEquals(OutboxEvent.PENDING, event.getStatus());
+            assertEquals(previousAttempts + 1, event.getAttempts());
+            assertEquals("QUOTA_EXCEEDED", event.getLastError());
+            assertTrue(!event.getNextAttemptAt().isBefore(before.plusMillis(ceiling / 2)),
+                    "délai inférieur à la moitié du plafond : " + event.getNextAttemptAt());
+            assertTrue(!event.getNextAttemptAt().isAfter(after.plusMillis(ceiling)),
+                    "délai supérieur au plafond : " + event.getNextAttemptAt());
+            verify(repository, never()).delete(event);
+        }
+        assertEquals((long) MAX_ATTEMPTS - 1, dispatcher.stats().get("retried"));
+    }
+
+    @Test
+    void failedFcmCallReschedulesTheWholeBatch() throws Exception {
+        OutboxEvent first = pushEvent(0);
+        OutboxEvent second = pushEvent(0);
+        when(repository.lockDue(any(), anyInt())).thenReturn(List.of(first, second));
+        when(fcmService.sendPushesToReportOwners(any())).thenThrow(new IllegalStateException("FCM indisponible"));
+
+        dispatcher.dispatch();
+
+        assertEquals(1, first.getAttempts());
+        assertEquals(1, second.getAttempts());
+        verify(repository, never()).delete(any(OutboxEvent.class));
+    }
+
+    @Test
+    void lastAttemptMovesTheEventToDead() throws Exception {
+        OutboxEvent event = pushEvent(MAX_ATTEMPTS - 1);
+        Instant scheduled = event.getNextAttemptAt();
+        when(repository.lockDue(any(), anyInt())).thenReturn(List.of(event));
+        when(fcmService.sendPushesToReportOwners(any()))
+                .thenReturn(List.of(new FcmService.PushResult(false, new IllegalStateException("INTERNAL"))));
+
+        dispatcher.dispatch();
+
+        assertEquals(OutboxEvent.DEAD, event.getStatus());
+        assertEquals(MAX_ATTEMPTS, event.getAttempts());
+        assertEquals(scheduled, event.getNextAttemptAt());
+        assertEquals(1L, dispatcher.stats().get("deadLettered"));
+        verify(repository, never()).delete(event);
+    }
+
+    @Test
+    void permanentErrorIsDeadLetteredWithoutRetry() throws Exception {
+        OutboxEvent event = pushEvent(0);
+        when(repository.lockDue(any(), anyInt())).thenReturn(List.of(event));
+        when(fcmService.sendPushesToReportOwners(any()))
+                .thenReturn(List.of(new FcmService.PushResult(false, new IllegalStateException("INVALID_ARGUMENT"), true)));
+
+        dispatcher.dispatch();
+
+        assertEquals(OutboxEvent.DEAD, event.getStatus());
+        assertEquals(1, event.getAttempts());
+        assertEquals("INVALID_ARGUMENT", event.getLastError());
+        assertEquals(1L, dispatcher.stats().get("deadLettered"));
+        assertEquals(0L, dispatcher.stats().get("retried"));
+        verify(repository, never()).delete(event);
+    }
+
+    private OutboxEvent pushEvent(int attempts) throws Exception {
+        return OutboxEvent.builder()
+                .id((long) attempts + 1)
+                .type(OutboxService.FCM_PUSH)
+                .aggregateId("report-1")
+                .payload(objectMapper.writeValueAsString(new OutboxService.FcmPush("report-1", "Statut mis à jour", "en cours")))
+                .status(OutboxEvent.PENDING)
+                .attempts(attempts)
+                .nextAttemptAt(Instant.now())
+                .build();
+    }
+}
@@ -0,0 +1,125 @@
+package itu.cloud.roadworks.service;
+
+import itu.cloud.roadworks.model.Account;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Expiration (fin de session ou TTL), éviction LRU, vidage par token et par compte (refait après le commit),
+ * compteurs exposés par /api/auth/session-cache.
+ */
+class SessionCacheTest {
+
+    private static final long TTL_MS = 60_000;
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void cachedSessionIsServedUntilItExpires() {
+        SessionCache cache = new SessionCache(TTL_MS, 10);
+        Account account = account(1L);
+
+        cache.put("token-a", account, Instant.now().plusSeconds(3600));
+        cache.put("token-b", account(2L), Instant.now().minusSeconds(1));
+
+        assertSame(account, cache.get("token-a").orElseThrow());
+        // Session terminée en base avant le TTL : plus servie, et retirée du cache
+        assertTrue(cache.get("token-b").isEmpty());
+        assertEquals(1, cache.stats().get("size"));
+    }
+
+    @Test
+    void ttlCapsEntriesOfLongSessions() throws Exception {
+        SessionCache cache = new SessionCache(20, 10);
+        cache.put("token-a", account(1L), Instant.now().plusSeconds(3600));
+
+        Thread.sleep(50);
+
+        assertTrue(cache.get("token-a").isEmpty());
+    }
+
+    @Test
+    void leastRecentlyUsedSessionIsEvictedFirst() {
+        SessionCache cache = new SessionCache(TTL_MS, 2);
+        Instant end = Instant.now().plusSeconds(3600);
+        cache.put("token-a", account(1L), end);
+        cache.put("token-b", account(2L), end);
+
+        // token-a vient d'être utilisé : token-b est le moins récent
+        cache.get("token-a");
+        cache.put("token-c", account(3L), end);
+
+        assertTrue(cache.get("token-a").isPresent());
+        assertTrue(cache.get("token-b").isEmpty());
+        assertTrue(cache.get("token-c").isPresent());
+        assertEquals(1L, cache.stats().get("evictions"));
+    }
+
+    @Test
+    void evictTokenAndAccountRemoveOnlyTheirSessions() {
+        SessionCache cache = new SessionCache(TTL_MS, 10);
+        Instant end = Instant.now().plusSeconds(3600);
+        cache.put("token-a1", account(1L), end);
+        cache.put("token-a2", account(1L), end);
+        cache.put("token-b", account(2L), end);
+
+        cache.evictToken("token-b");
+        assertTrue(cache.get("token-b").isEmpty());
+        assertTrue(cache.get("token-a1").isPresent());
+
+        cache.evictAccount(1L);
+        assertTrue(cache.get("token-a1").isEmpty());
+        assertTrue(cache.get("token-a2").isEmpty());
+    }
+
+    @Test
+    void evictAccountIsRepeatedAfterCommit() {
+        SessionCache cache = new SessionCache(TTL_MS, 10);
+        Instant end = Instant.now().plusSeconds(3600);
+        TransactionSynchronizationManager.initSynchronization();
+
+        cache.put("token-a", account(1L), end);
+        cache.evictAccount(1L);
+        // Validation concurrente avant le commit : l'ancien état du compte revient en cache
+        cache.put("token-a", account(1L), end);
+        assertTrue(cache.get("token-a").isPresent());
+
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+
+        assertTrue(cache.get("token-a").isEmpty());
+    }
+
+    @Test
+    void statsCountHitsAndMisses() {
+        SessionCache cache = new SessionCache(TTL_MS, 10);
+        cache.put("token-a", account(1L), Instant.now().plusSeconds(3600));
+
+        cache.get("token-a");
+        cache.get("token-a");
+        cache.get("inconnu");
+
+        var stats = cache.stats();
+        assertEquals(2L, stats.get("hits"));
+        assertEquals(1L, stats.get("misses"));
+        assertEquals(2.0 / 3, (double) stats.get("hitRatio"), 1e-9);
+    }
+
+    private static Account account(Long id) {
+        return Account.builder().id(id).build();
+    }
+}
@@ -0,0 +1,214 @@
+package itu.cloud.roadworks.service;
+
+import itu.cloud.roadworks.RoadworksApplication;
+import itu.cloud.roadworks.dto.SignalementFilter;
+import itu.cloud.roadworks.dto.SignalementProblemDto;
+import itu.cloud.roadworks.dto.SignalementProblemPageDto;
+import itu.cloud.roadworks.model.Account;
+import itu.cloud.roadworks.model.Company;
+import itu.cloud.roadworks.model.Role;
+import itu.cloud.roadworks.model.Signalement;
+import itu.cloud.roadworks.model.SignalementPhoto;
+import itu.cloud.roadworks.model.SignalementStatus;
+import itu.cloud.roadworks.model.SignalementWork;
+import itu.cloud.roadworks.model.StatusSignalement;
+import itu.cloud.roadworks.model.TypeProblem;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.AutoConfigurationPackage;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ContextConfiguration;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.ExecutorService;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Vérifie que la liste des signalements coûte un nombre fixe de requêtes SQL,
+ * quel que soit le nombre de signalements, statuts, travaux et photos.
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:roadworks;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        // Colonnes TIMESTAMP sans fuseau, comme database/init-database.sql
+        "spring.jpa.properties.hibernate.type.preferred_instant_jdbc_type=TIMESTAMP"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ContextConfiguration(classes = SignalementServiceQueryCountTest.JpaSlice.class)
+@Import(SignalementService.class)
+class SignalementServiceQueryCountTest {
+
+    /**
+     * Configuration explicite : entités et repositories de l'application, sans dépendre de la configuration
+     * trouvée par recherche dans les paquets.
+     */
+    @Configuration(proxyBeanMethods = false)
+    @AutoConfigurationPackage(basePackageClasses = RoadworksApplication.class)
+    static class JpaSlice {
+    }
+
+    @Autowired
+    private SignalementService service;
+
+    @Autowired
+    private TestEntityManager em;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @MockBean
+    private BudgetForfaitaireService budgetForfaitaireService;
+
+    @MockBean
+    private FirebaseService firebaseService;
+
+    @MockBean
+    private NotificationService notificationService;
+
+    @MockBean
+    private OutboxService outboxService;
+
+    @MockBean
+    private PhotoStore photoStore;
+
+    @MockBean
+    private PhotoVariantPipeline photoVariantPipeline;
+
+    @MockBean
+    private UnsyncedReportIndex unsyncedReportIndex;
+
+    @MockBean
+    private FirestoreReportReader reportReader;
+
+    @MockBean(name = "firebaseSyncExecutor")
+    private ExecutorService firebaseSyncExecutor;
+
+    private Account account;
+    private TypeProblem type;
+    private StatusSignalement nouveau;
+    private StatusSignalement enCours;
+    private Company company;
+    private Instant base;
+    private int created;
+
+    @BeforeEach
+    void setUp() {
+        Role role = em.persist(Role.builder().libelle("manager").build());
+        account = em.persist(Account.builder()
+                .username("admin")
+                .pwd("x")
+                .role(role)
+                .createdAt(Instant.now())
+                .isActive(true)
+                .isLocked(false)
+                .attempts(0)
+                .build());
+        type = em.persist(TypeProblem.builder().libelle("pothole").icone("🕳️").build());
+        nouveau = em.persist(StatusSignalement.builder().libelle("nouveau").build());
+        enCours = em.persist(StatusSignalement.builder().libelle("en_cours").build());
+        company = em.persist(Company.builder()
+                .name("BTP Antananarivo")
+                .siret("12345678900010")
+                .address("1 Rue de l'Independance")
+                .createdAt(Instant.now())
+                .build());
+        base = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+    }
+
+    @Test
+    void listCostsSameNumberOfStatementsForSmallAndLargeTables() {
+        createSignalements(3);
+        long small = countStatements(() -> service.findAllProblems());
+
+        createSignalements(30);
+        long large = countStatements(() -> service.findAllProblems());
+
+        assertEquals(2, small, "projection + résumé des photos");
+        assertEquals(small, large);
+    }
+
+    @Test
+    void pageUsesLatestStatusAndWorkAndCursorContinues() {
+        createSignalements(5);
+
+        long statements = countStatements(() -> service.findProblemsPage(new SignalementFilter(), null, 2));
+        assertEquals(2, statements);
+
+        SignalementProblemPageDto first = service.findProblemsPage(new SignalementFilter(), null, 2);
+        assertEquals(2, first.getItems().size());
+        assertNotNull(first.getNextCursor());
+
+        SignalementProblemDto newest = first.getItems().get(0);
+        assertEquals("en_cours", newest.getDetail().getEtat());
+        assertEquals(company.getId(), newest.getWork().getCompany().getId());
+        assertEquals(2, newest.getPhotoCount());
+        assertEquals(2, newest.getPhotoIds().size());
+
+        SignalementProblemPageDto last = service.findProblemsPage(new SignalementFilter(), first.getNextCursor(), 3);
+        assertEquals(3, last.getItems().size());
+        assertNull(last.getNextCursor());
+    }
+
+    private void createSignalements(int count) {
+        for (int i = 0; i < count; i++) {
+            Instant createdAt = base.plusSeconds(created++);
+            Signalement signalement = em.persist(Signalement.builder()
+                    .account(account)
+                    .typeProblem(type)
+                    .descriptions("Signalement " + i)
+                    .location("-18.87,47.50")
+                    .createdAt(createdAt)
+                    .build());
+            em.persist(SignalementStatus.builder()
+                    .signalement(signalement)
+                    .statusSignalement(nouveau)
+                    .updatedAt(createdAt)
+                    .build());
+            em.persist(SignalementStatus.builder()
+                    .signalement(signalement)
+                    .statusSignalement(enCours)
+                    .updatedAt(createdAt.plusSeconds(60))
+                    .build());
+            em.persist(SignalementWork.builder()
+                    .signalement(signalement)
+                    .company(company)
+                    .startDate(LocalDate.now())
+                    .price(BigDecimal.valueOf(1000))
+                    .build());
+            for (int order = 1; order <= 2; order++) {
+                em.persist(SignalementPhoto.builder()
+                        .signalement(signalement)
+                        .photoData("data:image/jpeg;base64,AAAA")
+                        .photoOrder(order)
+                        .build());
+            }
+        }
+        em.flush();
+        em.clear();
+    }
+
+    private long countStatements(Runnable action) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        action.run();
+        return statistics.getPrepareStatementCount();
+    }
+}
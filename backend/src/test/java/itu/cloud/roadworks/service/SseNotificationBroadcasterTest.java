@@ -0,0 +1,110 @@
+package itu.cloud.roadworks.service;
+
+import itu.cloud.roadworks.dto.SignalementNotification;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Un client qui ne lit plus (envoi bloqué) ne retarde pas les autres : sa file se remplit, il est déconnecté,
+ * et son émetteur n'est terminé qu'une fois son envoi bloqué rendu.
+ */
+class SseNotificationBroadcasterTest {
+
+    private static final String DESTINATION = "/topic/signalements/13/1/1/1";
+    private static final int BUFFER_SIZE = 8;
+
+    private final NotificationJournal journal = new NotificationJournal(100);
+    private final SseNotificationBroadcaster broadcaster = new SseNotificationBroadcaster(journal, 0, 0, BUFFER_SIZE, 2);
+
+    @AfterEach
+    void tearDown() {
+        broadcaster.stop();
+    }
+
+    @Test
+    void stalledClientIsDisconnectedWithoutDelayingOthers() throws Exception {
+        CountDownLatch unblock = new CountDownLatch(1);
+        StalledEmitter stalled = new StalledEmitter(unblock);
+        CountingEmitter healthy = new CountingEmitter();
+        broadcaster.register(stalled, null, null);
+        broadcaster.register(healthy, null, null);
+        // Connexion établie (commentaire "connecté") : le client bloqué est dans son premier envoi
+        assertTrue(stalled.sending.await(5, TimeUnit.SECONDS));
+        healthy.awaitSent(1);
+
+        int events = BUFFER_SIZE * 3;
+        for (int i = 0; i < events; i++) {
+            SignalementNotification notification = SignalementNotification.builder().type("STATUS_UPDATED").build();
+            journal.record(DESTINATION, notification);
+            broadcaster.broadcast(DESTINATION, notification);
+            healthy.awaitSent(i + 2);
+        }
+
+        assertEquals(1L, broadcaster.stats().get("closedSlow"));
+        assertEquals(1, broadcaster.stats().get("connections"));
+        assertEquals(0, stalled.completed.get());
+
+        unblock.countDown();
+        assertTrue(stalled.completedLatch.await(5, TimeUnit.SECONDS));
+        assertEquals(1, stalled.completed.get());
+    }
+
+    private static final class CountingEmitter extends SseEmitter {
+        private final AtomicInteger sent = new AtomicInteger();
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            synchronized (sent) {
+                sent.incrementAndGet();
+                sent.notifyAll();
+            }
+        }
+
+        void awaitSent(int expected) throws InterruptedException {
+            long deadline = System.currentTimeMillis() + 5000;
+            synchronized (sent) {
+                while (sent.get() < expected && System.currentTimeMillis() < deadline) {
+                    sent.wait(100);
+                }
+            }
+            assertEquals(expected, sent.get(), "événements reçus par le client");
+        }
+    }
+
+    private static final class StalledEmitter extends SseEmitter {
+        private final CountDownLatch unblock;
+        private final CountDownLatch sending = new CountDownLatch(1);
+        private final CountDownLatch completedLatch = new CountDownLatch(1);
+        private final AtomicInteger completed = new AtomicInteger();
+
+        private StalledEmitter(CountDownLatch unblock) {
+            this.unblock = unblock;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            sending.countDown();
+            try {
+                unblock.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException(e);
+            }
+        }
+
+        @Override
+        public void complete() {
+            completed.incrementAndGet();
+            completedLatch.countDown();
+        }
+    }
+}
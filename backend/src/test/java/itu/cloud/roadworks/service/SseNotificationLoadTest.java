@@ -0,0 +1,194 @@
+package itu.cloud.roadworks.service;
+
+import itu.cloud.roadworks.api.NotificationApi;
+import itu.cloud.roadworks.dto.SignalementNotification;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.http.HttpMessageConvertersAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.DispatcherServletAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.ServletWebServerFactoryAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.WebMvcAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Instant;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Charge du flux SSE sur un Tomcat réel limité à 50 threads : des milliers de connexions inactives ouvertes en même
+ * temps reçoivent chaque événement et les battements de cœur, ce qui n'est possible que sans thread par connexion ;
+ * puis reprise d'une connexion par Last-Event-ID.
+ * Désactivé par défaut : mvn test -Pbenchmark -Dtest=SseNotificationLoadTest
+ * (options : -Dbenchmark.sse.connections=2000 -Dbenchmark.sse.events=20 ; prévoir ulimit -n au-dessus de 2 × connexions)
+ */
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        classes = SseNotificationLoadTest.SseTestApplication.class,
+        properties = {
+                "server.tomcat.threads.max=50",
+                "server.tomcat.max-connections=20000",
+                "sse.heartbeat-ms=1000"
+        })
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@Tag("benchmark")
+class SseNotificationLoadTest {
+
+    private static final String DESTINATION = "/topic/signalements/13/5000/4000/1";
+    private static final int TOMCAT_THREADS = 50;
+
+    /**
+     * Web MVC et la diffusion seuls : ni base ni Firebase.
+     * Simple @Configuration : une @SpringBootConfiguration de ce paquet serait trouvée par les autres tests
+     * (recherche de la configuration de l'application) à la place de RoadworksApplication.
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ImportAutoConfiguration({
+            ServletWebServerFactoryAutoConfiguration.class,
+            DispatcherServletAutoConfiguration.class,
+            WebMvcAutoConfiguration.class,
+            HttpMessageConvertersAutoConfiguration.class,
+            JacksonAutoConfiguration.class
+    })
+    @Import({NotificationApi.class, NotificationJournal.class, NotificationTopics.class,
+            SseNotificationBroadcaster.class, WebSocketMetrics.class})
+    static class SseTestApplication {
+    }
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private NotificationJournal journal;
+
+    @Autowired
+    private SseNotificationBroadcaster broadcaster;
+
+    private final HttpClient http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+    /**
+     * Compte les lignes du flux : connexion établie, événements, battements de cœur.
+     */
+    private static final class StreamCounter implements Flow.Subscriber<String> {
+        private final CountDownLatch connected;
+        private final CountDownLatch events;
+        private final CountDownLatch heartbeats;
+        private boolean seenConnected;
+        private boolean seenHeartbeat;
+
+        private StreamCounter(CountDownLatch connected, CountDownLatch events, CountDownLatch heartbeats) {
+            this.connected = connected;
+            this.events = events;
+            this.heartbeats = heartbeats;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            subscription.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(String line) {
+            if (line.startsWith(":connecté") && !seenConnected) {
+                seenConnected = true;
+                connected.countDown();
+            } else if (line.startsWith(":heartbeat") && !seenHeartbeat) {
+                seenHeartbeat = true;
+                heartbeats.countDown();
+            } else if (line.startsWith("data:")) {
+                events.countDown();
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+        }
+
+        @Override
+        public void onComplete() {
+        }
+    }
+
+    @Test
+    void idleConnectionsReceiveEveryEvent() throws Exception {
+        int connections = Integer.getInteger("benchmark.sse.connections", 2000);
+        int eventCount = Integer.getInteger("benchmark.sse.events", 20);
+
+        CountDownLatch connected = new CountDownLatch(connections);
+        CountDownLatch events = new CountDownLatch(connections * eventCount);
+        CountDownLatch heartbeats = new CountDownLatch(connections);
+        long start = System.nanoTime();
+        for (int i = 0; i < connections; i++) {
+            http.sendAsync(request(null), HttpResponse.BodyHandlers.fromLineSubscriber(
+                    new StreamCounter(connected, events, heartbeats)));
+        }
+        assertTrue(connected.await(120, TimeUnit.SECONDS), "connexions établies : " + (connections - connected.getCount()));
+        System.out.printf("%,d connexions SSE ouvertes en %.2f s, %d threads Tomcat au plus%n",
+                connections, (System.nanoTime() - start) / 1_000_000_000.0, TOMCAT_THREADS);
+
+        start = System.nanoTime();
+        for (int i = 0; i < eventCount; i++) {
+            publish(i);
+        }
+        assertTrue(events.await(120, TimeUnit.SECONDS), "événements manquants : " + events.getCount());
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        System.out.printf("%,d événements × %,d connexions livrés en %.2f s (%.0f envois/s)%n",
+                eventCount, connections, seconds, connections * eventCount / seconds);
+
+        assertTrue(heartbeats.await(30, TimeUnit.SECONDS), "connexions sans battement de cœur : " + heartbeats.getCount());
+        System.out.println("Diffusion SSE : " + broadcaster.stats());
+    }
+
+    @Test
+    void reconnectionReplaysMissedEvents() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            publish(i);
+        }
+        long latest = journal.latestSequence();
+
+        CountDownLatch connected = new CountDownLatch(1);
+        CountDownLatch events = new CountDownLatch(5);
+        http.sendAsync(request(journal.getStream() + ":" + (latest - 5)), HttpResponse.BodyHandlers.fromLineSubscriber(
+                new StreamCounter(connected, events, new CountDownLatch(1))));
+
+        assertTrue(events.await(30, TimeUnit.SECONDS), "événements rejoués manquants : " + events.getCount());
+    }
+
+    private HttpRequest request(String lastEventId) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create("http://localhost:" + port
+                        + "/api/notifications/stream?destination=/topic/signalements/**"))
+                .header("Accept", "text/event-stream");
+        if (lastEventId != null) {
+            builder.header("Last-Event-ID", lastEventId);
+        }
+        return builder.GET().build();
+    }
+
+    /**
+     * Même chemin que NotificationService : numérotation puis diffusion.
+     */
+    private void publish(int index) {
+        SignalementNotification notification = SignalementNotification.builder()
+                .type("STATUS_UPDATED")
+                .signalementId((long) index)
+                .status("en cours")
+                .timestamp(Instant.now())
+                .message("Statut mis à jour: en cours")
+                .build();
+        journal.record(DESTINATION, notification);
+        broadcaster.broadcast(DESTINATION, notification);
+    }
+}
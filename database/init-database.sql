@@ -22,6 +22,8 @@ DROP TABLE IF EXISTS status_account CASCADE;
 DROP TABLE IF EXISTS type_problem CASCADE;
 DROP TABLE IF EXISTS role CASCADE;
 DROP TABLE IF EXISTS config CASCADE;
+DROP TABLE IF EXISTS sync_checkpoint CASCADE;
+DROP TABLE IF EXISTS outbox_event CASCADE;
 DROP TABLE IF EXISTS security_log CASCADE;
 DROP TABLE IF EXISTS advancement_rate CASCADE;
 
@@ -71,6 +73,31 @@ CREATE TABLE config (
 
 COMMENT ON TABLE config IS 'Configuration système (tentatives max de connexion, durée session en minutes)';
 
+-- Points de reprise des synchronisations incrémentales
+CREATE TABLE sync_checkpoint (
+    name VARCHAR(100) PRIMARY KEY,
+    last_timestamp TIMESTAMP,
+    last_document_id VARCHAR(255),
+    updated_at TIMESTAMP NOT NULL DEFAULT NOW()
+);
+
+COMMENT ON TABLE sync_checkpoint IS 'Dernier document Firestore traité (createdAt + id) par flux de synchronisation';
+
+-- Effets de bord Firebase/FCM écrits dans la même transaction que la modification, envoyés en tâche de fond
+CREATE TABLE outbox_event (
+    id BIGSERIAL PRIMARY KEY,
+    type VARCHAR(30) NOT NULL,
+    aggregate_id VARCHAR(255),
+    payload TEXT NOT NULL,
+    status VARCHAR(20) NOT NULL DEFAULT 'PENDING',
+    attempts INTEGER NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP NOT NULL DEFAULT NOW(),
+    last_error TEXT,
+    created_at TIMESTAMP NOT NULL DEFAULT NOW()
+);
+
+COMMENT ON TABLE outbox_event IS 'Outbox transactionnelle : push FCM à envoyer (PENDING) ou abandonnées après échecs répétés (DEAD)';
+
 -- Table des taux d'avancement par statut
 CREATE TABLE advancement_rate (
     id BIGSERIAL PRIMARY KEY,
@@ -138,6 +165,7 @@ CREATE TABLE signalement (
     picture TEXT,
     surface NUMERIC(12,2),
     firebase_id VARCHAR(255) UNIQUE,
+    firebase_payload_hash VARCHAR(64),
     CONSTRAINT fk_signalement_account FOREIGN KEY (id_account) REFERENCES account(id) ON DELETE CASCADE,
     CONSTRAINT fk_signalement_type FOREIGN KEY (id_type_problem) REFERENCES type_problem(id)
 );
@@ -145,18 +173,22 @@ CREATE TABLE signalement (
 COMMENT ON TABLE signalement IS 'Table principale des signalements de problèmes routiers';
 COMMENT ON COLUMN signalement.location IS 'Coordonnées GPS format: latitude,longitude';
 COMMENT ON COLUMN signalement.firebase_id IS 'ID du document Firebase pour synchronisation mobile';
+COMMENT ON COLUMN signalement.firebase_payload_hash IS 'Empreinte du dernier document envoyé à Firebase (synchronisation des seuls signalements modifiés)';
 
 -- Table des photos de signalement
 CREATE TABLE signalement_photo (
     id BIGSERIAL PRIMARY KEY,
     id_signalement BIGINT NOT NULL,
-    photo_data TEXT NOT NULL,
+    photo_data TEXT,
+    photo_hash VARCHAR(64),
+    preview_hash VARCHAR(64),
+    thumbnail TEXT,
     photo_order INTEGER,
     created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
     CONSTRAINT fk_signalement_photo_signalement FOREIGN KEY (id_signalement) REFERENCES signalement(id) ON DELETE CASCADE
 );
 
-COMMENT ON TABLE signalement_photo IS 'Photos associées aux signalements (Base64 ou URL)';
+COMMENT ON TABLE signalement_photo IS 'Photos associées aux signalements (URL, ou contenu binaire dans le store via photo_hash)';
 
 -- Table des statuts de signalement (historique)
 CREATE TABLE signalement_status (
@@ -226,8 +258,11 @@ CREATE INDEX idx_signalement_account ON signalement(id_account);
 CREATE INDEX idx_signalement_type ON signalement(id_type_problem);
 CREATE INDEX idx_signalement_firebase_id ON signalement(firebase_id);
 CREATE INDEX idx_signalement_created_at ON signalement(created_at);
+-- Pagination keyset de GET /api/signalements (ORDER BY created_at DESC, id DESC)
+CREATE INDEX idx_signalement_created_at_id ON signalement(created_at DESC, id DESC);
 
 CREATE INDEX idx_signalement_photo_signalement ON signalement_photo(id_signalement);
+CREATE INDEX idx_signalement_photo_hash ON signalement_photo(photo_hash);
 
 CREATE INDEX idx_signalement_status_signalement ON signalement_status(id_signalement);
 CREATE INDEX idx_signalement_status_updated ON signalement_status(updated_at);
@@ -246,6 +281,8 @@ CREATE INDEX idx_security_log_resource ON security_log(resource_type, resource_i
 
 CREATE INDEX idx_account_status_account ON account_status(id_account);
 
+CREATE INDEX idx_outbox_event_due ON outbox_event(status, next_attempt_at);
+
 -- ============================================================================
 -- PARTIE 5: CRÉATION DE LA VUE SIGNALEMENT_PROBLEM_VIEW
 -- ============================================================================
@@ -387,6 +424,14 @@ INSERT INTO signalement_work (id_signalement, id_company, start_date, end_date_e
 VALUES 
     (1, 1, CURRENT_DATE - 3, CURRENT_DATE + 4, 150000.00);
 
+-- Ids attribués par séquence côté Hibernate (allocationSize = 50) pour les INSERT par lots
+-- (à exécuter après les données initiales, qui supposent des ids consécutifs)
+ALTER SEQUENCE signalement_id_seq INCREMENT BY 50;
+ALTER SEQUENCE signalement_photo_id_seq INCREMENT BY 50;
+ALTER SEQUENCE signalement_status_id_seq INCREMENT BY 50;
+ALTER SEQUENCE signalement_work_id_seq INCREMENT BY 50;
+ALTER SEQUENCE outbox_event_id_seq INCREMENT BY 50;
+
 -- ============================================================================
 -- FIN DU SCRIPT
 -- ============================================================================
@@ -15,6 +15,8 @@ DROP TABLE IF EXISTS status_signalement CASCADE;
 DROP TABLE IF EXISTS type_problem CASCADE;
 DROP TABLE IF EXISTS role CASCADE;
 DROP TABLE IF EXISTS config CASCADE;
+DROP TABLE IF EXISTS sync_checkpoint CASCADE;
+DROP TABLE IF EXISTS outbox_event CASCADE;
 DROP TABLE IF EXISTS advancement_rate CASCADE;
 DROP TABLE IF EXISTS reparation_type CASCADE;
 
@@ -78,6 +80,25 @@ CREATE TABLE config (
     session_duration INTEGER NOT NULL DEFAULT 60
 );
 
+CREATE TABLE sync_checkpoint (
+    name VARCHAR(100) PRIMARY KEY,
+    last_timestamp TIMESTAMP,
+    last_document_id VARCHAR(255),
+    updated_at TIMESTAMP NOT NULL DEFAULT NOW()
+);
+
+CREATE TABLE outbox_event (
+    id BIGSERIAL PRIMARY KEY,
+    type VARCHAR(30) NOT NULL,
+    aggregate_id VARCHAR(255),
+    payload TEXT NOT NULL,
+    status VARCHAR(20) NOT NULL DEFAULT 'PENDING',
+    attempts INTEGER NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP NOT NULL DEFAULT NOW(),
+    last_error TEXT,
+    created_at TIMESTAMP NOT NULL DEFAULT NOW()
+);
+
 CREATE TABLE signalement (
     id BIGSERIAL PRIMARY KEY,
     id_account BIGINT NOT NULL REFERENCES account(id) ON DELETE CASCADE,
@@ -87,13 +108,17 @@ CREATE TABLE signalement (
     location VARCHAR(255) NOT NULL,
     picture TEXT,
     surface NUMERIC(12,2),
-    firebase_id VARCHAR(255) UNIQUE
+    firebase_id VARCHAR(255) UNIQUE,
+    firebase_payload_hash VARCHAR(64)
 );
 
 CREATE TABLE IF NOT EXISTS signalement_photo (
     id BIGSERIAL PRIMARY KEY,
     id_signalement BIGINT NOT NULL,
-    photo_data TEXT NOT NULL,
+    photo_data TEXT,
+    photo_hash VARCHAR(64),
+    preview_hash VARCHAR(64),
+    thumbnail TEXT,
     photo_order INTEGER,
     created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
     CONSTRAINT fk_signalement_photo_signalement
@@ -105,6 +130,9 @@ CREATE TABLE IF NOT EXISTS signalement_photo (
 CREATE INDEX IF NOT EXISTS idx_signalement_photo_signalement_id
     ON signalement_photo(id_signalement);
 
+CREATE INDEX IF NOT EXISTS idx_signalement_photo_hash
+    ON signalement_photo(photo_hash);
+
 CREATE TABLE signalement_status (
     id BIGSERIAL PRIMARY KEY,
     id_signalement BIGINT NOT NULL REFERENCES signalement(id) ON DELETE CASCADE,
@@ -177,9 +205,11 @@ CREATE INDEX IF NOT EXISTS idx_security_log_resource ON security_log(resource_ty
 CREATE INDEX idx_signalement_account ON signalement(id_account);
 CREATE INDEX idx_signalement_type ON signalement(id_type_problem);
 CREATE INDEX idx_signalement_firebase_id ON signalement(firebase_id);
+CREATE INDEX idx_signalement_created_at_id ON signalement(created_at DESC, id DESC);
 CREATE INDEX idx_signalement_status_signalement ON signalement_status(id_signalement);
 CREATE INDEX idx_signalement_work_signalement ON signalement_work(id_signalement);
 CREATE INDEX idx_session_account ON session(id_account);
+CREATE INDEX idx_outbox_event_due ON outbox_event(status, next_attempt_at);
 
 
 
@@ -237,3 +267,11 @@ INSERT INTO signalement_status (
     id_status_signalement)
 VALUES 
     (1, 1);
+
+-- Ids attribués par séquence côté Hibernate (allocationSize = 50) pour les INSERT par lots
+-- (à exécuter après les données initiales, qui supposent des ids consécutifs)
+ALTER SEQUENCE signalement_id_seq INCREMENT BY 50;
+ALTER SEQUENCE signalement_photo_id_seq INCREMENT BY 50;
+ALTER SEQUENCE signalement_status_id_seq INCREMENT BY 50;
+ALTER SEQUENCE signalement_work_id_seq INCREMENT BY 50;
+ALTER SEQUENCE outbox_event_id_seq INCREMENT BY 50;
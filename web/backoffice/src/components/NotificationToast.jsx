@@ -11,6 +11,8 @@ const getNotificationIcon = (type) => {
       return '🔧'
     case 'SYNC_COMPLETED':
       return '✅'
+    case 'BATCH':
+      return '📦'
     default:
       return '📢'
   }
@@ -1,10 +1,18 @@
-import { useState, useEffect, useCallback } from 'react'
+import { useState, useEffect, useCallback, useRef } from 'react'
 import { Client } from '@stomp/stompjs'
 import SockJS from 'sockjs-client'
 
-export function useNotifications(onNotification) {
+const DESTINATION = '/topic/signalements/**'
+
+// onResync : appelé quand les événements manqués pendant une déconnexion ne peuvent pas être rejoués
+// (redémarrage du serveur ou coupure trop longue) ; la page recharge alors ses données
+export function useNotifications(onNotification, onResync) {
   const [connected, setConnected] = useState(false)
   const [notifications, setNotifications] = useState([])
+  // Position dans le flux d'événements du serveur : identifiant du flux et dernier numéro reçu
+  const positionRef = useRef({ stream: null, sequence: 0 })
+  const onResyncRef = useRef(onResync)
+  onResyncRef.current = onResync
 
   const addNotification = useCallback((notification) => {
     const newNotif = {
@@ -38,19 +46,114 @@ export function useNotifications(onNotification) {
       },
     })
 
+    // Trames reçues en direct pendant le rejeu : appliquées après lui, sinon la première ferait avancer la
+    // position au-delà des événements manqués et le rejeu serait ignoré
+    let buffered = null
+    let connection = 0
+
+    // Une modification déjà reçue (rejeu et trame en direct qui se chevauchent) n'est traitée qu'une fois
+    const isNew = (notification) => {
+      if (notification.sequence == null) {
+        return true
+      }
+      if (notification.sequence <= positionRef.current.sequence) {
+        return false
+      }
+      positionRef.current.sequence = notification.sequence
+      return true
+    }
+
+    const handleNotification = (received) => {
+      let notification = received
+      // Trame regroupée : les notifications affichables sont dépliées, ou résumées si plusieurs
+      if (notification.type === 'BATCH') {
+        const items = (notification.items || []).filter((item) => item.type !== 'SYNC_PROGRESS' && isNew(item))
+        if (items.length === 0) {
+          return
+        }
+        notification = items.length === 1
+          ? items[0]
+          : {
+              ...notification,
+              items,
+              // Le résumé du serveur compte aussi l'avancement des synchronisations ou des doublons, filtrés ici
+              message: items.length === notification.items.length
+                ? notification.message
+                : `${items.length} notifications reçues`,
+            }
+      } else if (!isNew(notification)) {
+        return
+      }
+      // L'avancement des jobs de synchronisation est suivi par la page qui les lance, pas en toast
+      if (notification.type === 'SYNC_PROGRESS') {
+        return
+      }
+      console.log('Notification reçue:', notification)
+      addNotification(notification)
+    }
+
+    // Après une (re)connexion : rejoue les modifications manquées, ou demande un rechargement si impossible
+    const catchUp = async () => {
+      const current = ++connection
+      buffered = []
+      const { stream, sequence } = positionRef.current
+      const params = new URLSearchParams({ destination: DESTINATION })
+      if (stream) {
+        params.set('stream', stream)
+        params.set('since', sequence)
+      }
+      try {
+        const response = await fetch(`/api/notifications/replay?${params}`, {
+          headers: { 'Authorization': `Bearer ${localStorage.getItem('token')}` },
+        })
+        const data = await response.json()
+        if (response.status === 410) {
+          console.log('Rejeu impossible, rechargement des signalements')
+          positionRef.current = { stream: data.stream, sequence: data.latestSequence }
+          if (onResyncRef.current) onResyncRef.current()
+          return
+        }
+        if (!response.ok) {
+          throw new Error(data.error || `HTTP ${response.status}`)
+        }
+        positionRef.current.stream = data.stream
+        if (!stream) {
+          // Première connexion : la page vient de charger ses données, on suit le flux à partir d'ici
+          positionRef.current.sequence = Math.max(positionRef.current.sequence, data.latestSequence)
+        }
+        data.events.forEach(handleNotification)
+      } catch (e) {
+        console.error('Erreur lors du rejeu des notifications:', e)
+      } finally {
+        // Une reconnexion pendant le rejeu a lancé le sien : c'est lui qui videra le tampon
+        if (current === connection) {
+          const live = buffered
+          buffered = null
+          live
+            .sort((a, b) => (a.sequence ?? Infinity) - (b.sequence ?? Infinity))
+            .forEach(handleNotification)
+        }
+      }
+    }
+
     client.onConnect = () => {
       console.log('WebSocket connecté')
       setConnected(true)
 
-      client.subscribe('/topic/signalements', (message) => {
+      // Le back-office affiche toute la ville : toutes les tuiles et tous les types, plus les événements globaux
+      client.subscribe(DESTINATION, (message) => {
         try {
           const notification = JSON.parse(message.body)
-          console.log('Notification reçue:', notification)
-          addNotification(notification)
+          if (buffered) {
+            buffered.push(notification)
+          } else {
+            handleNotification(notification)
+          }
         } catch (e) {
           console.error('Erreur parsing notification:', e)
         }
       })
+      catchUp()
     }
 
     client.onDisconnect = () => {
@@ -1,5 +1,7 @@
 ﻿import { useEffect, useMemo, useState, useCallback } from 'react'
 import { useNavigate } from 'react-router-dom'
+import { runSyncJob } from '../syncJobs'
+import { fetchAllSignalements } from '../signalements'
 
 const normalizeStatus = (status) => {
   const s = (status || '').toString().toLowerCase()
@@ -80,17 +82,7 @@ export default function AnalyticsPage() {
   const fetchSignalements = useCallback(async () => {
     try {
       setLoading(true)
-      const response = await fetch('/api/signalements', {
-        method: 'GET',
-        headers: {
-          'Content-Type': 'application/json',
-          'Authorization': `Bearer ${token}`,
-        },
-      })
-
-      if (!response.ok) throw new Error('Erreur lors du chargement des signalements')
-
-      const data = await response.json()
+      const data = await fetchAllSignalements(token)
       const transformed = data.map(signalement => ({
         id: signalement.id,
         status: signalement.detail?.etat || 'nouveau',
@@ -335,19 +327,7 @@ export default function AnalyticsPage() {
     try {
       setSyncing(true)
       setSyncMessage('')
-      const response = await fetch('/api/signalements/sync/firebase', {
-        method: 'POST',
-        headers: {
-          'Content-Type': 'application/json',
-          'Authorization': `Bearer ${token}`,
-        },
-      })
-
-      if (!response.ok) {
-        throw new Error('Erreur lors de la synchronisation')
-      }
-
-      const data = await response.json()
+      const data = await runSyncJob('/api/signalements/sync/firebase', 'la synchronisation', token, setSyncMessage)
       setSyncMessage(`✓ ${data.imported} signalements importés depuis Firebase`)
       await fetchSignalements()
       await fetchUnsynced()
@@ -427,7 +407,7 @@ export default function AnalyticsPage() {
         </div>
 
         {syncMessage && (
-          <div className={syncMessage.startsWith('✓') ? 'success' : 'error'} style={{ marginBottom: '8px' }}>
+          <div className={syncMessage.startsWith('✗') ? 'error' : 'success'} style={{ marginBottom: '8px' }}>
             {syncMessage}
           </div>
         )}
@@ -2,6 +2,8 @@
 import { MapContainer, TileLayer, Marker, Popup } from 'react-leaflet'
 import { useNavigate } from 'react-router-dom'
 import { iconByType } from '../mapIcons'
+import { runSyncJob } from '../syncJobs'
+import { fetchAllSignalements } from '../signalements'
 import SignalementDetailModal from '../components/SignalementDetailModal'
 import NotificationToast from '../components/NotificationToast'
 import { useNotifications } from '../hooks/useNotifications'
@@ -48,19 +50,7 @@ export default function DashboardPage() {
   const fetchSignalements = useCallback(async () => {
     try {
       setLoading(true)
-      const response = await fetch('/api/signalements', {
-        method: 'GET',
-        headers: {
-          'Content-Type': 'application/json',
-          'Authorization': `Bearer ${token}`,
-        },
-      })
-
-      if (!response.ok) {
-        throw new Error('Erreur lors du chargement des signalements')
-      }
-
-      const data = await response.json()
+      const data = await fetchAllSignalements(token)
 
       // Transformer les données pour correspondre au format attendu
       const transformedEvents = data.map(signalement => {
@@ -156,8 +146,9 @@ export default function DashboardPage() {
     }
   }, [token, role])
 
-  // Hook pour les notifications WebSocket
-  const { connected, notifications, clearNotification, clearAll } = useNotifications()
+  // Hook pour les notifications WebSocket ; rechargement complet seulement si les événements manqués
+  // pendant une déconnexion ne peuvent pas être rejoués
+  const { connected, notifications, clearNotification, clearAll } = useNotifications(undefined, fetchSignalements)
 
   useEffect(() => {
     fetchSignalements()
@@ -197,19 +188,7 @@ export default function DashboardPage() {
       await fetchUnsyncedFirebaseSignalements()
 
       // Ensuite, faire la synchronisation
-      const response = await fetch('/api/signalements/sync/firebase', {
-        method: 'POST',
-        headers: {
-          'Content-Type': 'application/json',
-          'Authorization': `Bearer ${token}`,
-        },
-      })
-
-      if (!response.ok) {
-        throw new Error('Erreur lors de la synchronisation')
-      }
-
-      const data = await response.json()
+      const data = await runSyncJob('/api/signalements/sync/firebase', 'la synchronisation', token, setSyncMessage)
       setSyncMessage(`✓ ${data.imported} signalements importés depuis Firebase`)
 
       // Rafraîchir la liste des signalements locaux
@@ -232,19 +211,7 @@ export default function DashboardPage() {
       setExporting(true)
       setSyncMessage('')
 
-      const response = await fetch('/api/signalements/sync/to-firebase', {
-        method: 'POST',
-        headers: {
-          'Content-Type': 'application/json',
-          'Authorization': `Bearer ${token}`,
-        },
-      })
-
-      if (!response.ok) {
-        throw new Error('Erreur lors de l\'envoi vers mobile')
-      }
-
-      const data = await response.json()
+      const data = await runSyncJob('/api/signalements/sync/to-firebase', 'l\'envoi vers mobile', token, setSyncMessage)
       setSyncMessage(`✓ ${data.exported} signalements envoyés vers l'application mobile`)
 
       // Rafraîchir la liste
@@ -263,19 +230,7 @@ export default function DashboardPage() {
       setSyncingStatus(true)
       setSyncMessage('')
 
-      const response = await fetch('/api/signalements/sync/status-to-firebase', {
-        method: 'POST',
-        headers: {
-          'Content-Type': 'application/json',
-          'Authorization': `Bearer ${token}`,
-        },
-      })
-
-      if (!response.ok) {
-        throw new Error('Erreur lors de la synchronisation des statuts')
-      }
-
-      const data = await response.json()
+      const data = await runSyncJob('/api/signalements/sync/status-to-firebase', 'la synchronisation des statuts', token, setSyncMessage)
       setSyncMessage(`✓ ${data.synced} statuts synchronisés vers l'application mobile`)
     } catch (err) {
       console.error('Erreur:', err)
@@ -395,7 +350,7 @@ export default function DashboardPage() {
       <div className="map-container">
         {loading && <div className="loading">Chargement des signalements...</div>}
         {error && <div className="error">Erreur: {error}</div>}
-        {syncMessage && <div className={syncMessage.includes('✓') ? 'success' : 'error'}>{syncMessage}</div>}
+        {syncMessage && <div className={syncMessage.includes('✗') ? 'error' : 'success'}>{syncMessage}</div>}
         
         {!loading && (
           <>
@@ -0,0 +1,26 @@
+const PAGE_SIZE = 500
+
+// Charge tous les signalements page par page (curseur renvoyé dans l'en-tête X-Next-Cursor)
+export const fetchAllSignalements = async (token) => {
+  const signalements = []
+  let cursor = null
+  do {
+    const params = new URLSearchParams({ limit: PAGE_SIZE })
+    if (cursor) {
+      params.set('cursor', cursor)
+    }
+    const response = await fetch(`/api/signalements?${params}`, {
+      method: 'GET',
+      headers: {
+        'Content-Type': 'application/json',
+        'Authorization': `Bearer ${token}`,
+      },
+    })
+    if (!response.ok) {
+      throw new Error('Erreur lors du chargement des signalements')
+    }
+    signalements.push(...await response.json())
+    cursor = response.headers.get('X-Next-Cursor')
+  } while (cursor)
+  return signalements
+}
@@ -0,0 +1,41 @@
+const POLL_INTERVAL_MS = 1000
+
+// Lance un job de synchronisation (202) puis suit son avancement jusqu'à la fin.
+// Si un job du même type tourne déjà (409), on suit celui-ci.
+// Renvoie le résultat du job (imported, exported, synced...).
+export const runSyncJob = async (url, label, token, onProgress) => {
+  const response = await fetch(url, {
+    method: 'POST',
+    headers: {
+      'Content-Type': 'application/json',
+      'Authorization': `Bearer ${token}`,
+    },
+  })
+
+  const started = await response.json().catch(() => ({}))
+  const jobId = response.status === 409 ? started.runningJob?.id : started.jobId
+  if ((!response.ok && response.status !== 409) || !jobId) {
+    throw new Error(started.error || `Erreur lors de ${label}`)
+  }
+
+  while (true) {
+    await new Promise(resolve => setTimeout(resolve, POLL_INTERVAL_MS))
+    const jobResponse = await fetch(`/api/signalements/sync/jobs/${jobId}`, {
+      headers: { 'Authorization': `Bearer ${token}` },
+    })
+    if (!jobResponse.ok) {
+      throw new Error(`Erreur lors du suivi de ${label}`)
+    }
+    const job = await jobResponse.json()
+    if (job.status === 'FAILED') {
+      throw new Error(job.error || `Erreur lors de ${label}`)
+    }
+    if (job.status !== 'RUNNING') {
+      return job.result || {}
+    }
+    if (onProgress) {
+      const eta = job.etaSeconds != null ? ` - environ ${job.etaSeconds}s restantes` : ''
+      onProgress(`⏳ ${label}: ${job.processed + job.failed}/${job.total}${eta}`)
+    }
+  }
+}
@@ -173,13 +173,21 @@ export function MapPage() {
 
   useEffect(() => {
     setLoading(true)
-    fetch('http://localhost:8080/api/signalements')
-      .then((response) => {
-        if (!response.ok) {
-          throw new Error('Impossible de récupérer les signalements.')
-        }
-        return response.json()
-      })
+    // Liste paginée : on suit le curseur de l'en-tête X-Next-Cursor jusqu'à la dernière page
+    const fetchPage = async (cursor, accumulated) => {
+      const params = new URLSearchParams({ limit: 500 })
+      if (cursor) {
+        params.set('cursor', cursor)
+      }
+      const response = await fetch(`http://localhost:8080/api/signalements?${params}`)
+      if (!response.ok) {
+        throw new Error('Impossible de récupérer les signalements.')
+      }
+      const page = [...accumulated, ...await response.json()]
+      const next = response.headers.get('X-Next-Cursor')
+      return next ? fetchPage(next, page) : page
+    }
+    fetchPage(null, [])
       .then((data) => {
         setEvents(data.map(adaptDtoToEvent))
         setError(null)